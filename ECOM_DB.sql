@@ -27,6 +27,16 @@ CREATE TABLE products (
     FOREIGN KEY (category_id) REFERENCES categories(category_id)
 );
 
+-- Seek indexes backing the cursor-paginated product listings
+CREATE INDEX idx_products_category ON products (category_id, product_id);
+CREATE INDEX idx_products_brand ON products (brand, product_id);
+CREATE INDEX idx_products_stock ON products (quantity_in_stock, product_id);
+CREATE INDEX idx_products_price ON products (price, product_id);
+CREATE INDEX idx_products_discount ON products (discount_percent DESC, product_id);
+CREATE INDEX idx_products_created_at ON products (created_at DESC, product_id);
+CREATE INDEX idx_products_category_discount ON products (category_id, discount_percent DESC, product_id);
+CREATE INDEX idx_products_category_created_at ON products (category_id, created_at DESC, product_id);
+
 -- Product sizes table
 CREATE TABLE product_sizes (
     size_id INT PRIMARY KEY AUTO_INCREMENT,
@@ -79,9 +89,10 @@ CREATE TABLE Users1 (
     UserID INT PRIMARY KEY,
     FirstName VARCHAR(50),
     LastName VARCHAR(50),
-    Password VARCHAR(255),  -- In real applications, store hashed passwords
+    Password VARCHAR(255),  -- bcrypt hash; plaintext rows below are rehashed on first login
     Email VARCHAR(100) UNIQUE,
-    PhoneNumber VARCHAR(15)
+    PhoneNumber VARCHAR(15),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
 INSERT INTO Users1 (UserID, FirstName, LastName, Password, Email, PhoneNumber) VALUES
@@ -89,3 +100,44 @@ INSERT INTO Users1 (UserID, FirstName, LastName, Password, Email, PhoneNumber) V
 (2, 'Riya', 'Sharma', 'Riya#2024', 'riya.sharma@example.com', '9876543210'),
 (3, 'Kabir', 'Singh', 'Kabir@456', 'kabir.singh@example.com', '9700011223'),
 (4, 'Ananya', 'Rao', 'Ana2025!*', 'ananya.rao@example.com', '9733344455');
+
+-- Block allocation of primary keys (see UserIdAllocator): the application reserves
+-- ranges of ids by advancing next_value, then hands them out from memory.
+CREATE TABLE id_sequences (
+    sequence_name VARCHAR(64) PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
+INSERT INTO id_sequences (sequence_name, next_value)
+SELECT 'Users1', COALESCE(MAX(UserID), 0) + 1 FROM Users1;
+
+-- Last inventory journal entry applied to products.quantity_in_stock
+INSERT INTO id_sequences (sequence_name, next_value) VALUES ('inventory_journal', 0);
+
+-- Orders. Ids are reserved from id_sequences in blocks (see OrderWriter) and assigned before
+-- the insert, so order and line inserts can be JDBC-batched.
+CREATE TABLE orders (
+    order_id BIGINT PRIMARY KEY,
+    user_id INT,
+    status VARCHAR(20) NOT NULL,
+    total_amount DECIMAL(12,2) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_orders_user ON orders (user_id, order_id);
+
+CREATE TABLE order_lines (
+    line_id BIGINT PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    product_id VARCHAR(10) NOT NULL,
+    size VARCHAR(10),
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10,2) NOT NULL,
+    stock_committed BOOLEAN NOT NULL DEFAULT FALSE,
+    FOREIGN KEY (order_id) REFERENCES orders(order_id)
+);
+
+CREATE INDEX idx_order_lines_order ON order_lines (order_id, line_id);
+CREATE INDEX idx_order_lines_unsettled ON order_lines (stock_committed, order_id);
+
+INSERT INTO id_sequences (sequence_name, next_value) VALUES ('orders', 1), ('order_lines', 1);
@@ -0,0 +1,181 @@
+package com.shop.ecommerce.benchmark;
+
+import com.shop.ecommerce.EcommerceApplication;
+import com.shop.ecommerce.service.EmailExistenceService;
+import com.shop.ecommerce.entity.Offer;
+import com.shop.ecommerce.entity.Product;
+import com.shop.ecommerce.entity.ProductSize;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Boots the application against an in-memory H2 database (MySQL mode) built from
+ * ECOM_DB.sql, then scales the catalog and user table up with synthetic rows.
+ */
+public final class EmbeddedShop implements AutoCloseable {
+
+    private static final Pattern MYSQL_ONLY = Pattern.compile("(?im)^\\s*(CREATE DATABASE|USE)\\b.*;\\s*$");
+    private static final int BATCH = 1_000;
+
+    /** Password of every synthetic user. */
+    public static final String USER_PASSWORD = "Pass@123";
+
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedShop(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static EmbeddedShop start(int products, int users, String... extraProperties) {
+        return start(WebApplicationType.NONE, products, users, extraProperties);
+    }
+
+    public static EmbeddedShop start(WebApplicationType type, int products, int users, String... extraProperties) {
+        return start(type, new Class<?>[0], products, users, extraProperties);
+    }
+
+    /**
+     * @param extraSources additional bean definitions; kept out of component scanning by
+     *                     not being annotated, so they only apply to the shop that asks for them
+     */
+    public static EmbeddedShop start(WebApplicationType type, Class<?>[] extraSources, int products, int users,
+                                     String... extraProperties) {
+        String database = "shop" + System.nanoTime();
+        Map<String, String> properties = new HashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:" + database
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.shop.ecommerce", "WARN");
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        // Seeding happens after startup; build the snapshot explicitly when a benchmark needs it.
+        properties.put("catalog.snapshot.check-interval-ms", String.valueOf(Long.MAX_VALUE / 2));
+        for (String property : extraProperties) {
+            int eq = property.indexOf('=');
+            properties.put(property.substring(0, eq), property.substring(eq + 1));
+        }
+
+        // Passed as command-line arguments so they override application.properties.
+        String[] args = properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EcommerceApplication.class)
+                .sources(extraSources)
+                .web(type)
+                .run(args);
+        DataSource dataSource = context.getBean(DataSource.class);
+        runSchemaScript(dataSource);
+        seed(new JdbcTemplate(dataSource), products, users);
+        // Production builds the email filter at startup, before this schema existed here.
+        EmailExistenceService emails = context.getBean(EmailExistenceService.class);
+        if (emails.isEnabled()) {
+            emails.rebuild();
+        }
+        return new EmbeddedShop(context);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public ConfigurableApplicationContext context() {
+        return context;
+    }
+
+    public int port() {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    static Path schemaScript() {
+        return Path.of(System.getProperty("ecom.sql", "../ECOM_DB.sql"));
+    }
+
+    private static void runSchemaScript(DataSource dataSource) {
+        String script;
+        try {
+            script = Files.readString(schemaScript(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + schemaScript().toAbsolutePath()
+                    + " (set -Decom.sql=/path/to/ECOM_DB.sql)", e);
+        }
+        script = MYSQL_ONLY.matcher(script).replaceAll("");
+        new ResourceDatabasePopulator(new ByteArrayResource(script.getBytes(StandardCharsets.UTF_8)))
+                .execute(dataSource);
+    }
+
+    private static void seed(JdbcTemplate jdbc, int productCount, int userCount) {
+        List<Product> products = SyntheticCatalog.products(productCount, 42);
+        for (int from = 0; from < products.size(); from += BATCH) {
+            List<Product> batch = products.subList(from, Math.min(products.size(), from + BATCH));
+            List<Object[]> rows = new ArrayList<>();
+            List<Object[]> sizes = new ArrayList<>();
+            List<Object[]> offers = new ArrayList<>();
+            for (Product p : batch) {
+                rows.add(new Object[]{p.getProductId(), p.getProductName(), p.getCategory().getCategoryId(),
+                        p.getDescription(), p.getPrice(), p.getOriginalPrice(), p.getDiscountPercent(),
+                        p.getQuantityInStock(), p.getBrand(), p.getImageUrl(), Timestamp.valueOf(p.getCreatedAt())});
+                for (ProductSize size : p.getSizes()) {
+                    sizes.add(new Object[]{p.getProductId(), size.getSize()});
+                }
+                for (Offer offer : p.getOffers()) {
+                    offers.add(new Object[]{p.getProductId(), offer.getOfferDescription()});
+                }
+            }
+            jdbc.batchUpdate("INSERT INTO products (product_id, product_name, category_id, description, price, "
+                    + "original_price, discount_percent, quantity_in_stock, brand, image_url, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+            jdbc.batchUpdate("INSERT INTO product_sizes (product_id, size) VALUES (?, ?)", sizes);
+            jdbc.batchUpdate("INSERT INTO offers (product_id, offer_description) VALUES (?, ?)", offers);
+        }
+
+        Integer maxUserId = jdbc.queryForObject("SELECT COALESCE(MAX(UserID), 0) FROM Users1", Integer.class);
+        // Stored hashed, as registration would, so logins measure bcrypt rather than the
+        // one-off plaintext migration. One hash is shared to keep seeding fast.
+        String passwordHash = new BCryptPasswordEncoder().encode(USER_PASSWORD);
+        List<Object[]> users = new ArrayList<>();
+        for (int n = 1; n <= userCount; n++) {
+            int id = maxUserId + n;
+            users.add(new Object[]{id, "User", "No" + id, passwordHash, userEmail(id), "9800000000"});
+            if (users.size() == BATCH || n == userCount) {
+                jdbc.batchUpdate("INSERT INTO Users1 (UserID, FirstName, LastName, Password, Email, PhoneNumber) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)", users);
+                users.clear();
+            }
+        }
+        // Keep the id block allocator ahead of the rows inserted behind its back.
+        jdbc.update("UPDATE id_sequences SET next_value = (SELECT COALESCE(MAX(UserID), 0) + 1 FROM Users1) "
+                + "WHERE sequence_name = 'Users1'");
+    }
+
+    public static String userEmail(int userId) {
+        return "user" + userId + "@example.com";
+    }
+}
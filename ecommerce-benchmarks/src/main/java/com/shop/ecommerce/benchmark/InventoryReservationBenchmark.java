@@ -0,0 +1,95 @@
+package com.shop.ecommerce.benchmark;
+
+import com.shop.ecommerce.inventory.InventoryJournal;
+import com.shop.ecommerce.inventory.InventoryLedger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Stock reservations from 32 threads against the in-memory ledger. With
+ * {@code products=1} every thread competes for the same product, as in a flash sale;
+ * the larger value spreads the same load out for comparison. Commits also append to a
+ * journal in a temporary directory, which is drained after every iteration the way the
+ * write-behind flush would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class InventoryReservationBenchmark {
+
+    private static final Duration TTL = Duration.ofMinutes(15);
+
+    @Param({"1", "1024"})
+    public int products;
+
+    private Path directory;
+    private InventoryJournal journal;
+    private InventoryLedger ledger;
+    private String[] productIds;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("inventory-benchmark");
+        journal = new InventoryJournal(directory, false);
+        ledger = new InventoryLedger(id -> Integer.MAX_VALUE, journal);
+        productIds = new String[products];
+        for (int i = 0; i < products; i++) {
+            productIds[i] = "P" + i;
+            ledger.available(productIds[i]);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void drain() throws IOException {
+        journal.deleteThrough(ledger.drain().getSegment());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        return ledger.release(ledger.reserve(product(), 1, TTL).getId());
+    }
+
+    @Benchmark
+    public boolean reserveAndCommit() {
+        return ledger.commit(ledger.reserve(product(), 1, TTL).getId());
+    }
+
+    private String product() {
+        return products == 1 ? productIds[0] : productIds[ThreadLocalRandom.current().nextInt(products)];
+    }
+}
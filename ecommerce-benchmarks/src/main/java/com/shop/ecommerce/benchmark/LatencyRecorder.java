@@ -0,0 +1,46 @@
+package com.shop.ecommerce.benchmark;
+
+import java.util.Arrays;
+
+/** Collects response times of successful requests and counts failures for one load run. */
+final class LatencyRecorder {
+
+    private long[] latencies = new long[1 << 16];
+    private int count;
+    private long errors;
+    private long elapsedNanos;
+
+    synchronized void record(long nanos, boolean ok) {
+        if (!ok) {
+            errors++;
+            return;
+        }
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+    }
+
+    synchronized void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    synchronized double throughput() {
+        return count * 1e9 / elapsedNanos;
+    }
+
+    synchronized long errors() {
+        return errors;
+    }
+
+    /** The {@code p}th percentile in milliseconds, or NaN when nothing succeeded. */
+    synchronized double percentile(double p) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.min(count - 1, Math.ceil(p / 100 * count) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,123 @@
+package com.shop.ecommerce.benchmark;
+
+import com.shop.ecommerce.service.CatalogSnapshotService;
+import org.springframework.boot.WebApplicationType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Catalog latency with and without a sustained login burst. Catalog clients run alone
+ * first, then alongside {@code login.clients} closed-loop login clients. The second
+ * run reports successful logins/sec, logins shed with 503, and how far catalog p99
+ * moved from the first run. Login clients that get a 503 wait for its Retry-After.
+ */
+public final class LoginIsolationBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int USERS = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int catalogClients = Integer.getInteger("load.catalog-clients", 32);
+        int loginClients = Integer.getInteger("login.clients", 64);
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+        Duration measure = Duration.ofSeconds(Long.getLong("load.seconds", 20));
+
+        try (EmbeddedShop shop = EmbeddedShop.start(WebApplicationType.SERVLET, PRODUCTS, USERS, "server.port=0")) {
+            shop.bean(CatalogSnapshotService.class).rebuild();
+            String base = "http://localhost:" + shop.port();
+            HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+
+            System.out.printf("%-14s %10s %9s %9s %9s %10s %8s %9s%n",
+                    "load", "catalog/s", "p50 ms", "p99 ms", "p99.9 ms", "logins/s", "shed", "login p99");
+            run(http, base, catalogClients, 0, warmup);
+            print("catalog only", run(http, base, catalogClients, 0, measure));
+            run(http, base, catalogClients, loginClients, warmup);
+            print("with logins", run(http, base, catalogClients, loginClients, measure));
+        }
+    }
+
+    private static Run run(HttpClient http, String base, int catalogClients, int loginClients, Duration duration)
+            throws InterruptedException {
+        Run run = new Run();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch finished = new CountDownLatch(catalogClients + loginClients);
+        long started = System.nanoTime();
+        for (int i = 0; i < catalogClients; i++) {
+            next(http, () -> catalogRequest(base), run.catalog, null, running, finished);
+        }
+        for (int i = 0; i < loginClients; i++) {
+            next(http, () -> loginRequest(base), run.logins, run.shed, running, finished);
+        }
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+        finished.await();
+        long elapsed = System.nanoTime() - started;
+        run.catalog.finish(elapsed);
+        run.logins.finish(elapsed);
+        return run;
+    }
+
+    // Closed loop: each client sends its next request once the previous one completes.
+    private static void next(HttpClient http, Supplier<HttpRequest> request, LatencyRecorder recorder,
+                             AtomicLong shed, AtomicBoolean running, CountDownLatch finished) {
+        if (!running.get()) {
+            finished.countDown();
+            return;
+        }
+        long sent = System.nanoTime();
+        http.sendAsync(request.get(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    if (shed != null && error == null && response.statusCode() == 503) {
+                        // Back off as a well-behaved client would, instead of hammering the server.
+                        shed.incrementAndGet();
+                        long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                        CompletableFuture.delayedExecutor(retryAfter, TimeUnit.SECONDS)
+                                .execute(() -> next(http, request, recorder, shed, running, finished));
+                        return;
+                    }
+                    recorder.record(System.nanoTime() - sent, error == null && response.statusCode() == 200
+                            && (shed == null || response.body().contains("\"success\":true")));
+                    next(http, request, recorder, shed, running, finished);
+                });
+    }
+
+    private static HttpRequest catalogRequest(String base) {
+        String id = SyntheticCatalog.productId(1 + ThreadLocalRandom.current().nextInt(PRODUCTS));
+        return HttpRequest.newBuilder(URI.create(base + "/api/products/" + id)).timeout(Duration.ofSeconds(60)).build();
+    }
+
+    // ECOM_DB.sql seeds users 1-4; synthetic users follow.
+    private static HttpRequest loginRequest(String base) {
+        int userId = 5 + ThreadLocalRandom.current().nextInt(USERS);
+        String body = "{\"email\":\"" + EmbeddedShop.userEmail(userId) + "\",\"password\":\""
+                + EmbeddedShop.USER_PASSWORD + "\"}";
+        return HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void print(String label, Run run) {
+        System.out.printf("%-14s %10.0f %9.1f %9.1f %9.1f %10.1f %8d %9.1f%n", label,
+                run.catalog.throughput(), run.catalog.percentile(50), run.catalog.percentile(99),
+                run.catalog.percentile(99.9), run.logins.throughput(), run.shed.get(), run.logins.percentile(99));
+    }
+
+    private static final class Run {
+        final LatencyRecorder catalog = new LatencyRecorder();
+        final LatencyRecorder logins = new LatencyRecorder();
+        final AtomicLong shed = new AtomicLong();
+    }
+}
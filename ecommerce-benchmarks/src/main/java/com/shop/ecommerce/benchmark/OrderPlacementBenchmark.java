@@ -0,0 +1,79 @@
+package com.shop.ecommerce.benchmark;
+
+import com.shop.ecommerce.entity.Order;
+import com.shop.ecommerce.entity.OrderLine;
+import com.shop.ecommerce.service.OrderWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders of three lines written by 16 concurrent checkouts, with 1 ms per statement and
+ * 2 ms per commit of simulated database latency:
+ * <ul>
+ *   <li>{@code unbatched}: one transaction per order, every row its own INSERT
+ *       (Hibernate's defaults)</li>
+ *   <li>{@code batched}: one transaction per order, one batched INSERT per table</li>
+ *   <li>{@code group-commit}: concurrent orders share one transaction per 2 ms window</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class OrderPlacementBenchmark {
+
+    private static final int PRODUCTS = 100;
+
+    @Param({"unbatched", "batched", "group-commit"})
+    public String mode;
+
+    private EmbeddedShop shop;
+    private OrderWriter orderWriter;
+
+    @Setup
+    public void setUp() {
+        shop = EmbeddedShop.start(WebApplicationType.NONE, new Class<?>[]{SimulatedDatabaseLatency.class}, PRODUCTS, 0,
+                "benchmark.db-latency-ms=1",
+                "benchmark.commit-latency-ms=2",
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + (mode.equals("unbatched") ? 0 : 50),
+                "spring.jpa.properties.hibernate.order_inserts=" + !mode.equals("unbatched"),
+                "orders.group-commit.enabled=" + mode.equals("group-commit"));
+        orderWriter = shop.bean(OrderWriter.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        shop.close();
+    }
+
+    @Benchmark
+    public Order placeOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Order order = new Order(1 + random.nextInt(1000), LocalDateTime.now());
+        for (int i = 0; i < 3; i++) {
+            order.addLine(new OrderLine("P" + (1 + random.nextInt(PRODUCTS)), "M", 1 + random.nextInt(3),
+                    new BigDecimal("799.00")));
+        }
+        return orderWriter.write(order);
+    }
+}
@@ -0,0 +1,85 @@
+package com.shop.ecommerce.benchmark;
+
+import com.shop.ecommerce.catalog.CatalogSnapshot;
+import com.shop.ecommerce.repository.ProductRepository;
+import com.shop.ecommerce.service.CatalogSnapshotService;
+import com.shop.ecommerce.service.ProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price-range listing served by the snapshot's primitive price index, against the
+ * database query plus DTO conversion it replaces. Both sides return the same DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceRangeBenchmark {
+
+    private static final BigDecimal MIN = new BigDecimal("500");
+    private static final BigDecimal MAX = new BigDecimal("1000");
+    private static final int CATEGORY = 2;
+
+    @Param({"1000", "20000"})
+    public int catalogSize;
+
+    private EmbeddedShop shop;
+    private CatalogSnapshot snapshot;
+    private ProductRepository products;
+    private ProductMapper mapper;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setUp() {
+        shop = EmbeddedShop.start(catalogSize, 0);
+        snapshot = shop.bean(CatalogSnapshotService.class).rebuild();
+        products = shop.bean(ProductRepository.class);
+        mapper = shop.bean(ProductMapper.class);
+        readOnly = new TransactionTemplate(shop.bean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        shop.close();
+    }
+
+    @Benchmark
+    public int database() {
+        return readOnly.execute(status -> mapper.convertAll(products.findByPriceRange(MIN, MAX)).size());
+    }
+
+    @Benchmark
+    public int databaseInCategoryInStock() {
+        return readOnly.execute(status ->
+                mapper.convertAll(products.findByPriceRange(MIN, MAX, CATEGORY, true)).size());
+    }
+
+    @Benchmark
+    public int priceIndex() {
+        return snapshot.getProductsByPriceRange(MIN, MAX).size();
+    }
+
+    @Benchmark
+    public int priceIndexInCategoryInStock() {
+        return snapshot.getProductsByPriceRange(MIN, MAX, CATEGORY, true).size();
+    }
+}
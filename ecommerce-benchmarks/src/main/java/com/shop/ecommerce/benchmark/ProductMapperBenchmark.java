@@ -0,0 +1,47 @@
+package com.shop.ecommerce.benchmark;
+
+import com.shop.ecommerce.entity.Product;
+import com.shop.ecommerce.service.ProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Entity-to-DTO conversion over whole catalogs, as every uncached list endpoint does. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    private final ProductMapper mapper = new ProductMapper();
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = SyntheticCatalog.products(catalogSize, 42);
+    }
+
+    @Benchmark
+    public void convertCatalog(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(mapper.convertToDTO(product));
+        }
+    }
+}
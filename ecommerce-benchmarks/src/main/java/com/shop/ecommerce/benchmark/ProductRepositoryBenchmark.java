@@ -0,0 +1,118 @@
+package com.shop.ecommerce.benchmark;
+
+import com.shop.ecommerce.repository.ProductRepository;
+import com.shop.ecommerce.repository.ProductSizeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Every ProductRepository read against an embedded database seeded from ECOM_DB.sql
+ * and scaled to {@code catalogSize} products. Each call runs in its own read-only
+ * transaction, like a request would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductRepositoryBenchmark {
+
+    @Param({"1000", "20000"})
+    public int catalogSize;
+
+    private EmbeddedShop shop;
+    private ProductRepository products;
+    private ProductSizeRepository sizes;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setUp() {
+        shop = EmbeddedShop.start(catalogSize, 0, "catalog.snapshot.enabled=false");
+        products = shop.bean(ProductRepository.class);
+        sizes = shop.bean(ProductSizeRepository.class);
+        readOnly = new TransactionTemplate(shop.bean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        shop.close();
+    }
+
+    @Benchmark
+    public int findAll() {
+        return read(() -> products.findAll());
+    }
+
+    @Benchmark
+    public boolean findById() {
+        return readOnly.execute(status -> products.findById(SyntheticCatalog.productId(catalogSize / 2)).isPresent());
+    }
+
+    @Benchmark
+    public int findByCategoryId() {
+        return read(() -> products.findByCategoryId(2));
+    }
+
+    @Benchmark
+    public int findByProductNameContaining() {
+        return read(() -> products.findByProductNameContaining("Jacket"));
+    }
+
+    @Benchmark
+    public int findByBrand() {
+        return read(() -> products.findByBrand("FashionHub"));
+    }
+
+    @Benchmark
+    public int findByPriceRange() {
+        return read(() -> products.findByPriceRange(new BigDecimal("500"), new BigDecimal("1000")));
+    }
+
+    @Benchmark
+    public int findDiscountedProducts() {
+        return read(() -> products.findDiscountedProducts());
+    }
+
+    @Benchmark
+    public int findAvailableProducts() {
+        return read(() -> products.findAvailableProducts());
+    }
+
+    @Benchmark
+    public int findLatestProducts() {
+        return read(() -> products.findLatestProducts());
+    }
+
+    @Benchmark
+    public int findAllBrands() {
+        return read(() -> products.findAllBrands());
+    }
+
+    @Benchmark
+    public int findAllSizes() {
+        return read(() -> sizes.findAllSizes());
+    }
+
+    private int read(Supplier<List<?>> query) {
+        return readOnly.execute(status -> query.get().size());
+    }
+}
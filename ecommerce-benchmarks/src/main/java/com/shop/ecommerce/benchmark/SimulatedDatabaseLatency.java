@@ -0,0 +1,85 @@
+package com.shop.ecommerce.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Adds {@code benchmark.db-latency-ms} of blocking wait to every statement execution so
+ * the in-memory database behaves like a networked MySQL: the calling thread is parked
+ * while it holds a pooled connection. {@code benchmark.commit-latency-ms} is added to every
+ * commit, standing in for the redo log flush. Deliberately not a {@code @Configuration}, so
+ * it only applies when passed to {@link EmbeddedShop} as an extra source.
+ */
+public class SimulatedDatabaseLatency {
+
+    @Bean
+    static BeanPostProcessor simulatedLatencyPostProcessor(@Value("${benchmark.db-latency-ms:2}") long latencyMillis,
+                                                           @Value("${benchmark.commit-latency-ms:0}") long commitMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari && (latencyMillis > 0 || commitMillis > 0)) {
+                    JdbcDataSource h2 = new JdbcDataSource();
+                    h2.setURL(hikari.getJdbcUrl());
+                    h2.setUser(hikari.getUsername());
+                    h2.setPassword(hikari.getPassword());
+                    // Hikari connects through this instead of the JDBC URL, passing the
+                    // credentials when a username is configured.
+                    hikari.setDataSource(new DelegatingDataSource(h2) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return slow(super.getConnection(), latencyMillis, commitMillis);
+                        }
+
+                        @Override
+                        public Connection getConnection(String username, String password) throws SQLException {
+                            return slow(super.getConnection(username, password), latencyMillis, commitMillis);
+                        }
+                    });
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Connection slow(Connection connection, long latencyMillis, long commitMillis) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("commit") && commitMillis > 0) {
+                        LockSupport.parkNanos(commitMillis * 1_000_000);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        Class<?> type = method.getReturnType();
+                        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                                (p, m, a) -> {
+                                    if (m.getName().startsWith("execute") && latencyMillis > 0) {
+                                        LockSupport.parkNanos(latencyMillis * 1_000_000);
+                                    }
+                                    return invoke(statement, m, a);
+                                });
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.shop.ecommerce.benchmark;
+
+import com.shop.ecommerce.entity.Category;
+import com.shop.ecommerce.entity.Offer;
+import com.shop.ecommerce.entity.Product;
+import com.shop.ecommerce.entity.ProductSize;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic catalog generator shaped like the rows in ECOM_DB.sql: three
+ * categories, a handful of brands, two to five sizes and up to three offers per product.
+ */
+public final class SyntheticCatalog {
+
+    static final String[] CATEGORIES = {"Men", "Women", "Kids"};
+    static final String[] BRANDS = {"FashionHub", "UrbanThread", "Kalki", "Northwind", "Monsoon", "Ravi & Co"};
+    static final String[] SIZES = {"XS", "S", "M", "L", "XL", "XXL"};
+    static final String[] GARMENTS = {"Cotton Shirt", "Floral Dress", "Winter Jacket", "Leather Jacket",
+            "Denim Jeans", "Linen Kurta", "Wool Sweater", "Silk Saree", "Chino Trousers", "Rain Coat"};
+    static final String[] ADJECTIVES = {"Classic", "Slim Fit", "Premium", "Casual", "Festive", "Everyday", "Organic"};
+    static final String[] OFFERS = {"10% off on first purchase", "Extra 5% off on orders above ₹999",
+            "Free delivery for Prime Members", "20% off on orders above ₹1500", "Buy 2 get 1 free"};
+
+    private SyntheticCatalog() {}
+
+    public static String productId(int n) {
+        return String.format("B%07d", n);
+    }
+
+    /** Products with categories, sizes and offers attached, as JPA would load them. */
+    public static List<Product> products(int count, long seed) {
+        Random random = new Random(seed);
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            Category category = new Category(CATEGORIES[i], CATEGORIES[i] + " clothing and accessories");
+            category.setCategoryId(i + 1);
+            categories.add(category);
+        }
+
+        List<Product> products = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int n = 1; n <= count; n++) {
+            Category category = categories.get(random.nextInt(categories.size()));
+            String garment = GARMENTS[random.nextInt(GARMENTS.length)];
+            int original = 499 + random.nextInt(60) * 50;
+            int discount = random.nextInt(4) == 0 ? 0 : 5 + random.nextInt(46);
+
+            Product product = new Product();
+            product.setProductId(productId(n));
+            product.setProductName(category.getCategoryName() + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + garment);
+            product.setCategory(category);
+            product.setDescription("Comfortable " + garment.toLowerCase() + " for " + category.getCategoryName().toLowerCase()
+                    + ", crafted for everyday wear with breathable fabric and a modern cut.");
+            product.setOriginalPrice(BigDecimal.valueOf(original).setScale(2));
+            product.setPrice(BigDecimal.valueOf(original * (100 - discount) / 100).setScale(2));
+            product.setDiscountPercent(discount);
+            product.setQuantityInStock(random.nextInt(5) == 0 ? 0 : random.nextInt(50));
+            product.setBrand(BRANDS[random.nextInt(BRANDS.length)]);
+            product.setImageUrl("static/images/men-cotton-shirt.jpg");
+            product.setCreatedAt(start.plusMinutes(random.nextInt(60 * 24 * 365)));
+
+            List<ProductSize> sizes = new ArrayList<>();
+            int firstSize = random.nextInt(3);
+            int sizeCount = 2 + random.nextInt(4);
+            for (int s = firstSize; s < Math.min(SIZES.length, firstSize + sizeCount); s++) {
+                sizes.add(new ProductSize(product, SIZES[s]));
+            }
+            product.setSizes(sizes);
+
+            List<Offer> offers = new ArrayList<>();
+            int offerCount = random.nextInt(4);
+            for (int o = 0; o < offerCount; o++) {
+                offers.add(new Offer(product, OFFERS[(n + o) % OFFERS.length]));
+            }
+            product.setOffers(offers);
+            products.add(product);
+        }
+        return products;
+    }
+}
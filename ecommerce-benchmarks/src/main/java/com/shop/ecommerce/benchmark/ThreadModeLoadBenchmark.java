@@ -0,0 +1,109 @@
+package com.shop.ecommerce.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Closed-loop HTTP load against the embedded shop, once with Tomcat's platform thread
+ * pool and once with virtual threads, at each client count in {@code load.clients}.
+ * The product snapshot is disabled so every request goes to the database, and each
+ * statement waits {@code benchmark.db-latency-ms} to stand in for the MySQL round trip.
+ * <p>
+ * Virtual threads need Java 21; on an older runtime only the platform mode is measured.
+ * Each client holds a socket on both ends, so raise the open-file limit accordingly
+ * ({@code ulimit -n}) before running 10K clients.
+ */
+public final class ThreadModeLoadBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int[] clients = Arrays.stream(System.getProperty("load.clients", "1000,2500,5000,10000").split(","))
+                .mapToInt(c -> Integer.parseInt(c.trim()))
+                .toArray();
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+        Duration measure = Duration.ofSeconds(Long.getLong("load.seconds", 20));
+        String latency = System.getProperty("benchmark.db-latency-ms", "2");
+
+        List<Boolean> modes = new ArrayList<>(List.of(false));
+        if (Runtime.version().feature() >= 21) {
+            modes.add(true);
+        } else {
+            System.out.println("Java " + Runtime.version().feature() + ": skipping virtual threads (needs 21+)");
+        }
+
+        System.out.printf("%-9s %8s %10s %9s %9s %9s %8s%n",
+                "threads", "clients", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+        for (boolean virtual : modes) {
+            try (EmbeddedShop shop = EmbeddedShop.start(WebApplicationType.SERVLET,
+                    new Class<?>[]{SimulatedDatabaseLatency.class}, PRODUCTS, 0,
+                    "server.port=0",
+                    "server.tomcat.max-connections=20000",
+                    "server.tomcat.accept-count=10000",
+                    "catalog.snapshot.enabled=false",
+                    "benchmark.db-latency-ms=" + latency,
+                    "spring.threads.virtual.enabled=" + virtual)) {
+                String base = "http://localhost:" + shop.port();
+                HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+                for (int n : clients) {
+                    run(http, base, n, warmup);
+                    LatencyRecorder result = run(http, base, n, measure);
+                    System.out.printf("%-9s %8d %10.0f %9.1f %9.1f %9.1f %8d%n",
+                            virtual ? "virtual" : "platform", n, result.throughput(),
+                            result.percentile(50), result.percentile(99), result.percentile(99.9), result.errors());
+                }
+            }
+        }
+    }
+
+    private static LatencyRecorder run(HttpClient http, String base, int clients, Duration duration)
+            throws InterruptedException {
+        LatencyRecorder result = new LatencyRecorder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch finished = new CountDownLatch(clients);
+        long started = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            next(http, base, result, running, finished);
+        }
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+        finished.await();
+        result.finish(System.nanoTime() - started);
+        return result;
+    }
+
+    // Each client issues its next request as soon as the previous one completes.
+    private static void next(HttpClient http, String base, LatencyRecorder result, AtomicBoolean running, CountDownLatch finished) {
+        if (!running.get()) {
+            finished.countDown();
+            return;
+        }
+        long sent = System.nanoTime();
+        http.sendAsync(HttpRequest.newBuilder(URI.create(base + path())).timeout(Duration.ofSeconds(60)).build(),
+                        HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    result.record(System.nanoTime() - sent, error == null && response.statusCode() == 200);
+                    next(http, base, result, running, finished);
+                });
+    }
+
+    // 80% product lookups, 20% first pages of a category listing.
+    private static String path() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(10) < 8) {
+            return "/api/products/" + SyntheticCatalog.productId(1 + random.nextInt(PRODUCTS));
+        }
+        return "/api/products/category/" + (1 + random.nextInt(3)) + "?limit=24";
+    }
+}
@@ -0,0 +1,384 @@
+package com.shop.ecommerce.benchmark;
+
+import com.shop.ecommerce.service.CatalogSnapshotService;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.WebApplicationType;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load replaying the PostmanTest flows: browse, search, product detail,
+ * check-email, register and login, mixed by the weights in {@code load.mix}. Requests
+ * arrive as a Poisson process at {@code load.rate} per second whether or not earlier
+ * ones have finished, and each latency is measured from its scheduled send time, so a
+ * stalled server shows up in the percentiles instead of slowing the generator down.
+ * <p>
+ * The shop runs against the embedded H2 database seeded with {@code load.products}
+ * products and {@code load.users} users. Per-endpoint latencies go into HdrHistograms;
+ * set {@code load.hgrm-dir} to also write each full distribution as a .hgrm file.
+ */
+public final class TrafficMixLoadBenchmark {
+
+    private static final String DEFAULT_MIX = "browse=30,search=15,detail=40,check-email=8,register=2,login=5";
+    private static final String COMMON_PARALLELISM = "java.util.concurrent.ForkJoinPool.common.parallelism";
+    private static final AtomicLong REGISTRATIONS = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        // HttpClient completes every async response on the common pool, which falls back
+        // to a new thread per task below two cores; that would cap the offered rate.
+        if (System.getProperty(COMMON_PARALLELISM) == null) {
+            System.setProperty(COMMON_PARALLELISM, String.valueOf(Math.max(4, Runtime.getRuntime().availableProcessors())));
+        }
+        int products = Integer.getInteger("load.products", 10_000);
+        int users = Integer.getInteger("load.users", 100_000);
+        double rate = Double.parseDouble(System.getProperty("load.rate", "500"));
+        int maxInFlight = Integer.getInteger("load.max-in-flight", 10_000);
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+        Duration measure = Duration.ofSeconds(Long.getLong("load.seconds", 20));
+        String hgrmDir = System.getProperty("load.hgrm-dir");
+        Mix mix = Mix.parse(System.getProperty("load.mix", DEFAULT_MIX));
+
+        try (EmbeddedShop shop = EmbeddedShop.start(WebApplicationType.SERVLET, products, users,
+                "server.port=0",
+                "server.tomcat.max-connections=20000",
+                "server.tomcat.accept-count=10000")) {
+            shop.bean(CatalogSnapshotService.class).rebuild();
+            Target target = new Target("http://localhost:" + shop.port(), products, users);
+            HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+
+            System.out.printf("%,d products, %,d users, %.0f req/s offered, mix %s%n",
+                    products, users, rate, mix);
+            run(http, target, mix, rate, maxInFlight, warmup);
+            Run result = run(http, target, mix, rate, maxInFlight, measure);
+            print(result);
+            if (hgrmDir != null) {
+                writeDistributions(result, Path.of(hgrmDir));
+            }
+        }
+    }
+
+    private static Run run(HttpClient http, Target target, Mix mix, double rate, int maxInFlight, Duration duration)
+            throws InterruptedException {
+        Run run = new Run(mix);
+        long started = System.nanoTime();
+        long end = started + duration.toNanos();
+        long intended = started;
+        while (intended < end) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            Endpoint endpoint = mix.pick();
+            if (run.inFlight.get() >= maxInFlight) {
+                // Holding the request back would turn this into a closed loop; count it instead.
+                run.stats.get(endpoint).dropped.incrementAndGet();
+            } else {
+                send(http, target, endpoint, run, intended);
+            }
+            intended += interArrivalNanos(rate);
+        }
+        long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (run.inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+        run.elapsedNanos = System.nanoTime() - started;
+        return run;
+    }
+
+    private static void send(HttpClient http, Target target, Endpoint endpoint, Run run, long intended) {
+        EndpointStats stats = run.stats.get(endpoint);
+        run.inFlight.incrementAndGet();
+        http.sendAsync(endpoint.request(target), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                    if (error != null) {
+                        stats.errors.incrementAndGet();
+                    } else if (response.statusCode() == 503) {
+                        stats.shed.incrementAndGet();
+                    } else if (response.statusCode() != 200
+                            || endpoint.checksSuccess && !response.body().contains("\"success\":true")) {
+                        stats.errors.incrementAndGet();
+                    } else {
+                        stats.latency.recordValue(micros);
+                        stats.ok.incrementAndGet();
+                    }
+                    run.inFlight.decrementAndGet();
+                });
+    }
+
+    // Exponential gaps between arrivals make the arrivals a Poisson process at `rate`.
+    private static long interArrivalNanos(double rate) {
+        double u = ThreadLocalRandom.current().nextDouble();
+        return Math.max(1, (long) (-Math.log(1 - u) / rate * 1e9));
+    }
+
+    private static void print(Run run) {
+        System.out.printf("%-12s %9s %9s %9s %9s %9s %9s %9s %7s %7s %8s%n", "endpoint", "ok", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "shed", "dropped");
+        Histogram total = new Histogram(3);
+        long ok = 0;
+        long errors = 0;
+        long shed = 0;
+        long dropped = 0;
+        for (EndpointStats stats : run.stats.values()) {
+            Histogram histogram = stats.histogram();
+            total.add(histogram);
+            ok += stats.ok.get();
+            errors += stats.errors.get();
+            shed += stats.shed.get();
+            dropped += stats.dropped.get();
+            printRow(stats.endpoint.label, histogram, stats.ok.get(), run.elapsedNanos,
+                    stats.errors.get(), stats.shed.get(), stats.dropped.get());
+        }
+        printRow("total", total, ok, run.elapsedNanos, errors, shed, dropped);
+    }
+
+    private static void printRow(String label, Histogram histogram, long ok, long elapsedNanos,
+                                 long errors, long shed, long dropped) {
+        System.out.printf("%-12s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d %7d %8d%n", label, ok,
+                ok * 1e9 / elapsedNanos, millis(histogram, 50), millis(histogram, 90), millis(histogram, 99),
+                millis(histogram, 99.9), histogram.getTotalCount() == 0 ? Double.NaN : histogram.getMaxValue() / 1e3,
+                errors, shed, dropped);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? Double.NaN : histogram.getValueAtPercentile(percentile) / 1e3;
+    }
+
+    private static void writeDistributions(Run run, Path dir) throws Exception {
+        Files.createDirectories(dir);
+        for (EndpointStats stats : run.stats.values()) {
+            Path file = dir.resolve(stats.endpoint.label + ".hgrm");
+            try (PrintStream out = new PrintStream(file.toFile(), StandardCharsets.UTF_8)) {
+                // Recorded in microseconds, reported in milliseconds.
+                stats.histogram().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("Latency distributions written to " + dir.toAbsolutePath());
+    }
+
+    private record Target(String base, int products, int users) {
+
+        String randomProductId() {
+            return SyntheticCatalog.productId(1 + ThreadLocalRandom.current().nextInt(products));
+        }
+
+        // ECOM_DB.sql seeds users 1-4; synthetic users follow.
+        String randomUserEmail() {
+            return EmbeddedShop.userEmail(5 + ThreadLocalRandom.current().nextInt(Math.max(1, users)));
+        }
+    }
+
+    enum Endpoint {
+        BROWSE("browse", false) {
+            @Override
+            HttpRequest request(Target target) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                StringBuilder query = new StringBuilder("?limit=24&categoryId=")
+                        .append(1 + random.nextInt(SyntheticCatalog.CATEGORIES.length));
+                if (random.nextBoolean()) {
+                    query.append("&brand=").append(encode(pick(SyntheticCatalog.BRANDS)));
+                }
+                if (random.nextInt(3) == 0) {
+                    query.append("&size=").append(pick(SyntheticCatalog.SIZES));
+                }
+                if (random.nextBoolean()) {
+                    query.append("&inStock=true");
+                }
+                return get(target, "/api/products/browse" + query);
+            }
+        },
+        SEARCH("search", false) {
+            @Override
+            HttpRequest request(Target target) {
+                String term = ThreadLocalRandom.current().nextBoolean()
+                        ? pick(SyntheticCatalog.GARMENTS) : pick(SyntheticCatalog.ADJECTIVES);
+                return get(target, "/api/products/search?limit=24&name=" + encode(term));
+            }
+        },
+        DETAIL("detail", false) {
+            @Override
+            HttpRequest request(Target target) {
+                return get(target, "/api/products/" + target.randomProductId());
+            }
+        },
+        CHECK_EMAIL("check-email", true) {
+            @Override
+            HttpRequest request(Target target) {
+                String email = ThreadLocalRandom.current().nextBoolean()
+                        ? target.randomUserEmail()
+                        : "new" + ThreadLocalRandom.current().nextLong(1L << 40) + "@example.com";
+                return get(target, "/api/auth/check-email?email=" + encode(email));
+            }
+        },
+        REGISTER("register", true) {
+            @Override
+            HttpRequest request(Target target) {
+                String email = "load" + ProcessHandle.current().pid() + "-" + REGISTRATIONS.incrementAndGet()
+                        + "@example.com";
+                return post(target, "/api/auth/register", "{\"firstName\":\"Load\",\"lastName\":\"Test\","
+                        + "\"email\":\"" + email + "\",\"password\":\"" + EmbeddedShop.USER_PASSWORD + "\","
+                        + "\"phoneNumber\":\"9800000000\"}");
+            }
+        },
+        LOGIN("login", true) {
+            @Override
+            HttpRequest request(Target target) {
+                return post(target, "/api/auth/login", "{\"email\":\"" + target.randomUserEmail()
+                        + "\",\"password\":\"" + EmbeddedShop.USER_PASSWORD + "\"}");
+            }
+        };
+
+        final String label;
+        final boolean checksSuccess;
+
+        Endpoint(String label, boolean checksSuccess) {
+            this.label = label;
+            this.checksSuccess = checksSuccess;
+        }
+
+        abstract HttpRequest request(Target target);
+
+        static Endpoint of(String label) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.label.equals(label)) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Unknown endpoint '" + label + "' in load.mix");
+        }
+
+        private static HttpRequest get(Target target, String path) {
+            return HttpRequest.newBuilder(URI.create(target.base() + path)).timeout(Duration.ofSeconds(60)).build();
+        }
+
+        private static HttpRequest post(Target target, String path, String json) {
+            return HttpRequest.newBuilder(URI.create(target.base() + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        private static String pick(String[] values) {
+            return values[ThreadLocalRandom.current().nextInt(values.length)];
+        }
+
+        private static String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Endpoint weights, e.g. {@code browse=30,detail=70}; weights are relative. */
+    static final class Mix {
+
+        private final Map<Endpoint, Integer> weights;
+        private final Endpoint[] endpoints;
+        private final int[] cumulative;
+
+        private Mix(Map<Endpoint, Integer> weights) {
+            this.weights = weights;
+            this.endpoints = weights.keySet().toArray(new Endpoint[0]);
+            this.cumulative = new int[endpoints.length];
+            int sum = 0;
+            for (int i = 0; i < endpoints.length; i++) {
+                sum += weights.get(endpoints[i]);
+                cumulative[i] = sum;
+            }
+        }
+
+        static Mix parse(String spec) {
+            Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+            for (String part : spec.split(",")) {
+                String[] pair = part.trim().split("=");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Expected endpoint=weight in load.mix, got '" + part + "'");
+                }
+                int weight = Integer.parseInt(pair[1].trim());
+                if (weight > 0) {
+                    weights.put(Endpoint.of(pair[0].trim()), weight);
+                }
+            }
+            if (weights.isEmpty()) {
+                throw new IllegalArgumentException("load.mix has no endpoint with a positive weight");
+            }
+            return new Mix(weights);
+        }
+
+        Endpoint pick() {
+            int roll = ThreadLocalRandom.current().nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (roll < cumulative[i]) {
+                    return endpoints[i];
+                }
+            }
+            return endpoints[endpoints.length - 1];
+        }
+
+        List<Endpoint> endpoints() {
+            return new ArrayList<>(weights.keySet());
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            weights.forEach((endpoint, weight) -> text.append(text.length() == 0 ? "" : ",")
+                    .append(endpoint.label).append('=').append(weight));
+            return text.toString();
+        }
+    }
+
+    private static final class EndpointStats {
+        final Endpoint endpoint;
+        // Microseconds; recorded from HttpClient threads while the dispatcher keeps sending.
+        final Recorder latency = new Recorder(3);
+        final AtomicLong ok = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong shed = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        private Histogram histogram;
+
+        EndpointStats(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized Histogram histogram() {
+            if (histogram == null) {
+                histogram = latency.getIntervalHistogram();
+            }
+            return histogram;
+        }
+    }
+
+    private static final class Run {
+        final Map<Endpoint, EndpointStats> stats = new LinkedHashMap<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        long elapsedNanos;
+
+        Run(Mix mix) {
+            for (Endpoint endpoint : mix.endpoints()) {
+                stats.put(endpoint, new EndpointStats(endpoint));
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.shop.ecommerce.benchmark;
+
+import com.shop.ecommerce.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Login and registration through UserService against a seeded Users1 table. Both
+ * include a bcrypt hash or comparison on the credential pool, so throughput is bound
+ * by its thread count. Registration adds a row per invocation, so the table keeps
+ * growing during a run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    @Param({"1000", "50000"})
+    public int userCount;
+
+    private final AtomicLong registrations = new AtomicLong();
+    private EmbeddedShop shop;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        shop = EmbeddedShop.start(0, userCount, "catalog.snapshot.enabled=false");
+        userService = shop.bean(UserService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        shop.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> login() {
+        // ECOM_DB.sql seeds users 1-4; synthetic users follow.
+        int userId = 5 + ThreadLocalRandom.current().nextInt(userCount);
+        return userService.login(EmbeddedShop.userEmail(userId), EmbeddedShop.USER_PASSWORD);
+    }
+
+    @Benchmark
+    public Map<String, Object> register() {
+        long n = registrations.incrementAndGet();
+        return userService.register("Bench", "User", "bench" + n + "-" + System.nanoTime() + "@example.com",
+                "Pass@123", "9800000000");
+    }
+}
@@ -0,0 +1,50 @@
+package com.shop.ecommerce.audit;
+
+/**
+ * One slot of an {@link AuthEventRing}. Slots are reused: an instance handed to a drain
+ * callback is only valid until the callback returns.
+ */
+public final class AuthEvent {
+
+    // Sequence number of the event currently published in this slot; -1 before the first.
+    volatile long sequence = -1;
+
+    AuthEventType type;
+    long timestampMillis;
+    int userId;
+    String email;
+    String detail;
+    Throwable error;
+
+    public AuthEventType getType() {
+        return type;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /** The user the event concerns, or 0 when unknown. */
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    // Drops references so a slot doesn't keep request data reachable until it is reused.
+    void clear() {
+        email = null;
+        detail = null;
+        error = null;
+    }
+}
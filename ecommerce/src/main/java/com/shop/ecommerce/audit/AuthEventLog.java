@@ -0,0 +1,247 @@
+package com.shop.ecommerce.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail for sign-in, registration and user lookups. Request threads only fill a
+ * preallocated {@link AuthEventRing} slot with values they already hold; a background
+ * thread drains the ring in batches and appends one JSON object per line to
+ * {@code audit.file}, rolling it over at {@code audit.max-file-size}.
+ * <p>
+ * Events are dropped, and counted, when the writer falls a whole ring behind or the
+ * file cannot be written. Auditing never slows down or fails a request.
+ */
+@Component
+public class AuthEventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthEventLog.class);
+
+    @Value("${audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.ring-size:8192}")
+    private int ringSize;
+
+    @Value("${audit.batch-size:512}")
+    private int batchSize;
+
+    @Value("${audit.file:logs/auth-events.jsonl}")
+    private Path file;
+
+    @Value("${audit.max-file-size:50MB}")
+    private DataSize maxFileSize;
+
+    @Value("${audit.max-files:5}")
+    private int maxFiles;
+
+    @Value("${audit.idle-wait-ms:100}")
+    private long idleWaitMillis;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final StringBuilder line = new StringBuilder(256);
+
+    private AuthEventRing ring;
+    private Thread writerThread;
+    private volatile boolean running;
+    private Writer writer;
+    private long fileBytes;
+
+    @PostConstruct
+    void start() {
+        ring = new AuthEventRing(Integer.highestOneBit(Math.max(2, ringSize - 1)) << 1);
+        FunctionCounter.builder("audit.events", ring, AuthEventRing::published)
+                .description("Auth events accepted into the audit ring")
+                .tag("result", "published")
+                .register(Metrics.globalRegistry);
+        FunctionCounter.builder("audit.events", ring, AuthEventRing::dropped)
+                .description("Auth events dropped because the audit ring was full")
+                .tag("result", "dropped")
+                .register(Metrics.globalRegistry);
+        FunctionCounter.builder("audit.events", written, LongAdder::sum)
+                .description("Auth events appended to the audit file")
+                .tag("result", "written")
+                .register(Metrics.globalRegistry);
+        FunctionCounter.builder("audit.events", failed, LongAdder::sum)
+                .description("Auth events lost to audit file write errors")
+                .tag("result", "failed")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("audit.events.backlog", ring, AuthEventRing::backlog)
+                .description("Auth events waiting for the audit writer")
+                .register(Metrics.globalRegistry);
+        if (enabled) {
+            running = true;
+            writerThread = new Thread(this::writeLoop, "auth-audit-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public void publish(AuthEventType type, Integer userId, String email, String detail) {
+        if (enabled) {
+            ring.offer(type, System.currentTimeMillis(), userId != null ? userId : 0, email, detail, null);
+        }
+    }
+
+    public void publishError(AuthEventType type, String email, Throwable error) {
+        if (enabled) {
+            ring.offer(type, System.currentTimeMillis(), 0, email, null, error);
+        }
+    }
+
+    private void writeLoop() {
+        while (running || ring.backlog() > 0) {
+            int drained;
+            try {
+                drained = ring.drain(this::append, batchSize);
+                if (drained > 0 && writer != null) {
+                    writer.flush();
+                }
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("Could not write audit events to {}: {}", file, e.getMessage());
+                closeQuietly();
+                drained = 0;
+            }
+            if (drained == 0) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(idleWaitMillis));
+            }
+        }
+        closeQuietly();
+    }
+
+    private void append(AuthEvent event) {
+        if (writer == null) {
+            try {
+                open();
+            } catch (IOException e) {
+                failed.increment();
+                throw new UncheckedIOException(e);
+            }
+        }
+        line.setLength(0);
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(event.getTimestampMillis()))
+                .append("\",\"event\":\"").append(event.getType().name()).append('"');
+        if (event.getUserId() != 0) {
+            line.append(",\"userId\":").append(event.getUserId());
+        }
+        appendField("email", event.getEmail());
+        appendField("detail", event.getDetail());
+        if (event.getError() != null) {
+            appendField("error", event.getError().getClass().getName());
+            appendField("message", event.getError().getMessage());
+        }
+        line.append("}\n");
+        try {
+            writer.append(line);
+        } catch (IOException e) {
+            failed.increment();
+            throw new UncheckedIOException(e);
+        }
+        written.increment();
+        fileBytes += line.length();
+        if (fileBytes >= maxFileSize.toBytes()) {
+            try {
+                roll();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void appendField(String name, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    private void open() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        fileBytes = Files.size(file);
+    }
+
+    // auth-events.jsonl -> auth-events.jsonl.1 -> ... -> .{max-files}, oldest deleted.
+    private void roll() throws IOException {
+        writer.close();
+        writer = null;
+        Files.deleteIfExists(rolled(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rolled(i))) {
+                Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void closeQuietly() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.debug("Closing audit file failed", e);
+            }
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.shop.ecommerce.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-size multi-producer, single-consumer ring of preallocated {@link AuthEvent}
+ * slots. Producers claim a sequence with a CAS, fill the slot's fields in place and
+ * publish it with a volatile write, so {@link #offer} neither locks nor allocates.
+ * When the consumer has fallen a full ring behind, new events are dropped and counted
+ * rather than making request threads wait.
+ */
+public final class AuthEventRing {
+
+    private final AuthEvent[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    // Next sequence the consumer will read; everything below it may be overwritten.
+    private volatile long consumed;
+
+    public AuthEventRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two, got " + capacity);
+        }
+        slots = new AuthEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AuthEvent();
+        }
+        mask = capacity - 1;
+    }
+
+    /** Publishes an event, or returns {@code false} and counts a drop when the ring is full. */
+    public boolean offer(AuthEventType type, long timestampMillis, int userId, String email, String detail,
+                         Throwable error) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        AuthEvent slot = slots[(int) (sequence & mask)];
+        slot.type = type;
+        slot.timestampMillis = timestampMillis;
+        slot.userId = userId;
+        slot.email = email;
+        slot.detail = detail;
+        slot.error = error;
+        slot.sequence = sequence;
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} published events to {@code handler} in sequence order and
+     * frees their slots. Stops early at a slot whose producer has claimed but not yet
+     * published it. Must only be called from one thread at a time.
+     */
+    public int drain(Consumer<AuthEvent> handler, int max) {
+        long next = consumed;
+        int drained = 0;
+        while (drained < max) {
+            AuthEvent slot = slots[(int) (next & mask)];
+            if (slot.sequence != next) {
+                break;
+            }
+            try {
+                handler.accept(slot);
+            } finally {
+                slot.clear();
+                consumed = ++next;
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /** Events claimed but not yet drained. */
+    public long backlog() {
+        return claimed.get() - consumed;
+    }
+
+    public long published() {
+        return claimed.get();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+}
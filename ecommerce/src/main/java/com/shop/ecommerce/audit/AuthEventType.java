@@ -0,0 +1,16 @@
+package com.shop.ecommerce.audit;
+
+public enum AuthEventType {
+    LOGIN_SUCCEEDED,
+    LOGIN_FAILED,
+    LOGIN_SHED,
+    LOGIN_ERROR,
+    REGISTERED,
+    REGISTRATION_REJECTED,
+    REGISTRATION_SHED,
+    REGISTRATION_ERROR,
+    EMAIL_CHECKED,
+    EMAIL_CHECK_ERROR,
+    USER_LOOKUP,
+    USER_LOOKUP_ERROR
+}
@@ -0,0 +1,19 @@
+package com.shop.ecommerce.cart;
+
+/** One decoded cart line. {@code size} is empty for products sold without sizes. */
+public final class CartLine {
+
+    private final String productId;
+    private final String size;
+    private final int quantity;
+
+    public CartLine(String productId, String size, int quantity) {
+        this.productId = productId;
+        this.size = size;
+        this.quantity = quantity;
+    }
+
+    public String getProductId() { return productId; }
+    public String getSize() { return size; }
+    public int getQuantity() { return quantity; }
+}
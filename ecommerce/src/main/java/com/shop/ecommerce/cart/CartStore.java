@@ -0,0 +1,261 @@
+package com.shop.ecommerce.cart;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Carts by id, kept in least recently used order. A cart untouched for the idle TTL is
+ * gone, and once {@code maxCarts} are held the least recently used one makes room for a
+ * new one. Because the order is by last access, both evictions only ever look at the
+ * eldest entries. All access goes through one lock; each operation is a map lookup plus
+ * re-encoding a cart of at most {@code maxLines} lines.
+ * <p>
+ * A cart may have an owner, the user who first used it while signed in; see {@link #claim}.
+ */
+public class CartStore {
+
+    private static final int SNAPSHOT_MAGIC_UNOWNED = 0x43525431; // "CRT1"
+    private static final int SNAPSHOT_MAGIC = 0x43525432; // "CRT2", with owners
+
+    private final LinkedHashMap<String, Entry> carts = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxCarts;
+    private final int maxLines;
+    private final long idleTtlMillis;
+    private final LongSupplier clock;
+
+    private long bytes;
+    private long idleEvictions;
+    private long capacityEvictions;
+
+    public CartStore(int maxCarts, int maxLines, long idleTtlMillis) {
+        this(maxCarts, maxLines, idleTtlMillis, System::currentTimeMillis);
+    }
+
+    CartStore(int maxCarts, int maxLines, long idleTtlMillis, LongSupplier clock) {
+        this.maxCarts = maxCarts;
+        this.maxLines = maxLines;
+        this.idleTtlMillis = idleTtlMillis;
+        this.clock = clock;
+    }
+
+    /** The cart, or {@link CompactCart#EMPTY} when there is none. Counts as a use. */
+    public synchronized CompactCart get(String cartId) {
+        Entry entry = live(cartId);
+        if (entry == null) {
+            return CompactCart.EMPTY;
+        }
+        entry.lastAccessMillis = clock.getAsLong();
+        return entry.cart;
+    }
+
+    /**
+     * Makes {@code userId} the owner of the cart unless it has one, and returns the owner:
+     * the earlier one, {@code userId}, or null when there is no such cart or no user.
+     */
+    public synchronized Integer claim(String cartId, Integer userId) {
+        Entry entry = live(cartId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.owner == null) {
+            entry.owner = userId;
+        }
+        return entry.owner;
+    }
+
+    /**
+     * Replaces the cart with {@code change} applied to it and returns the result. An empty
+     * result removes the cart, owner included.
+     *
+     * @throws IllegalArgumentException when the result has more than {@code maxLines} lines
+     */
+    public synchronized CompactCart update(String cartId, UnaryOperator<CompactCart> change) {
+        Entry entry = live(cartId);
+        CompactCart before = entry != null ? entry.cart : CompactCart.EMPTY;
+        CompactCart after = change.apply(before);
+        if (after.lineCount() > maxLines && after.lineCount() > before.lineCount()) {
+            throw new IllegalArgumentException("A cart holds at most " + maxLines + " different items");
+        }
+        if (after.isEmpty()) {
+            if (entry != null) {
+                remove(cartId);
+            }
+            return after;
+        }
+        if (entry == null) {
+            makeRoom();
+            entry = new Entry(after, clock.getAsLong());
+            carts.put(cartId, entry);
+            bytes += after.encodedSize();
+        } else {
+            bytes += after.encodedSize() - entry.cart.encodedSize();
+            entry.cart = after;
+            entry.lastAccessMillis = clock.getAsLong();
+        }
+        return after;
+    }
+
+    public synchronized boolean remove(String cartId) {
+        Entry removed = carts.remove(cartId);
+        if (removed != null) {
+            bytes -= removed.cart.encodedSize();
+        }
+        return removed != null;
+    }
+
+    /** Drops every cart idle for longer than the TTL and returns how many there were. */
+    public synchronized int expire() {
+        long cutoff = clock.getAsLong() - idleTtlMillis;
+        int expired = 0;
+        Iterator<Entry> eldest = carts.values().iterator();
+        while (eldest.hasNext()) {
+            Entry entry = eldest.next();
+            if (entry.lastAccessMillis > cutoff) {
+                break;
+            }
+            eldest.remove();
+            bytes -= entry.cart.encodedSize();
+            expired++;
+        }
+        idleEvictions += expired;
+        return expired;
+    }
+
+    public synchronized int size() {
+        return carts.size();
+    }
+
+    /** Encoded size of all carts, keys and bookkeeping not included. */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public synchronized long idleEvictions() {
+        return idleEvictions;
+    }
+
+    public synchronized long capacityEvictions() {
+        return capacityEvictions;
+    }
+
+    /**
+     * Writes every cart to {@code file}, replacing it atomically. Carts are copied under the
+     * lock and written outside it.
+     */
+    public void save(Path file) throws IOException {
+        List<Map.Entry<String, Entry>> copy;
+        synchronized (this) {
+            copy = new ArrayList<>(carts.size());
+            for (Map.Entry<String, Entry> cart : carts.entrySet()) {
+                Entry entry = new Entry(cart.getValue().cart, cart.getValue().lastAccessMillis);
+                entry.owner = cart.getValue().owner;
+                copy.add(Map.entry(cart.getKey(), entry));
+            }
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(copy.size());
+            for (Map.Entry<String, Entry> cart : copy) {
+                byte[] data = cart.getValue().cart.toBytes();
+                out.writeUTF(cart.getKey());
+                out.writeLong(cart.getValue().lastAccessMillis);
+                out.writeBoolean(cart.getValue().owner != null);
+                if (cart.getValue().owner != null) {
+                    out.writeInt(cart.getValue().owner);
+                }
+                out.writeInt(data.length);
+                out.write(data);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds the carts saved in {@code file}, skipping those that went idle meanwhile, and
+     * returns how many were restored. Carts already in the store win.
+     */
+    public int load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int restored = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int magic = in.readInt();
+            if (magic != SNAPSHOT_MAGIC && magic != SNAPSHOT_MAGIC_UNOWNED) {
+                throw new IOException("Not a cart snapshot: " + file);
+            }
+            int count = in.readInt();
+            long cutoff = clock.getAsLong() - idleTtlMillis;
+            for (int i = 0; i < count; i++) {
+                String cartId = in.readUTF();
+                long lastAccessMillis = in.readLong();
+                Integer owner = magic == SNAPSHOT_MAGIC && in.readBoolean() ? in.readInt() : null;
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                if (lastAccessMillis <= cutoff) {
+                    continue;
+                }
+                CompactCart cart = CompactCart.fromBytes(data);
+                synchronized (this) {
+                    if (!carts.containsKey(cartId)) {
+                        makeRoom();
+                        Entry entry = new Entry(cart, lastAccessMillis);
+                        entry.owner = owner;
+                        carts.put(cartId, entry);
+                        bytes += cart.encodedSize();
+                        restored++;
+                    }
+                }
+            }
+        }
+        return restored;
+    }
+
+    private Entry live(String cartId) {
+        Entry entry = carts.get(cartId);
+        if (entry != null && entry.lastAccessMillis <= clock.getAsLong() - idleTtlMillis) {
+            remove(cartId);
+            idleEvictions++;
+            return null;
+        }
+        return entry;
+    }
+
+    private void makeRoom() {
+        Iterator<Entry> eldest = carts.values().iterator();
+        while (carts.size() >= maxCarts && eldest.hasNext()) {
+            bytes -= eldest.next().cart.encodedSize();
+            eldest.remove();
+            capacityEvictions++;
+        }
+    }
+
+    private static final class Entry {
+        CompactCart cart;
+        long lastAccessMillis;
+        Integer owner;
+
+        Entry(CompactCart cart, long lastAccessMillis) {
+            this.cart = cart;
+            this.lastAccessMillis = lastAccessMillis;
+        }
+    }
+}
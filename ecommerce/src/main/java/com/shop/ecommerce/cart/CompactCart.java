@@ -0,0 +1,201 @@
+package com.shop.ecommerce.cart;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable cart held as one byte array of {@code (productId, size, quantity)} lines:
+ * a length-prefixed UTF-8 product id, a length-prefixed UTF-8 size and a varint quantity
+ * each. A typical line takes well under 16 bytes, so a cart costs one small array instead
+ * of a list of objects. Changes return a new cart; lines keep the order they were added in.
+ */
+public final class CompactCart {
+
+    public static final CompactCart EMPTY = new CompactCart(new byte[0], 0);
+
+    private static final int MAX_FIELD_BYTES = 255;
+
+    private final byte[] data;
+    private final int lineCount;
+
+    private CompactCart(byte[] data, int lineCount) {
+        this.data = data;
+        this.lineCount = lineCount;
+    }
+
+    /** Reads bytes produced by {@link #toBytes()}. */
+    public static CompactCart fromBytes(byte[] data) {
+        byte[] copy = data.clone();
+        int lines = 0;
+        Reader reader = new Reader(copy);
+        while (reader.hasNext()) {
+            reader.next();
+            lines++;
+        }
+        return new CompactCart(copy, lines);
+    }
+
+    public byte[] toBytes() {
+        return data.clone();
+    }
+
+    public int encodedSize() {
+        return data.length;
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+
+    public boolean isEmpty() {
+        return lineCount == 0;
+    }
+
+    public int totalQuantity() {
+        int total = 0;
+        Reader reader = new Reader(data);
+        while (reader.hasNext()) {
+            total += reader.next().getQuantity();
+        }
+        return total;
+    }
+
+    public int quantityOf(String productId, String size) {
+        Reader reader = new Reader(data);
+        while (reader.hasNext()) {
+            CartLine line = reader.next();
+            if (line.getProductId().equals(productId) && line.getSize().equals(size)) {
+                return line.getQuantity();
+            }
+        }
+        return 0;
+    }
+
+    public List<CartLine> lines() {
+        List<CartLine> lines = new ArrayList<>(lineCount);
+        Reader reader = new Reader(data);
+        while (reader.hasNext()) {
+            lines.add(reader.next());
+        }
+        return lines;
+    }
+
+    /** Product ids in line order, each once. */
+    public List<String> productIds() {
+        List<String> ids = new ArrayList<>(lineCount);
+        for (CartLine line : lines()) {
+            if (!ids.contains(line.getProductId())) {
+                ids.add(line.getProductId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns a cart with the line for {@code productId} and {@code size} set to
+     * {@code quantity}, added at the end if new; zero removes the line.
+     */
+    public CompactCart withQuantity(String productId, String size, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length + 24);
+        int lines = 0;
+        boolean found = false;
+        Reader reader = new Reader(data);
+        while (reader.hasNext()) {
+            CartLine line = reader.next();
+            if (line.getProductId().equals(productId) && line.getSize().equals(size)) {
+                found = true;
+                if (quantity > 0) {
+                    write(out, productId, size, quantity);
+                    lines++;
+                }
+            } else {
+                write(out, line.getProductId(), line.getSize(), line.getQuantity());
+                lines++;
+            }
+        }
+        if (!found && quantity > 0) {
+            write(out, productId, size, quantity);
+            lines++;
+        }
+        return lines == 0 ? EMPTY : new CompactCart(out.toByteArray(), lines);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CompactCart cart && Arrays.equals(data, cart.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(data);
+    }
+
+    private static void write(ByteArrayOutputStream out, String productId, String size, int quantity) {
+        writeField(out, productId);
+        writeField(out, size);
+        int value = quantity;
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeField(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Cart field longer than " + MAX_FIELD_BYTES + " bytes");
+        }
+        out.write(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        boolean hasNext() {
+            return position < data.length;
+        }
+
+        CartLine next() {
+            String productId = readField();
+            String size = readField();
+            int quantity = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (position >= data.length || shift > 28) {
+                    throw new IllegalArgumentException("Malformed cart data");
+                }
+                byte b = data[position++];
+                quantity |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            return new CartLine(productId, size, quantity);
+        }
+
+        private String readField() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("Malformed cart data");
+            }
+            int length = data[position++] & 0xFF;
+            if (position + length > data.length) {
+                throw new IllegalArgumentException("Malformed cart data");
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.shop.ecommerce.catalog;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Filters for the faceted browse listing. Values within one dimension are OR-ed,
+ * dimensions are AND-ed; an empty dimension does not filter.
+ */
+public final class BrowseQuery {
+    private final List<Integer> categoryIds;
+    private final List<String> brands;
+    private final List<String> sizes;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final boolean inStockOnly;
+
+    public BrowseQuery(List<Integer> categoryIds, List<String> brands, List<String> sizes,
+                       BigDecimal minPrice, BigDecimal maxPrice, boolean inStockOnly) {
+        this.categoryIds = categoryIds != null ? categoryIds : List.of();
+        this.brands = brands != null ? brands : List.of();
+        this.sizes = sizes != null ? sizes : List.of();
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.inStockOnly = inStockOnly;
+    }
+
+    public List<Integer> getCategoryIds() { return categoryIds; }
+
+    public List<String> getBrands() { return brands; }
+
+    public List<String> getSizes() { return sizes; }
+
+    public BigDecimal getMinPrice() { return minPrice; }
+
+    public BigDecimal getMaxPrice() { return maxPrice; }
+
+    public boolean isInStockOnly() { return inStockOnly; }
+
+    public boolean hasPriceFilter() {
+        return minPrice != null || maxPrice != null;
+    }
+}
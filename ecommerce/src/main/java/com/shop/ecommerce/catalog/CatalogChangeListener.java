@@ -0,0 +1,26 @@
+package com.shop.ecommerce.catalog;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Entity listener on every catalog entity; advances {@link CatalogVersion}. Created by
+ * Hibernate through Spring, and tolerant of contexts that don't define the version.
+ */
+public class CatalogChangeListener {
+
+    @Autowired
+    private ObjectProvider<CatalogVersion> catalogVersion;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(Object entity) {
+        if (catalogVersion != null) {
+            catalogVersion.ifAvailable(CatalogVersion::changed);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.shop.ecommerce.catalog;
+
+import com.shop.ecommerce.entity.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The second-level cache regions of the catalog entities. Hibernate keeps them current for
+ * writes made through JPA; code that writes catalog tables with plain JDBC must evict what
+ * it changed once its transaction has committed.
+ * <p>
+ * Publishes {@code catalog.cache.hit.ratio} per region, next to the hit and miss counters
+ * of the Hibernate metrics.
+ */
+@Component
+public class CatalogEntityCache {
+
+    public static final String QUERY_REGION = "catalog.queries";
+
+    private static final String SIZES = Product.class.getName() + ".sizes";
+    private static final String OFFERS = Product.class.getName() + ".offers";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private CacheImplementor cache;
+    private Statistics statistics;
+
+    @PostConstruct
+    void init() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        cache = sessionFactory.getCache();
+        statistics = sessionFactory.getStatistics();
+        for (String region : cache.getCacheRegionNames()) {
+            Gauge.builder("catalog.cache.hit.ratio", this, owner -> owner.hitRatio(region))
+                    .description("Share of second-level cache lookups answered by the region since startup")
+                    .tag("region", region)
+                    .register(Metrics.globalRegistry);
+        }
+    }
+
+    /** Evicts the products and their sizes and offers. */
+    public void evictProducts(Collection<String> productIds) {
+        for (String productId : productIds) {
+            cache.evictEntityData(Product.class, productId);
+            cache.evictCollectionData(SIZES, productId);
+            cache.evictCollectionData(OFFERS, productId);
+        }
+    }
+
+    /** Evicts the cached catalog queries, e.g. after rows were added or removed. */
+    public void evictQueries() {
+        cache.evictQueryRegion(QUERY_REGION);
+    }
+
+    public void evictAll() {
+        cache.evictAllRegions();
+    }
+
+    /** Hits, misses, puts and entry count of every region, sorted by region name. */
+    public List<Map<String, Object>> regionStatistics() {
+        List<Map<String, Object>> regions = new ArrayList<>();
+        for (String region : new TreeSet<>(cache.getCacheRegionNames())) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats == null) {
+                continue;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("region", region);
+            entry.put("hits", stats.getHitCount());
+            entry.put("misses", stats.getMissCount());
+            entry.put("puts", stats.getPutCount());
+            entry.put("hitRatio", hitRatio(stats));
+            entry.put("entries", stats.getElementCountInMemory());
+            regions.add(entry);
+        }
+        return regions;
+    }
+
+    private double hitRatio(String region) {
+        CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+        return stats != null ? hitRatio(stats) : Double.NaN;
+    }
+
+    private static double hitRatio(CacheRegionStatistics stats) {
+        long lookups = stats.getHitCount() + stats.getMissCount();
+        return lookups == 0 ? 0.0 : (double) stats.getHitCount() / lookups;
+    }
+}
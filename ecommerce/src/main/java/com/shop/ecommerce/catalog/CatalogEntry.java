@@ -0,0 +1,24 @@
+package com.shop.ecommerce.catalog;
+
+import com.shop.ecommerce.dto.ProductDTO;
+import java.time.LocalDateTime;
+
+public final class CatalogEntry {
+    private final ProductDTO product;
+    private final Integer categoryId;
+    private final LocalDateTime createdAt;
+
+    public CatalogEntry(ProductDTO product, Integer categoryId, LocalDateTime createdAt) {
+        this.product = product;
+        this.categoryId = categoryId;
+        this.createdAt = createdAt;
+    }
+
+    public ProductDTO getProduct() { return product; }
+
+    public String getProductId() { return product.getProductId(); }
+
+    public Integer getCategoryId() { return categoryId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
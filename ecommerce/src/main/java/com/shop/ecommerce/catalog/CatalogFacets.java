@@ -0,0 +1,230 @@
+package com.shop.ecommerce.catalog;
+
+import com.shop.ecommerce.dto.FacetCount;
+import com.shop.ecommerce.dto.ProductDTO;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-value compressed bitmaps over product ordinals (positions in the snapshot's
+ * product-id ordering), used to filter and count the browse listing in memory.
+ * <p>
+ * Counts follow the usual multi-select convention: each dimension is counted with
+ * every filter applied except its own, so selecting one brand still shows how many
+ * products the other brands would add.
+ */
+public final class CatalogFacets {
+
+    private static final BigDecimal[] PRICE_BUCKETS = {
+            BigDecimal.ZERO, new BigDecimal("500"), new BigDecimal("1000"),
+            new BigDecimal("2000"), new BigDecimal("5000")
+    };
+
+    private final int size;
+    private final Map<Integer, Facet> categories = new TreeMap<>();
+    private final Map<String, Facet> brands = new TreeMap<>();
+    private final Map<String, Facet> sizes = new TreeMap<>();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final Facet[] priceBuckets = new Facet[PRICE_BUCKETS.length];
+    private final PriceIndex priceIndex;
+
+    CatalogFacets(List<CatalogEntry> entries, PriceIndex priceIndex) {
+        this.size = entries.size();
+        this.priceIndex = priceIndex;
+        for (int i = 0; i < PRICE_BUCKETS.length; i++) {
+            priceBuckets[i] = new Facet(bucketLabel(i));
+        }
+        for (int ordinal = 0; ordinal < entries.size(); ordinal++) {
+            CatalogEntry entry = entries.get(ordinal);
+            ProductDTO product = entry.getProduct();
+            if (entry.getCategoryId() != null) {
+                String label = product.getCategoryName() != null ? product.getCategoryName() : String.valueOf(entry.getCategoryId());
+                categories.computeIfAbsent(entry.getCategoryId(), k -> new Facet(label)).bitmap.add(ordinal);
+            }
+            if (product.getBrand() != null) {
+                brands.computeIfAbsent(key(product.getBrand()), k -> new Facet(product.getBrand())).bitmap.add(ordinal);
+            }
+            if (product.getSizes() != null) {
+                for (String productSize : product.getSizes()) {
+                    sizes.computeIfAbsent(key(productSize), k -> new Facet(productSize)).bitmap.add(ordinal);
+                }
+            }
+            if (product.getQuantityInStock() != null && product.getQuantityInStock() > 0) {
+                inStock.add(ordinal);
+            }
+            int bucket = bucketOf(product.getPrice());
+            if (bucket >= 0) {
+                priceBuckets[bucket].bitmap.add(ordinal);
+            }
+        }
+
+        categories.values().forEach(Facet::optimize);
+        brands.values().forEach(Facet::optimize);
+        sizes.values().forEach(Facet::optimize);
+        inStock.runOptimize();
+        for (Facet bucket : priceBuckets) {
+            bucket.optimize();
+        }
+    }
+
+    /** Matching ordinals plus facet counts for the query. */
+    Result apply(BrowseQuery query) {
+        RoaringBitmap category = union(query.getCategoryIds().stream().map(categories::get).toList());
+        RoaringBitmap brand = union(query.getBrands().stream().map(b -> brands.get(key(b))).toList());
+        RoaringBitmap productSize = union(query.getSizes().stream().map(s -> sizes.get(key(s))).toList());
+        RoaringBitmap price = query.hasPriceFilter() ? priceRange(query.getMinPrice(), query.getMaxPrice()) : null;
+        RoaringBitmap stock = query.isInStockOnly() ? inStock : null;
+
+        Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+        RoaringBitmap withoutCategory = intersect(brand, productSize, price, stock);
+        List<FacetCount> categoryCounts = new ArrayList<>();
+        categories.forEach((id, facet) -> categoryCounts.add(facet.count(String.valueOf(id), withoutCategory)));
+        counts.put("categories", categoryCounts);
+        counts.put("brands", count(brands, intersect(category, productSize, price, stock)));
+        counts.put("sizes", count(sizes, intersect(category, brand, price, stock)));
+
+        RoaringBitmap withoutPrice = intersect(category, brand, productSize, stock);
+        List<FacetCount> priceCounts = new ArrayList<>();
+        for (Facet bucket : priceBuckets) {
+            priceCounts.add(bucket.count(bucket.label, withoutPrice));
+        }
+        counts.put("priceRanges", priceCounts);
+
+        RoaringBitmap withoutStock = intersect(category, brand, productSize, price);
+        int available = withoutStock != null ? RoaringBitmap.andCardinality(inStock, withoutStock) : inStock.getCardinality();
+        counts.put("inStock", List.of(new FacetCount("true", "In stock", available)));
+
+        RoaringBitmap matched = intersect(category, brand, productSize, price, stock);
+        if (matched == null) {
+            matched = new RoaringBitmap();
+            matched.add(0L, (long) size);
+        }
+        return new Result(matched, counts);
+    }
+
+    /** Products in the category, or {@code null} when it has none. */
+    RoaringBitmap category(Integer categoryId) {
+        Facet facet = categories.get(categoryId);
+        return facet != null ? facet.bitmap : null;
+    }
+
+    RoaringBitmap inStock() {
+        return inStock;
+    }
+
+    private RoaringBitmap priceRange(BigDecimal min, BigDecimal max) {
+        int from = min != null ? priceIndex.lowerBound(PriceIndex.ceilCents(min)) : 0;
+        int to = max != null ? priceIndex.upperBound(PriceIndex.floorCents(max)) : priceIndex.size();
+        RoaringBitmap result = new RoaringBitmap();
+        for (int i = from; i < to; i++) {
+            result.add(priceIndex.ordinalAt(i));
+        }
+        return result;
+    }
+
+    private static List<FacetCount> count(Map<String, Facet> facets, RoaringBitmap base) {
+        List<FacetCount> result = new ArrayList<>(facets.size());
+        facets.values().forEach(facet -> result.add(facet.count(facet.label, base)));
+        return result;
+    }
+
+    /** OR of the selected values; {@code null} when nothing is selected (no filter). */
+    private static RoaringBitmap union(List<Facet> selected) {
+        if (selected.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap result = new RoaringBitmap();
+        for (Facet facet : selected) {
+            if (facet != null) {
+                result.or(facet.bitmap);
+            }
+        }
+        return result;
+    }
+
+    /** AND of the active filters; {@code null} when none is active. */
+    private static RoaringBitmap intersect(RoaringBitmap... filters) {
+        RoaringBitmap result = null;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = result == null ? filter.clone() : RoaringBitmap.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    /** Price bucket index, or -1 for a missing price or one below the first bucket. */
+    private static int bucketOf(BigDecimal price) {
+        if (price == null || price.compareTo(PRICE_BUCKETS[0]) < 0) {
+            return -1;
+        }
+        int bucket = 0;
+        while (bucket + 1 < PRICE_BUCKETS.length && price.compareTo(PRICE_BUCKETS[bucket + 1]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static String bucketLabel(int bucket) {
+        String from = PRICE_BUCKETS[bucket].toPlainString();
+        return bucket + 1 < PRICE_BUCKETS.length ? from + "-" + PRICE_BUCKETS[bucket + 1].toPlainString() : from + "+";
+    }
+
+    // Brand and size matching is case-insensitive, like the MySQL collation.
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Facet {
+        private final String label;
+        private final RoaringBitmap bitmap = new RoaringBitmap();
+
+        Facet(String label) {
+            this.label = label;
+        }
+
+        FacetCount count(String value, RoaringBitmap base) {
+            int count = base != null ? RoaringBitmap.andCardinality(bitmap, base) : bitmap.getCardinality();
+            return new FacetCount(value, label, count);
+        }
+
+        void optimize() {
+            bitmap.runOptimize();
+        }
+    }
+
+    static final class Result {
+        private final RoaringBitmap matched;
+        private final Map<String, List<FacetCount>> counts;
+
+        Result(RoaringBitmap matched, Map<String, List<FacetCount>> counts) {
+            this.matched = matched;
+            this.counts = counts;
+        }
+
+        RoaringBitmap getMatched() { return matched; }
+
+        Map<String, List<FacetCount>> getCounts() { return counts; }
+
+        /** Up to {@code limit} matching ordinals starting at {@code from}. */
+        int[] page(int from, int limit) {
+            PeekableIntIterator it = matched.getIntIterator();
+            it.advanceIfNeeded(from);
+            int[] ordinals = new int[limit];
+            int n = 0;
+            while (n < limit && it.hasNext()) {
+                ordinals[n++] = it.next();
+            }
+            return Arrays.copyOf(ordinals, n);
+        }
+    }
+}
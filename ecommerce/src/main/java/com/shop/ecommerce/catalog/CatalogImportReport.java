@@ -0,0 +1,91 @@
+package com.shop.ecommerce.catalog;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress and outcome of one catalog import. Updated by the importing thread after every
+ * batch and read by status requests, hence synchronized. Only the first {@code maxErrors}
+ * row errors are kept; {@link #getFailed()} counts them all.
+ */
+public class CatalogImportReport {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private final String format;
+    private final int maxErrors;
+    private final Instant startedAt = Instant.now();
+    private final List<RowError> errors = new ArrayList<>();
+    private Instant finishedAt;
+    private Status status = Status.RUNNING;
+    private String message;
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private long batches;
+
+    public CatalogImportReport(String format, int maxErrors) {
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    public synchronized void rowRead() {
+        rowsRead++;
+    }
+
+    public synchronized void rowFailed(long row, String productId, String message) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(row, productId, message));
+        }
+    }
+
+    public synchronized void batchWritten(int inserted, int updated) {
+        this.inserted += inserted;
+        this.updated += updated;
+        batches++;
+    }
+
+    public synchronized void complete() {
+        status = Status.COMPLETED;
+        finishedAt = Instant.now();
+    }
+
+    /** The import stopped early, e.g. unreadable input; rows written before that stay written. */
+    public synchronized void fail(String message) {
+        status = Status.FAILED;
+        this.message = message;
+        finishedAt = Instant.now();
+    }
+
+    public String getFormat() { return format; }
+    public Instant getStartedAt() { return startedAt; }
+    public synchronized Instant getFinishedAt() { return finishedAt; }
+    public synchronized Status getStatus() { return status; }
+    public synchronized String getMessage() { return message; }
+    public synchronized long getRowsRead() { return rowsRead; }
+    public synchronized long getInserted() { return inserted; }
+    public synchronized long getUpdated() { return updated; }
+    public synchronized long getFailed() { return failed; }
+    public synchronized long getBatches() { return batches; }
+    public synchronized List<RowError> getErrors() { return List.copyOf(errors); }
+
+    /** A rejected row; {@code row} is the line number in the input. */
+    public static final class RowError {
+        private final long row;
+        private final String productId;
+        private final String message;
+
+        RowError(long row, String productId, String message) {
+            this.row = row;
+            this.productId = productId;
+            this.message = message;
+        }
+
+        public long getRow() { return row; }
+        public String getProductId() { return productId; }
+        public String getMessage() { return message; }
+    }
+}
@@ -0,0 +1,401 @@
+package com.shop.ecommerce.catalog;
+
+import com.shop.ecommerce.dto.BrowseResult;
+import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.dto.ProductPage;
+import org.roaringbitmap.RoaringBitmap;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, versioned view of the whole catalog. Every list is pre-sorted and
+ * unmodifiable so it can be handed to any number of readers without copying.
+ */
+public final class CatalogSnapshot {
+
+    private static final View EMPTY_VIEW = new View(ProductSort.PRODUCT_ID, List.of());
+
+    private final long version;
+    private final Instant builtAt;
+    private final View all;
+    private final Map<String, ProductDTO> byId;
+    private final Map<Integer, View> byCategory;
+    private final Map<String, View> byBrand;
+    private final View discounted;
+    private final View available;
+    private final View latest;
+    private final Map<Integer, View> discountedByCategory;
+    private final Map<Integer, View> latestByCategory;
+    private final PriceIndex priceIndex;
+    private final List<String> brands;
+    private final List<String> sizes;
+    private final CatalogFacets facets;
+
+    public CatalogSnapshot(long version, List<CatalogEntry> entries) {
+        this(version, entries, null);
+    }
+
+    /**
+     * @param previous snapshot this one replaces, if any; its price index is reused
+     *                 when only a few prices changed
+     */
+    public CatalogSnapshot(long version, List<CatalogEntry> entries, CatalogSnapshot previous) {
+        this.version = version;
+        this.builtAt = Instant.now();
+
+        List<CatalogEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(ProductSort.PRODUCT_ID.comparator());
+
+        Map<String, ProductDTO> idIndex = new HashMap<>(sorted.size() * 2);
+        Map<Integer, List<CatalogEntry>> categoryIndex = new HashMap<>();
+        Map<String, List<CatalogEntry>> brandIndex = new HashMap<>();
+        List<CatalogEntry> inStock = new ArrayList<>();
+        TreeSet<String> brandNames = new TreeSet<>();
+        TreeSet<String> sizeNames = new TreeSet<>();
+
+        for (CatalogEntry entry : sorted) {
+            ProductDTO product = entry.getProduct();
+            idIndex.put(product.getProductId(), product);
+            if (entry.getCategoryId() != null) {
+                categoryIndex.computeIfAbsent(entry.getCategoryId(), k -> new ArrayList<>()).add(entry);
+            }
+            if (product.getBrand() != null) {
+                brandIndex.computeIfAbsent(brandKey(product.getBrand()), k -> new ArrayList<>()).add(entry);
+                brandNames.add(product.getBrand());
+            }
+            if (product.getQuantityInStock() != null && product.getQuantityInStock() > 0) {
+                inStock.add(entry);
+            }
+            if (product.getSizes() != null) {
+                sizeNames.addAll(product.getSizes());
+            }
+        }
+
+        this.all = new View(ProductSort.PRODUCT_ID, sorted);
+        this.byId = Collections.unmodifiableMap(idIndex);
+        this.byCategory = views(categoryIndex);
+        this.byBrand = views(brandIndex);
+        this.available = new View(ProductSort.PRODUCT_ID, inStock);
+        this.discounted = View.sorted(ProductSort.DISCOUNT, sorted.stream()
+                .filter(e -> ProductSort.discountOf(e.getProduct()) > 0)
+                .toList());
+        this.latest = View.sorted(ProductSort.LATEST, sorted);
+        this.discountedByCategory = partition(discounted);
+        this.latestByCategory = partition(latest);
+        this.priceIndex = previous != null ? previous.repricedIndex(sorted) : PriceIndex.of(sorted);
+        this.brands = List.copyOf(brandNames);
+        this.sizes = List.copyOf(sizeNames);
+        this.facets = new CatalogFacets(sorted, priceIndex);
+    }
+
+    public long getVersion() { return version; }
+
+    public Instant getBuiltAt() { return builtAt; }
+
+    public int size() { return all.products.size(); }
+
+    public List<ProductDTO> getAllProducts() { return all.products; }
+
+    public ProductDTO getProduct(String productId) { return byId.get(productId); }
+
+    public List<ProductDTO> getProductsByCategory(Integer categoryId) {
+        View view = byCategory.get(categoryId);
+        return view != null ? view.products : List.of();
+    }
+
+    public List<ProductDTO> getProductsByBrand(String brand) {
+        View view = brand != null ? byBrand.get(brandKey(brand)) : null;
+        return view != null ? view.products : List.of();
+    }
+
+    public List<ProductDTO> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return getProductsByPriceRange(minPrice, maxPrice, null, false);
+    }
+
+    /** Products priced within [min, max] in price order, optionally in one category and/or in stock. */
+    public List<ProductDTO> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice,
+                                                    Integer categoryId, boolean inStockOnly) {
+        int from = priceFrom(minPrice);
+        int to = priceTo(maxPrice);
+        RoaringBitmap filter = priceFilter(categoryId, inStockOnly);
+        List<ProductDTO> result = new ArrayList<>(filter == null ? Math.max(0, to - from) : 16);
+        for (int i = from; i < to; i++) {
+            int ordinal = priceIndex.ordinalAt(i);
+            if (filter == null || filter.contains(ordinal)) {
+                result.add(all.products.get(ordinal));
+            }
+        }
+        return result;
+    }
+
+    public List<ProductDTO> getDiscountedProducts() { return discounted.products; }
+
+    public List<ProductDTO> getDiscountedProducts(Integer categoryId) {
+        return inCategory(discountedByCategory, categoryId, discounted).products;
+    }
+
+    public List<ProductDTO> getAvailableProducts() { return available.products; }
+
+    public List<ProductDTO> getLatestProducts() { return latest.products; }
+
+    public List<ProductDTO> getLatestProducts(Integer categoryId) {
+        return inCategory(latestByCategory, categoryId, latest).products;
+    }
+
+    public List<String> getAllBrands() { return brands; }
+
+    public List<String> getAllSizes() { return sizes; }
+
+    public ProductPage pageAll(ProductCursor after, int limit) {
+        return all.page(after, limit);
+    }
+
+    public ProductPage pageByCategory(Integer categoryId, ProductCursor after, int limit) {
+        View view = byCategory.get(categoryId);
+        return view != null ? view.page(after, limit) : emptyPage();
+    }
+
+    public ProductPage pageByBrand(String brand, ProductCursor after, int limit) {
+        View view = brand != null ? byBrand.get(brandKey(brand)) : null;
+        return view != null ? view.page(after, limit) : emptyPage();
+    }
+
+    public ProductPage pageByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, ProductCursor after, int limit) {
+        return pageByPriceRange(minPrice, maxPrice, null, false, after, limit);
+    }
+
+    public ProductPage pageByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Integer categoryId,
+                                        boolean inStockOnly, ProductCursor after, int limit) {
+        int from = priceFrom(minPrice);
+        if (after != null && after.getPrice() != null) {
+            from = Math.max(from, priceAfter(after));
+        }
+        int to = priceTo(maxPrice);
+        RoaringBitmap filter = priceFilter(categoryId, inStockOnly);
+        List<ProductDTO> items = new ArrayList<>(Math.min(limit, 64));
+        int last = -1;
+        int i = from;
+        for (; i < to && items.size() < limit; i++) {
+            int ordinal = priceIndex.ordinalAt(i);
+            if (filter == null || filter.contains(ordinal)) {
+                items.add(all.products.get(ordinal));
+                last = ordinal;
+            }
+        }
+        boolean more = false;
+        for (; i < to && !more; i++) {
+            more = filter == null || filter.contains(priceIndex.ordinalAt(i));
+        }
+        String next = more ? ProductCursor.after(ProductSort.PRICE, all.entries.get(last)).encode() : null;
+        return new ProductPage(items, next);
+    }
+
+    public ProductPage pageDiscounted(ProductCursor after, int limit) {
+        return discounted.page(after, limit);
+    }
+
+    /** Top {@code limit} discounts, optionally within one category: a slice of a presorted view. */
+    public ProductPage pageDiscounted(Integer categoryId, ProductCursor after, int limit) {
+        return inCategory(discountedByCategory, categoryId, discounted).page(after, limit);
+    }
+
+    public ProductPage pageAvailable(ProductCursor after, int limit) {
+        return available.page(after, limit);
+    }
+
+    public ProductPage pageLatest(ProductCursor after, int limit) {
+        return latest.page(after, limit);
+    }
+
+    public ProductPage pageLatest(Integer categoryId, ProductCursor after, int limit) {
+        return inCategory(latestByCategory, categoryId, latest).page(after, limit);
+    }
+
+    /**
+     * One page of the products matching every filter, in product-id order, with
+     * facet counts for each filter dimension.
+     */
+    public BrowseResult browse(BrowseQuery query, ProductCursor after, int limit) {
+        CatalogFacets.Result result = facets.apply(query);
+        int from = after != null ? all.upperBound(after.toProbe()) : 0;
+        int[] ordinals = result.page(from, limit + 1);
+        int count = Math.min(ordinals.length, limit);
+        List<ProductDTO> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(all.products.get(ordinals[i]));
+        }
+        String next = ordinals.length > limit
+                ? ProductCursor.after(ProductSort.PRODUCT_ID, all.entries.get(ordinals[count - 1])).encode()
+                : null;
+        return new BrowseResult(items, next, result.getMatched().getCardinality(), result.getCounts());
+    }
+
+    // Brand filtering in MySQL follows the column's case-insensitive collation.
+    private static String brandKey(String brand) {
+        return brand.toLowerCase(Locale.ROOT);
+    }
+
+    private int priceFrom(BigDecimal minPrice) {
+        return minPrice != null ? priceIndex.lowerBound(PriceIndex.ceilCents(minPrice)) : 0;
+    }
+
+    private int priceTo(BigDecimal maxPrice) {
+        return maxPrice != null ? priceIndex.upperBound(PriceIndex.floorCents(maxPrice)) : priceIndex.size();
+    }
+
+    // Resumes after the cursor's (price, product id), even if that product has since gone.
+    private int priceAfter(ProductCursor after) {
+        long cents = PriceIndex.toCents(after.getPrice());
+        int ordinal = all.lowerBound(after.toProbe());
+        boolean present = ordinal < all.entries.size()
+                && all.entries.get(ordinal).getProductId().equals(after.getProductId());
+        return present ? priceIndex.upperBound(cents, ordinal) : priceIndex.lowerBound(cents, ordinal);
+    }
+
+    /** Category and stock filter as one bitmap; {@code null} when neither applies. */
+    private RoaringBitmap priceFilter(Integer categoryId, boolean inStockOnly) {
+        if (categoryId == null) {
+            return inStockOnly ? facets.inStock() : null;
+        }
+        RoaringBitmap category = facets.category(categoryId);
+        if (category == null) {
+            return new RoaringBitmap();
+        }
+        return inStockOnly ? RoaringBitmap.and(category, facets.inStock()) : category;
+    }
+
+    // Same products at the same ordinals: move only the repriced ones. Anything else
+    // (products added or removed, or many prices changed) is a plain rebuild.
+    private PriceIndex repricedIndex(List<CatalogEntry> entries) {
+        if (entries.size() != all.entries.size()) {
+            return PriceIndex.of(entries);
+        }
+        int maxChanges = Math.max(16, entries.size() / 64);
+        int[] changed = new int[maxChanges];
+        long[] cents = new long[maxChanges];
+        int count = 0;
+        for (int ordinal = 0; ordinal < entries.size(); ordinal++) {
+            ProductDTO product = entries.get(ordinal).getProduct();
+            if (!product.getProductId().equals(all.entries.get(ordinal).getProductId())) {
+                return PriceIndex.of(entries);
+            }
+            long price = PriceIndex.indexedCents(product.getPrice());
+            if (price != priceIndex.centsOf(ordinal)) {
+                if (count == maxChanges) {
+                    return PriceIndex.of(entries);
+                }
+                changed[count] = ordinal;
+                cents[count++] = price;
+            }
+        }
+        return count == 0 ? priceIndex : priceIndex.withPrices(Arrays.copyOf(changed, count), Arrays.copyOf(cents, count));
+    }
+
+    private static ProductPage emptyPage() {
+        return new ProductPage(List.of(), null);
+    }
+
+    private static View inCategory(Map<Integer, View> byCategory, Integer categoryId, View all) {
+        if (categoryId == null) {
+            return all;
+        }
+        return byCategory.getOrDefault(categoryId, EMPTY_VIEW);
+    }
+
+    // Splits a sorted view by category in one pass; each part keeps the view's order.
+    private static Map<Integer, View> partition(View view) {
+        Map<Integer, List<CatalogEntry>> parts = new HashMap<>();
+        for (CatalogEntry entry : view.entries) {
+            if (entry.getCategoryId() != null) {
+                parts.computeIfAbsent(entry.getCategoryId(), k -> new ArrayList<>()).add(entry);
+            }
+        }
+        Map<Integer, View> result = new HashMap<>(parts.size() * 2);
+        parts.forEach((categoryId, entries) -> result.put(categoryId, new View(view.sort, entries)));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static <K> Map<K, View> views(Map<K, List<CatalogEntry>> index) {
+        Map<K, View> result = new HashMap<>(index.size() * 2);
+        index.forEach((key, entries) -> result.put(key, new View(ProductSort.PRODUCT_ID, entries)));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * One ordering of a subset of the catalog, kept both as entries (for seeking by
+     * cursor) and as the DTO list handed out to unpaginated callers.
+     */
+    private static final class View {
+        private final ProductSort sort;
+        private final List<CatalogEntry> entries;
+        private final List<ProductDTO> products;
+
+        private View(ProductSort sort, List<CatalogEntry> entries) {
+            this.sort = sort;
+            this.entries = Collections.unmodifiableList(entries);
+            List<ProductDTO> dtos = new ArrayList<>(entries.size());
+            for (CatalogEntry entry : entries) {
+                dtos.add(entry.getProduct());
+            }
+            this.products = Collections.unmodifiableList(dtos);
+        }
+
+        static View sorted(ProductSort sort, List<CatalogEntry> entries) {
+            List<CatalogEntry> copy = new ArrayList<>(entries);
+            copy.sort(sort.comparator());
+            return new View(sort, copy);
+        }
+
+        ProductPage page(ProductCursor after, int limit) {
+            return page(after != null ? upperBound(after.toProbe()) : 0, limit, e -> false);
+        }
+
+        ProductPage page(int from, int limit, Predicate<CatalogEntry> pastEnd) {
+            int to = Math.min(entries.size(), from + limit);
+            int end = from;
+            while (end < to && !pastEnd.test(entries.get(end))) {
+                end++;
+            }
+            List<ProductDTO> items = products.subList(from, end);
+            boolean more = end == to && end < entries.size() && !pastEnd.test(entries.get(end));
+            String next = more ? ProductCursor.after(sort, entries.get(end - 1)).encode() : null;
+            return new ProductPage(items, next);
+        }
+
+        /** First index whose entry sorts at or after the probe. */
+        int lowerBound(CatalogEntry probe) {
+            return search(probe, false);
+        }
+
+        /** First index whose entry sorts strictly after the probe. */
+        int upperBound(CatalogEntry probe) {
+            return search(probe, true);
+        }
+
+        private int search(CatalogEntry probe, boolean strict) {
+            Comparator<CatalogEntry> order = sort.comparator();
+            int low = 0;
+            int high = entries.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = order.compare(entries.get(mid), probe);
+                if (cmp < 0 || (strict && cmp == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.shop.ecommerce.catalog;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the catalog data (products, sizes, offers, categories) served over HTTP.
+ * JPA changes advance it through {@link CatalogChangeListener} once their transaction
+ * commits; writers that bypass JPA call {@link #advance()} themselves.
+ */
+@Component
+public class CatalogVersion {
+
+    // Keeps versions unique across restarts, when the counter starts over.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong(1);
+    private volatile Instant lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    public long current() {
+        return version.get();
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    /** Time of the last change, to the second as HTTP dates carry it. */
+    public Instant lastModified() {
+        return lastModified;
+    }
+
+    public void advance() {
+        lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Records a change made in the current transaction, if any. The version moves once
+     * per transaction and only after commit, so a reader never sees a new version
+     * alongside old data; rolled-back changes leave it alone.
+     */
+    public void changed() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            advance();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersion.this);
+                if (status == STATUS_COMMITTED) {
+                    advance();
+                }
+            }
+        });
+    }
+}
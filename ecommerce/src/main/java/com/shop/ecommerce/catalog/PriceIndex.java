@@ -0,0 +1,206 @@
+package com.shop.ecommerce.catalog;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Product ordinals sorted by price, with prices held as {@code long} cents in a parallel
+ * array. A price range is two binary searches over primitives, and the matching products
+ * are the slice of ordinals between them, in (price, product id) order.
+ * <p>
+ * Prices are DECIMAL(10,2), so cents are exact. Instances are immutable; {@link #withPrices}
+ * derives a new index by moving only the products whose price changed.
+ */
+public final class PriceIndex {
+
+    static final long NO_PRICE = Long.MIN_VALUE;
+
+    private final long[] centsByOrdinal;
+    private final long[] sortedCents;
+    private final int[] ordinals;
+
+    private PriceIndex(long[] centsByOrdinal, long[] sortedCents, int[] ordinals) {
+        this.centsByOrdinal = centsByOrdinal;
+        this.sortedCents = sortedCents;
+        this.ordinals = ordinals;
+    }
+
+    /** Builds the index over entries in ordinal order; products without a valid price are left out. */
+    static PriceIndex of(List<CatalogEntry> entries) {
+        long[] centsByOrdinal = new long[entries.size()];
+        for (int ordinal = 0; ordinal < centsByOrdinal.length; ordinal++) {
+            BigDecimal price = entries.get(ordinal).getProduct().getPrice();
+            centsByOrdinal[ordinal] = indexedCents(price);
+        }
+        return of(centsByOrdinal);
+    }
+
+    /** Builds the index over a copy of the given prices ({@link #NO_PRICE} for none). */
+    static PriceIndex of(long[] prices) {
+        long[] centsByOrdinal = prices.clone();
+        // Sort (cents, ordinal) pairs packed as one long key each: no boxing, no comparator.
+        // Cents are at most 10 digits (< 2^34) and ordinals are below 2^29, so the pair fits.
+        long[] keys = new long[centsByOrdinal.length];
+        int priced = 0;
+        for (int ordinal = 0; ordinal < centsByOrdinal.length; ordinal++) {
+            if (centsByOrdinal[ordinal] != NO_PRICE) {
+                if (centsByOrdinal[ordinal] < 0 || centsByOrdinal[ordinal] >= 1L << 34 || ordinal >= 1 << 29) {
+                    throw new IllegalArgumentException("Price " + centsByOrdinal[ordinal] + " cents at ordinal "
+                            + ordinal + " is outside the price index range");
+                }
+                keys[priced++] = (centsByOrdinal[ordinal] << 29) | ordinal;
+            }
+        }
+        Arrays.sort(keys, 0, priced);
+        long[] sortedCents = new long[priced];
+        int[] ordinals = new int[priced];
+        for (int i = 0; i < priced; i++) {
+            sortedCents[i] = keys[i] >>> 29;
+            ordinals[i] = (int) (keys[i] & ((1 << 29) - 1));
+        }
+        return new PriceIndex(centsByOrdinal, sortedCents, ordinals);
+    }
+
+    /**
+     * Index with the given ordinals repriced ({@link #NO_PRICE} removes a price). Each
+     * change shifts the slice between its old and new position, so a handful of price
+     * edits costs a few array copies instead of a full sort.
+     */
+    PriceIndex withPrices(int[] changedOrdinals, long[] newCents) {
+        long[] byOrdinal = centsByOrdinal.clone();
+        long[] cents = sortedCents;
+        int[] order = ordinals;
+        boolean copied = false;
+        for (int c = 0; c < changedOrdinals.length; c++) {
+            int ordinal = changedOrdinals[c];
+            long oldPrice = byOrdinal[ordinal];
+            long newPrice = newCents[c];
+            if (oldPrice == newPrice) {
+                continue;
+            }
+            if (!copied || (oldPrice == NO_PRICE) != (newPrice == NO_PRICE)) {
+                int length = order.length + (oldPrice == NO_PRICE ? 1 : 0) - (newPrice == NO_PRICE ? 1 : 0);
+                long[] resizedCents = new long[length];
+                int[] resizedOrder = new int[length];
+                int kept = 0;
+                for (int i = 0; i < order.length; i++) {
+                    if (order[i] != ordinal) {
+                        resizedCents[kept] = cents[i];
+                        resizedOrder[kept++] = order[i];
+                    }
+                }
+                // Slot for the moved ordinal sits at the end, then is shifted into place.
+                if (newPrice != NO_PRICE) {
+                    insert(resizedCents, resizedOrder, kept, newPrice, ordinal);
+                }
+                cents = resizedCents;
+                order = resizedOrder;
+                copied = true;
+            } else {
+                int from = position(cents, order, order.length, oldPrice, ordinal);
+                System.arraycopy(cents, from + 1, cents, from, order.length - from - 1);
+                System.arraycopy(order, from + 1, order, from, order.length - from - 1);
+                insert(cents, order, order.length - 1, newPrice, ordinal);
+            }
+            byOrdinal[ordinal] = newPrice;
+        }
+        return new PriceIndex(byOrdinal, cents, order);
+    }
+
+    int size() {
+        return ordinals.length;
+    }
+
+    long centsOf(int ordinal) {
+        return centsByOrdinal[ordinal];
+    }
+
+    int ordinalAt(int position) {
+        return ordinals[position];
+    }
+
+    long centsAt(int position) {
+        return sortedCents[position];
+    }
+
+    /** First position priced at or above {@code minCents}. */
+    int lowerBound(long minCents) {
+        return bound(minCents, Integer.MIN_VALUE);
+    }
+
+    /** First position priced above {@code maxCents}. */
+    int upperBound(long maxCents) {
+        return bound(maxCents, Integer.MAX_VALUE);
+    }
+
+    /** First position sorting at or after ({@code cents}, {@code ordinal}). */
+    int lowerBound(long cents, int ordinal) {
+        return bound(cents, ordinal - 1);
+    }
+
+    /** First position sorting strictly after ({@code cents}, {@code ordinal}). */
+    int upperBound(long cents, int ordinal) {
+        return bound(cents, ordinal);
+    }
+
+    // First position whose (cents, ordinal) is greater than the given pair.
+    private int bound(long cents, int ordinal) {
+        int low = 0;
+        int high = ordinals.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedCents[mid] < cents || (sortedCents[mid] == cents && ordinals[mid] <= ordinal)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Cents to index for a stored price: {@link #NO_PRICE} when it is missing or negative. */
+    static long indexedCents(BigDecimal price) {
+        return price != null && price.signum() >= 0 ? toCents(price) : NO_PRICE;
+    }
+
+    /** Exact cents of a stored price. */
+    static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** Smallest whole-cent price at or above {@code price}, for inclusive lower bounds. */
+    static long ceilCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.CEILING).unscaledValue().longValueExact();
+    }
+
+    /** Largest whole-cent price at or below {@code price}, for inclusive upper bounds. */
+    static long floorCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.FLOOR).unscaledValue().longValueExact();
+    }
+
+    // Position of (cents, ordinal) among the first `length` slots.
+    private static int position(long[] cents, int[] order, int length, long price, int ordinal) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cents[mid] < price || (cents[mid] == price && order[mid] < ordinal)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Inserts into slots [0, length] where slot `length` is free, keeping the order.
+    private static void insert(long[] cents, int[] order, int length, long price, int ordinal) {
+        int at = position(cents, order, length, price, ordinal);
+        System.arraycopy(cents, at, cents, at + 1, length - at);
+        System.arraycopy(order, at, order, at + 1, length - at);
+        cents[at] = price;
+        order[at] = ordinal;
+    }
+}
@@ -0,0 +1,99 @@
+package com.shop.ecommerce.catalog;
+
+import com.shop.ecommerce.dto.ProductDTO;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque position in one of the {@link ProductSort} orderings. The token is the
+ * URL-safe Base64 of {@code sort|key|productId}; clients must treat it as opaque.
+ */
+public final class ProductCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final ProductSort sort;
+    private final String key;
+    private final String productId;
+
+    private ProductCursor(ProductSort sort, String key, String productId) {
+        this.sort = sort;
+        this.key = key;
+        this.productId = productId;
+    }
+
+    public static ProductCursor after(ProductSort sort, CatalogEntry entry) {
+        ProductDTO product = entry.getProduct();
+        String key = switch (sort) {
+            case PRODUCT_ID -> "";
+            case PRICE -> product.getPrice() != null ? product.getPrice().toPlainString() : "";
+            case DISCOUNT -> String.valueOf(ProductSort.discountOf(product));
+            case LATEST -> entry.getCreatedAt() != null ? entry.getCreatedAt().toString() : "";
+        };
+        return new ProductCursor(sort, key, product.getProductId());
+    }
+
+    public static ProductCursor decode(ProductSort sort, String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int first = raw.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : raw.indexOf(SEPARATOR, first + 1);
+        if (second < 0 || !raw.substring(0, first).equals(sort.name())) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        ProductCursor cursor = new ProductCursor(sort, raw.substring(first + 1, second), raw.substring(second + 1));
+        try {
+            cursor.toProbe();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return cursor;
+    }
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + key + SEPARATOR + productId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ProductSort getSort() { return sort; }
+
+    public String getProductId() { return productId; }
+
+    public BigDecimal getPrice() {
+        return key.isEmpty() ? null : new BigDecimal(key);
+    }
+
+    public Integer getDiscountPercent() {
+        return key.isEmpty() ? 0 : Integer.valueOf(key);
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return key.isEmpty() ? null : LocalDateTime.parse(key);
+    }
+
+    /**
+     * Builds an entry that sorts exactly where the cursor points, for binary
+     * searching the snapshot views.
+     */
+    CatalogEntry toProbe() {
+        ProductDTO probe = new ProductDTO();
+        probe.setProductId(productId);
+        LocalDateTime createdAt = null;
+        switch (sort) {
+            case PRICE -> probe.setPrice(getPrice());
+            case DISCOUNT -> probe.setDiscountPercent(getDiscountPercent());
+            case LATEST -> createdAt = getCreatedAt();
+            default -> { }
+        }
+        return new CatalogEntry(probe, null, createdAt);
+    }
+}
@@ -0,0 +1,312 @@
+package com.shop.ecommerce.catalog;
+
+import com.shop.ecommerce.dto.ProductDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, brand, category name and description,
+ * ranked with BM25 over field-weighted term frequencies.
+ * <p>
+ * Every query term must match (as the old {@code LIKE} did for the whole phrase);
+ * the last term also matches as a prefix so results follow the user while typing. A
+ * short prefix can cover many terms; only the {@value #MAX_PREFIX_EXPANSIONS} found in
+ * the most documents are expanded, so the matches dropped are the rarest ones.
+ * Updates replace a product's document in place: the old document is tombstoned and
+ * a new one appended, which keeps every posting list sorted by document number.
+ */
+public final class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, Integer> docsByProductId = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private String[] productIds = new String[1024];
+    private float[] lengths = new float[1024];
+    private int maxDoc;
+    private int liveDocs;
+    private double totalLength;
+
+    public static ProductSearchIndex of(Collection<ProductDTO> products) {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (ProductDTO product : products) {
+            index.addDocument(product);
+        }
+        return index;
+    }
+
+    public void put(ProductDTO product) {
+        lock.writeLock().lock();
+        try {
+            deleteDocument(product.getProductId());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            deleteDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** True once tombstones outnumber live documents and a rebuild would pay off. */
+    public boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            int dead = maxDoc - liveDocs;
+            return dead > 1024 && dead > liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static boolean sameIndexedText(ProductDTO a, ProductDTO b) {
+        return Objects.equals(a.getProductName(), b.getProductName())
+                && Objects.equals(a.getBrand(), b.getBrand())
+                && Objects.equals(a.getCategoryName(), b.getCategoryName())
+                && Objects.equals(a.getDescription(), b.getDescription());
+    }
+
+    /**
+     * Returns the ids of matching products, best match first.
+     *
+     * @param limit maximum number of ids to return, or {@code 0} for all matches
+     */
+    public List<String> search(String query, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return List.of();
+            }
+            float avgLength = (float) (totalLength / liveDocs);
+            List<Matches> perToken = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                Matches matches = match(tokens.get(i), i == tokens.size() - 1, avgLength);
+                if (matches.size == 0) {
+                    return List.of();
+                }
+                perToken.add(matches);
+            }
+            perToken.sort(Comparator.comparingInt(m -> m.size));
+            Matches result = perToken.get(0);
+            for (int i = 1; i < perToken.size() && result.size > 0; i++) {
+                result = result.intersect(perToken.get(i));
+            }
+            return rank(result, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Matches match(String token, boolean prefix, float avgLength) {
+        if (!prefix) {
+            Postings postings = terms.get(token);
+            return postings != null ? score(postings, avgLength) : Matches.EMPTY;
+        }
+        Collection<Postings> expansions = terms.subMap(token, true, token + Character.MAX_VALUE, false).values();
+        if (expansions.size() > MAX_PREFIX_EXPANSIONS) {
+            PriorityQueue<Postings> widest = new PriorityQueue<>(MAX_PREFIX_EXPANSIONS + 1,
+                    Comparator.comparingInt(postings -> postings.size));
+            for (Postings postings : expansions) {
+                widest.add(postings);
+                if (widest.size() > MAX_PREFIX_EXPANSIONS) {
+                    widest.poll();
+                }
+            }
+            expansions = widest;
+        }
+        Matches result = Matches.EMPTY;
+        for (Postings postings : expansions) {
+            result = result.union(score(postings, avgLength));
+        }
+        return result;
+    }
+
+    private Matches score(Postings postings, float avgLength) {
+        float idf = (float) Math.log(1 + (liveDocs - postings.size + 0.5) / (postings.size + 0.5));
+        int[] docs = new int[postings.size];
+        float[] scores = new float[postings.size];
+        int n = 0;
+        for (int i = 0; i < postings.size; i++) {
+            int doc = postings.docs[i];
+            if (deleted.get(doc)) {
+                continue;
+            }
+            float tf = postings.frequencies[i];
+            float norm = K1 * (1 - B + B * lengths[doc] / avgLength);
+            docs[n] = doc;
+            scores[n] = idf * tf * (K1 + 1) / (tf + norm);
+            n++;
+        }
+        return new Matches(docs, scores, n);
+    }
+
+    private List<String> rank(Matches matches, int limit) {
+        int k = limit > 0 ? Math.min(limit, matches.size) : matches.size;
+        Comparator<Integer> best = (a, b) -> {
+            int cmp = Float.compare(matches.scores[b], matches.scores[a]);
+            return cmp != 0 ? cmp : Integer.compare(matches.docs[a], matches.docs[b]);
+        };
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, k), best.reversed());
+        for (int i = 0; i < matches.size; i++) {
+            top.add(i);
+            if (top.size() > k) {
+                top.poll();
+            }
+        }
+        Integer[] order = top.toArray(new Integer[0]);
+        Arrays.sort(order, best);
+        List<String> ids = new ArrayList<>(order.length);
+        for (Integer i : order) {
+            ids.add(productIds[matches.docs[i]]);
+        }
+        return ids;
+    }
+
+    private void addDocument(ProductDTO product) {
+        Map<String, Float> frequencies = new LinkedHashMap<>();
+        float length = 0;
+        length += collect(frequencies, product.getProductName(), NAME_WEIGHT);
+        length += collect(frequencies, product.getBrand(), BRAND_WEIGHT);
+        length += collect(frequencies, product.getCategoryName(), CATEGORY_WEIGHT);
+        length += collect(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        int doc = maxDoc++;
+        if (doc == productIds.length) {
+            productIds = Arrays.copyOf(productIds, doc * 2);
+            lengths = Arrays.copyOf(lengths, doc * 2);
+        }
+        productIds[doc] = product.getProductId();
+        lengths[doc] = length;
+        docsByProductId.put(product.getProductId(), doc);
+        frequencies.forEach((term, tf) -> terms.computeIfAbsent(term, t -> new Postings()).add(doc, tf));
+        liveDocs++;
+        totalLength += length;
+    }
+
+    private void deleteDocument(String productId) {
+        Integer doc = docsByProductId.remove(productId);
+        if (doc != null) {
+            deleted.set(doc);
+            liveDocs--;
+            totalLength -= lengths[doc];
+        }
+    }
+
+    private static float collect(Map<String, Float> frequencies, String text, float weight) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    /** Scored documents for one query term, sorted by document number. */
+    private static final class Matches {
+        static final Matches EMPTY = new Matches(new int[0], new float[0], 0);
+
+        final int[] docs;
+        final float[] scores;
+        final int size;
+
+        Matches(int[] docs, float[] scores, int size) {
+            this.docs = docs;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        Matches intersect(Matches other) {
+            int[] outDocs = new int[Math.min(size, other.size)];
+            float[] outScores = new float[outDocs.length];
+            int i = 0, j = 0, n = 0;
+            while (i < size && j < other.size) {
+                if (docs[i] < other.docs[j]) {
+                    i++;
+                } else if (docs[i] > other.docs[j]) {
+                    j++;
+                } else {
+                    outDocs[n] = docs[i];
+                    outScores[n++] = scores[i++] + other.scores[j++];
+                }
+            }
+            return new Matches(outDocs, outScores, n);
+        }
+
+        // A document matching several expansions of a prefix keeps its best score.
+        Matches union(Matches other) {
+            if (size == 0) {
+                return other;
+            }
+            int[] outDocs = new int[size + other.size];
+            float[] outScores = new float[outDocs.length];
+            int i = 0, j = 0, n = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || (i < size && docs[i] < other.docs[j])) {
+                    outDocs[n] = docs[i];
+                    outScores[n++] = scores[i++];
+                } else if (i == size || docs[i] > other.docs[j]) {
+                    outDocs[n] = other.docs[j];
+                    outScores[n++] = other.scores[j++];
+                } else {
+                    outDocs[n] = docs[i];
+                    outScores[n++] = Math.max(scores[i++], other.scores[j++]);
+                }
+            }
+            return new Matches(outDocs, outScores, n);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.shop.ecommerce.catalog;
+
+import com.shop.ecommerce.dto.ProductDTO;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Orderings used by the paginated product listings. Every ordering ends with the
+ * product id so that a (key, productId) pair identifies one position exactly.
+ */
+public enum ProductSort {
+
+    PRODUCT_ID(Comparator.comparing(CatalogEntry::getProductId)),
+
+    PRICE(Comparator.comparing((CatalogEntry e) -> e.getProduct().getPrice(),
+                    Comparator.nullsLast(Comparator.<BigDecimal>naturalOrder()))
+            .thenComparing(CatalogEntry::getProductId)),
+
+    DISCOUNT(Comparator.comparingInt((CatalogEntry e) -> discountOf(e.getProduct())).reversed()
+            .thenComparing(CatalogEntry::getProductId)),
+
+    LATEST(Comparator.comparing(CatalogEntry::getCreatedAt,
+                    Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(CatalogEntry::getProductId));
+
+    private final Comparator<CatalogEntry> comparator;
+
+    ProductSort(Comparator<CatalogEntry> comparator) {
+        this.comparator = comparator;
+    }
+
+    public Comparator<CatalogEntry> comparator() {
+        return comparator;
+    }
+
+    static int discountOf(ProductDTO product) {
+        return product.getDiscountPercent() != null ? product.getDiscountPercent() : 0;
+    }
+}
@@ -0,0 +1,53 @@
+package com.shop.ecommerce.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Admin and internal endpoints answer only requests carrying {@code admin.api-key} in the
+ * {@value #HEADER} header; anything else is refused before the handler runs. Without a
+ * configured key they refuse every request.
+ */
+@Component
+public class AdminAuthInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "X-Admin-Key";
+
+    @Value("${admin.api-key:}")
+    private String apiKey;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        if (apiKey == null || apiKey.isBlank()) {
+            refuse(response, HttpServletResponse.SC_FORBIDDEN, "Admin API is disabled; set admin.api-key");
+            return false;
+        }
+        String presented = request.getHeader(HEADER);
+        if (presented == null || !MessageDigest.isEqual(presented.getBytes(StandardCharsets.UTF_8),
+                apiKey.getBytes(StandardCharsets.UTF_8))) {
+            refuse(response, HttpServletResponse.SC_UNAUTHORIZED, "A valid " + HEADER + " header is required");
+            return false;
+        }
+        return true;
+    }
+
+    private static void refuse(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"success\":false,\"message\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,21 @@
+package com.shop.ecommerce.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a catalog GET handler as cacheable against the catalog version. See
+ * {@link CatalogConditionalRequestInterceptor}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CatalogCacheControl {
+
+    /** Seconds a browser or CDN may reuse the response unchecked; 0 means always revalidate. */
+    long maxAgeSeconds() default 0;
+
+    /** Whether the handler encodes its own body according to Accept-Encoding. */
+    boolean varyByEncoding() default false;
+}
@@ -0,0 +1,79 @@
+package com.shop.ecommerce.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Adds the caching headers {@link CatalogConditionalRequestInterceptor} prepared for a catalog
+ * GET once the handler has picked its status, and only if that status is 2xx. They are
+ * written just before the body, since a committed response takes no more headers. Headers
+ * the handler set itself win.
+ */
+@Component
+public class CatalogCacheHeadersFilter extends OncePerRequestFilter {
+
+    static final String HEADERS_ATTRIBUTE = CatalogCacheHeadersFilter.class.getName() + ".headers";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CacheHeadersResponse wrapped = new CacheHeadersResponse(request, response);
+        chain.doFilter(request, wrapped);
+        wrapped.addCacheHeaders();
+    }
+
+    private static final class CacheHeadersResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private boolean done;
+
+        CacheHeadersResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addCacheHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addCacheHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addCacheHeaders();
+            super.flushBuffer();
+        }
+
+        void addCacheHeaders() {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (!(request.getAttribute(HEADERS_ATTRIBUTE) instanceof HttpHeaders headers)
+                    || getStatus() / 100 != 2 || isCommitted()) {
+                return;
+            }
+            headers.forEach((name, values) -> {
+                if (!containsHeader(name)) {
+                    setHeader(name, values.get(0));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.shop.ecommerce.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache regions as size-bounded Caffeine caches (through JCache).
+ * Each region holds at most {@code cache.region.<region>.max-entries} entries, falling back
+ * to {@code cache.region.default.max-entries}; both are read from the JPA properties. The
+ * update-timestamps region is never bounded: evicting a timestamp would let the query cache
+ * return results older than a write.
+ * <p>
+ * Entries are stored by reference. Hibernate already caches entities in disassembled form,
+ * so copying them on every read and write, the JCache default, would only add garbage.
+ * Every session factory gets a cache manager of its own instead of the class loader's
+ * shared default, so two persistence units never see each other's entries.
+ */
+public class CatalogCacheRegionFactory extends JCacheRegionFactory {
+
+    static final String PREFIX = "cache.region.";
+    static final String MAX_ENTRIES = ".max-entries";
+
+    private Map<String, Object> configValues = Map.of();
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        this.configValues = configValues;
+        super.prepareForUse(settings, configValues);
+    }
+
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map<String, Object> properties) {
+        CachingProvider provider = getCachingProvider(properties);
+        URI uri = URI.create("hibernate:" + settings.getUuid());
+        return provider.getCacheManager(uri, provider.getDefaultClassLoader());
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        if (!regionName.endsWith(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME)) {
+            configuration.setMaximumSize(OptionalLong.of(maxEntries(regionName)));
+        }
+        return getCacheManager().createCache(regionName, configuration);
+    }
+
+    private long maxEntries(String regionName) {
+        Object value = configValues.get(PREFIX + regionName + MAX_ENTRIES);
+        if (value == null) {
+            value = configValues.getOrDefault(PREFIX + "default" + MAX_ENTRIES, 10_000);
+        }
+        return Long.parseLong(value.toString().trim());
+    }
+}
@@ -0,0 +1,85 @@
+package com.shop.ecommerce.config;
+
+import com.shop.ecommerce.catalog.CatalogSnapshot;
+import com.shop.ecommerce.catalog.CatalogVersion;
+import com.shop.ecommerce.service.CatalogResponseCache;
+import com.shop.ecommerce.service.CatalogSnapshotService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Answers conditional GETs on {@link CatalogCacheControl} handlers from the catalog
+ * version alone, so an unchanged catalog costs a 304 without reaching the service,
+ * the repositories or Jackson.
+ * <p>
+ * The ETag combines the catalog version with the snapshot version, since reads are
+ * served from the snapshot: a change invalidates cached copies right away, and again
+ * once the snapshot holding it is published.
+ * <p>
+ * The validators and {@code Cache-Control} go on 304s and, through
+ * {@link CatalogCacheHeadersFilter}, on 2xx responses only; a 404 or a shed 503 must not be
+ * kept by shared caches.
+ */
+@Component
+public class CatalogConditionalRequestInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        CatalogCacheControl policy = method.getMethodAnnotation(CatalogCacheControl.class);
+        if (policy == null || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+            return true;
+        }
+
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        long version = catalogVersion.current();
+        Instant lastModified = catalogVersion.lastModified();
+        StringBuilder etag = new StringBuilder("\"").append(catalogVersion.epoch()).append('.').append(version)
+                .append('.').append(snapshot != null ? snapshot.getVersion() : 0);
+        if (snapshot != null) {
+            Instant builtAt = snapshot.getBuiltAt().truncatedTo(ChronoUnit.SECONDS);
+            if (builtAt.isAfter(lastModified)) {
+                lastModified = builtAt;
+            }
+        }
+        if (policy.varyByEncoding()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (CatalogResponseCache.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+                etag.append("-gzip");
+            }
+        }
+        etag.append('"');
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag.toString());
+        headers.setLastModified(lastModified.toEpochMilli());
+        headers.setCacheControl(policy.maxAgeSeconds() > 0
+                ? "public, max-age=" + policy.maxAgeSeconds()
+                : "no-cache");
+        // Checked without a response, so a miss leaves the headers to CatalogCacheHeadersFilter.
+        if (new ServletWebRequest(request).checkNotModified(etag.toString(), lastModified.toEpochMilli())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            headers.forEach((name, values) -> response.setHeader(name, values.get(0)));
+            return false;
+        }
+        request.setAttribute(CatalogCacheHeadersFilter.HEADERS_ATTRIBUTE, headers);
+        return true;
+    }
+}
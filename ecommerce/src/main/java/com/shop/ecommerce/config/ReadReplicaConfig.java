@@ -0,0 +1,89 @@
+package com.shop.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Metrics;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Active with {@code datasource.replicas.enabled=true}. The {@code spring.datasource} pool
+ * stays the primary; each URL in {@code datasource.replicas.urls} gets its own read-only
+ * pool with the primary's credentials and driver. JPA, JdbcTemplate and the transaction
+ * manager all use the lazy routing proxy, so read-only transactions land on a replica.
+ * Repositories are read-only by default for this; the writes they inherit keep their own
+ * transaction settings.
+ * <p>
+ * Hibernate gives a session's connection back after every transaction here. By default it
+ * holds the first one until the session closes, which with open-in-view is the end of the
+ * request, so a write following a replica read in the same request would go to the replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                 DataSourceProperties properties,
+                                                 @Value("${datasource.replicas.urls}") String urls,
+                                                 @Value("${datasource.replicas.selection:round-robin}") String selection,
+                                                 @Value("${datasource.replicas.pool-size:10}") int poolSize,
+                                                 @Value("${datasource.replicas.sticky-ms:5000}") long stickyMillis) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : Arrays.stream(urls.split(",")).map(String::trim).filter(u -> !u.isEmpty()).toList()) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(url);
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(Metrics.globalRegistry);
+            replicas.add(replica);
+        }
+        ReadWriteRoutingDataSource.Selection mode = ReadWriteRoutingDataSource.Selection.valueOf(
+                selection.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        log.info("Routing read-only transactions to {} replica(s), {}", replicas.size(), mode);
+        return new ReadWriteRoutingDataSource(primary, replicas, mode, new ReadYourWrites(stickyMillis));
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer connectionPerTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,122 @@
+package com.shop.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything else to the
+ * primary. The routing key is read when a connection is requested, so this must sit
+ * behind a {@code LazyConnectionDataSourceProxy}: the transaction's read-only flag is only
+ * published after the transaction manager has asked for its connection.
+ * <p>
+ * Read-only transactions stay on the primary while {@link ReadYourWrites} says the caller
+ * must see its own writes.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public enum Selection {
+        ROUND_ROBIN,
+        /** Fewest active plus waiting connections; ties rotate. */
+        LEAST_CONNECTIONS
+    }
+
+    static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicas;
+    private final Selection selection;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter writes;
+    private final Counter stickyReads;
+    private final Counter replicaReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, Selection selection,
+                                      ReadYourWrites readYourWrites) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required for read/write routing");
+        }
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(replicaKey(i), this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        initialize();
+
+        writes = routed("primary", "write");
+        stickyReads = routed("primary", "read_your_writes");
+        replicaReads = routed("replica", "read_only");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                writes.increment();
+                readYourWrites.recordWrite();
+            }
+            return PRIMARY;
+        }
+        if (readYourWrites.readsFromPrimary()) {
+            stickyReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replicaKey(selection == Selection.LEAST_CONNECTIONS ? leastConnections() : roundRobin());
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private int roundRobin() {
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    private int leastConnections() {
+        int start = roundRobin();
+        int best = start;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int k = 0; k < replicas.size(); k++) {
+            int i = (start + k) % replicas.size();
+            // Null until the pool has started; an unused replica counts as idle.
+            HikariPoolMXBean pool = replicas.get(i).getHikariPoolMXBean();
+            int load = pool != null ? pool.getActiveConnections() + pool.getThreadsAwaitingConnection() : 0;
+            if (load < bestLoad) {
+                best = i;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    private static String replicaKey(int index) {
+        return "replica-" + index;
+    }
+
+    private static Counter routed(String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .description("Connections handed out by the read/write router")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(Metrics.globalRegistry);
+    }
+}
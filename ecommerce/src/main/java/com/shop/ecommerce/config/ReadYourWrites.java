@@ -0,0 +1,106 @@
+package com.shop.ecommerce.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Decides when read-only work must still see the primary. A read-write transaction that
+ * reaches the database marks the current request, and a cookie carries the mark to the
+ * same client's requests for {@code stickyMillis}, long enough for replicas to catch up.
+ * {@link #onPrimary} pins the calling thread regardless of any request.
+ */
+public class ReadYourWrites {
+
+    static final String COOKIE = "primary-reads-until";
+
+    private static final String UNTIL_ATTRIBUTE = ReadYourWrites.class.getName() + ".until";
+    private static final String COOKIE_SENT_ATTRIBUTE = ReadYourWrites.class.getName() + ".cookieSent";
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final long stickyMillis;
+
+    public ReadYourWrites(long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    /** Runs {@code action} with every read on this thread going to the primary. */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean outer = PINNED.get() != null;
+        PINNED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (!outer) {
+                PINNED.remove();
+            }
+        }
+    }
+
+    boolean readsFromPrimary() {
+        if (PINNED.get() != null) {
+            return true;
+        }
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return false;
+        }
+        Long until = (Long) request.getAttribute(UNTIL_ATTRIBUTE);
+        if (until == null) {
+            until = cookieValue(request);
+            request.setAttribute(UNTIL_ATTRIBUTE, until);
+        }
+        return until > System.currentTimeMillis();
+    }
+
+    void recordWrite() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servlet) || stickyMillis <= 0) {
+            return;
+        }
+        long until = System.currentTimeMillis() + stickyMillis;
+        HttpServletRequest request = servlet.getRequest();
+        request.setAttribute(UNTIL_ATTRIBUTE, until);
+        HttpServletResponse response = servlet.getResponse();
+        // One cookie per request; later writes in the same request extend it only in memory.
+        if (response != null && !response.isCommitted() && request.getAttribute(COOKIE_SENT_ATTRIBUTE) == null) {
+            request.setAttribute(COOKIE_SENT_ATTRIBUTE, Boolean.TRUE);
+            ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(until))
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(Duration.ofMillis(stickyMillis + 999).toSeconds())
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest() : null;
+    }
+
+    private static long cookieValue(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+}
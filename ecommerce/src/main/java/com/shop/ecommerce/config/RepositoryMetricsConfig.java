@@ -0,0 +1,79 @@
+package com.shop.ecommerce.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how many rows each repository method returns, next to the
+ * {@code spring.data.repository.invocations} timer Spring Boot already records.
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+    static final String ROWS_METRIC = "spring.data.repository.rows";
+
+    // Static so registering the post-processor does not initialize this configuration early.
+    @Bean
+    static BeanPostProcessor repositoryRowCountPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(
+                                    rowCounter(registry, information.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // One summary per method, registered on its first call; later calls only record.
+    private static MethodInterceptor rowCounter(ObjectProvider<MeterRegistry> registry, String repository) {
+        Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+        return invocation -> {
+            Object result = invocation.proceed();
+            int rows = rowCount(result);
+            if (rows >= 0) {
+                DistributionSummary summary = summaries.get(invocation.getMethod());
+                if (summary == null) {
+                    summary = summaries.computeIfAbsent(invocation.getMethod(), method -> DistributionSummary.builder(ROWS_METRIC)
+                            .description("Rows returned by a repository method")
+                            .baseUnit("rows")
+                            .tag("repository", repository)
+                            .tag("method", method.getName())
+                            .register(registry.getObject()));
+                }
+                summary.record(rows);
+            }
+            return result;
+        };
+    }
+
+    // Streams are left alone: counting them would consume them. Scalars are not row sets.
+    private static int rowCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+}
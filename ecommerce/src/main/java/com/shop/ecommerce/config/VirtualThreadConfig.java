@@ -0,0 +1,50 @@
+package com.shop.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Active with {@code spring.threads.virtual.enabled=true} on Java 21+, where Spring Boot
+ * already runs Tomcat requests, the task executor and the scheduler on virtual threads.
+ * Request concurrency is then no longer capped by a thread pool, so in-flight JDBC work
+ * is capped here instead: the Hikari pool is wrapped in a fair semaphore sized to the pool.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    static BeanPostProcessor connectionLimitingPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                ConcurrencyLimitingDataSource limited = new ConcurrencyLimitingDataSource(
+                        hikari, hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+                registry.ifAvailable(meters -> {
+                    Gauge.builder("jdbc.connections.limiter.queued", limited, ConcurrencyLimitingDataSource::getQueueLength)
+                            .description("Requests waiting for a database connection permit")
+                            .register(meters);
+                    Gauge.builder("jdbc.connections.limiter.available", limited, ConcurrencyLimitingDataSource::getAvailablePermits)
+                            .description("Database connection permits currently free")
+                            .register(meters);
+                });
+                log.info("Virtual threads enabled; limiting JDBC concurrency to {} connections", limited.getMaxPermits());
+                return limited;
+            }
+        };
+    }
+}
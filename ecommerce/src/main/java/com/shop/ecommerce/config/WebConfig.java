@@ -1,13 +1,31 @@
 package com.shop.ecommerce.config;
 
+import com.shop.ecommerce.controller.ProductController;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private CatalogConditionalRequestInterceptor catalogConditionalRequestInterceptor;
+
+    @Autowired
+    private AdminAuthInterceptor adminAuthInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(adminAuthInterceptor)
+                .addPathPatterns("/api/admin/**", "/api/inventory/reservations", "/api/inventory/reservations/**");
+        registry.addInterceptor(catalogConditionalRequestInterceptor)
+                .addPathPatterns("/api/products/**", "/api/categories/**");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/static/**")
@@ -25,6 +43,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:3000") 
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(ProductController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG)
                 .allowCredentials(false) 
                 .maxAge(3600);
     }
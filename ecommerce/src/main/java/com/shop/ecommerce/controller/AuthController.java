@@ -1,8 +1,18 @@
 package com.shop.ecommerce.controller;
 
+import com.shop.ecommerce.audit.AuthEventLog;
+import com.shop.ecommerce.audit.AuthEventType;
 import com.shop.ecommerce.entity.User;
+import com.shop.ecommerce.exception.ServiceBusyException;
 import com.shop.ecommerce.repository.UserRepository;
+import com.shop.ecommerce.service.AuthTokenService;
+import com.shop.ecommerce.service.CredentialService;
+import com.shop.ecommerce.service.EmailExistenceService;
+import com.shop.ecommerce.service.UserIdAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,16 +28,32 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserIdAllocator userIdAllocator;
+
+    @Autowired
+    private EmailExistenceService emailExistenceService;
+
+    @Autowired
+    private CredentialService credentialService;
+
+    @Autowired
+    private AuthEventLog authEventLog;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
     @GetMapping(value = "/test", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, Object>> test() {
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Auth controller is working!");
         response.put("success", true);
         response.put("timestamp", LocalDateTime.now().toString());
-        System.out.println("✅ Test endpoint called successfully");
         return ResponseEntity.ok(response);
     }
 
@@ -41,8 +67,6 @@ public class AuthController {
             String email = (String) request.get("email");
             String password = (String) request.get("password");
 
-            System.out.println("🔐 Login attempt for email: " + email);
-
             
             if (email == null || email.trim().isEmpty()) {
                 response.put("message", "Email is required");
@@ -57,34 +81,35 @@ public class AuthController {
             }
 
         
-            Optional<User> userOptional = userRepository.findByEmail(email.trim().toLowerCase());
+            Optional<User> userOptional = credentialService.authenticate(email, password);
 
             if (userOptional.isPresent()) {
                 User user = userOptional.get();
-                if (user.getPassword().equals(password)) {
-                    System.out.println("✅ Login successful for: " + user.getFirstName());
-                    response.put("message", "Login successful");
-                    response.put("success", true);
-                    response.put("userId", user.getUserId());
-                    response.put("firstName", user.getFirstName());
-                    response.put("lastName", user.getLastName());
-                    response.put("email", user.getEmail());
-                    return ResponseEntity.ok(response);
-                } else {
-                    System.out.println("❌ Invalid password for: " + email);
-                    response.put("message", "Invalid email or password");
-                    response.put("success", false);
-                    return ResponseEntity.ok(response);
-                }
+                authEventLog.publish(AuthEventType.LOGIN_SUCCEEDED, user.getUserId(), user.getEmail(), null);
+                response.put("message", "Login successful");
+                response.put("success", true);
+                response.put("userId", user.getUserId());
+                response.put("firstName", user.getFirstName());
+                response.put("lastName", user.getLastName());
+                response.put("email", user.getEmail());
+                response.put("token", authTokenService.issue(user.getUserId()));
+                return ResponseEntity.ok(response);
             } else {
-                System.out.println("❌ User not found: " + email);
+                authEventLog.publish(AuthEventType.LOGIN_FAILED, null, email, null);
                 response.put("message", "Invalid email or password");
                 response.put("success", false);
                 return ResponseEntity.ok(response);
             }
+        } catch (ServiceBusyException e) {
+            authEventLog.publish(AuthEventType.LOGIN_SHED, null, null, null);
+            response.put("message", e.getMessage());
+            response.put("success", false);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                    .body(response);
         } catch (Exception e) {
-            System.err.println("❌ Login error: " + e.getMessage());
-            e.printStackTrace();
+            authEventLog.publishError(AuthEventType.LOGIN_ERROR, null, e);
+            log.error("Login failed", e);
             response.put("message", "Login failed: " + e.getMessage());
             response.put("success", false);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -104,9 +129,6 @@ public class AuthController {
             String password = (String) request.get("password");
             String phoneNumber = (String) request.get("phoneNumber");
 
-            System.out.println("📝 Registration attempt for: " + email);
-            System.out.println("📝 Request data: " + firstName + " " + lastName);
-
             
             if (firstName == null || firstName.trim().isEmpty()) {
                 response.put("message", "First name is required");
@@ -132,32 +154,35 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            
-            boolean emailExists = userRepository.existsByEmail(email.trim().toLowerCase());
+            // Hash before touching the database: with open-in-view the first query pins
+            // a connection to this request, and it should not be held while bcrypt runs.
+            String passwordHash = credentialService.hash(password);
+
+            boolean emailExists = emailExistenceService.exists(email);
             if (emailExists) {
-                System.out.println("❌ Email already exists: " + email);
+                authEventLog.publish(AuthEventType.REGISTRATION_REJECTED, null, email, "email_exists");
                 response.put("message", "Email already exists. Please use a different email.");
                 response.put("success", false);
                 return ResponseEntity.badRequest().body(response);
             }
 
             
-            Integer nextUserId = getNextUserId();
-            System.out.println("🆔 Next UserID: " + nextUserId);
+            Integer nextUserId = userIdAllocator.nextId();
 
             
             User newUser = new User();
             newUser.setUserId(nextUserId);
             newUser.setFirstName(firstName.trim());
             newUser.setLastName(lastName.trim());
-            newUser.setPassword(password);
+            newUser.setPassword(passwordHash);
             newUser.setEmail(email.trim().toLowerCase());
             newUser.setPhoneNumber(phoneNumber);
             newUser.setCreatedAt(LocalDateTime.now());
 
             
             User savedUser = userRepository.save(newUser);
-            System.out.println("✅ User registered successfully: " + savedUser.getUserId());
+            emailExistenceService.recordRegistered(savedUser.getEmail());
+            authEventLog.publish(AuthEventType.REGISTERED, savedUser.getUserId(), savedUser.getEmail(), null);
 
             response.put("message", "Registration successful! You can now login with your credentials.");
             response.put("success", true);
@@ -167,9 +192,16 @@ public class AuthController {
             response.put("email", savedUser.getEmail());
             return ResponseEntity.ok(response);
 
+        } catch (ServiceBusyException e) {
+            authEventLog.publish(AuthEventType.REGISTRATION_SHED, null, null, null);
+            response.put("message", e.getMessage());
+            response.put("success", false);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                    .body(response);
         } catch (Exception e) {
-            System.err.println("❌ Registration error: " + e.getMessage());
-            e.printStackTrace();
+            authEventLog.publishError(AuthEventType.REGISTRATION_ERROR, null, e);
+            log.error("Registration failed", e);
             response.put("message", "Registration failed: " + e.getMessage());
             response.put("success", false);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -181,31 +213,18 @@ public class AuthController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            System.out.println("📧 Email check for: " + email);
-            boolean exists = userRepository.existsByEmail(email.trim().toLowerCase());
+            boolean exists = emailExistenceService.exists(email);
+            authEventLog.publish(AuthEventType.EMAIL_CHECKED, null, email, exists ? "exists" : "available");
             response.put("available", !exists);
             response.put("message", exists ? "Email already exists" : "Email is available");
             response.put("success", true);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.err.println("❌ Email check error: " + e.getMessage());
-            e.printStackTrace();
+            authEventLog.publishError(AuthEventType.EMAIL_CHECK_ERROR, email, e);
+            log.error("Email check failed", e);
             response.put("message", "Error checking email: " + e.getMessage());
             response.put("success", false);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
-
-    private Integer getNextUserId() {
-        try {
-            Integer maxId = userRepository.findAll().stream()
-                    .mapToInt(User::getUserId)
-                    .max()
-                    .orElse(4); 
-            return maxId + 1;
-        } catch (Exception e) {
-            System.out.println("⚠️ Error getting next UserID, using fallback: " + e.getMessage());
-            return 5; 
-        }
-    }
 }
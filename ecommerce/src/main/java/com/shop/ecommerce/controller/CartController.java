@@ -0,0 +1,118 @@
+package com.shop.ecommerce.controller;
+
+import com.shop.ecommerce.service.AuthTokenService;
+import com.shop.ecommerce.service.CartService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Carts are addressed by the id {@code POST /api/cart} returns, which the client keeps
+ * for as long as it uses the cart. Requests with a login token claim the cart for that
+ * user; see {@link CartService}.
+ */
+@RestController
+@RequestMapping("/api/cart")
+@CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*")
+public class CartController {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> createCart() {
+        Map<String, Object> response = cartService.create();
+        response.put("success", true);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping(value = "/{cartId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getCart(@PathVariable String cartId,
+                                                       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return respond(() -> cartService.view(cartId, userId(authorization)));
+    }
+
+    @PostMapping(value = "/{cartId}/items",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> addItem(@PathVariable String cartId,
+                                                       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                       @RequestBody Map<String, Object> request) {
+        return respond(() -> cartService.addItem(cartId, userId(authorization), string(request.get("productId")),
+                string(request.get("size")), quantity(request.getOrDefault("quantity", 1))));
+    }
+
+    @PutMapping(value = "/{cartId}/items",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> setItem(@PathVariable String cartId,
+                                                       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                       @RequestBody Map<String, Object> request) {
+        return respond(() -> cartService.setItem(cartId, userId(authorization), string(request.get("productId")),
+                string(request.get("size")), quantity(request.get("quantity"))));
+    }
+
+    @DeleteMapping(value = "/{cartId}/items", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> removeItem(@PathVariable String cartId,
+                                                          @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                          @RequestParam String productId,
+                                                          @RequestParam(required = false) String size) {
+        return respond(() -> cartService.setItem(cartId, userId(authorization), productId, size, 0));
+    }
+
+    @DeleteMapping(value = "/{cartId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> clearCart(@PathVariable String cartId,
+                                                         @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return respond(() -> {
+            Map<String, Object> response = new HashMap<>();
+            response.put("cartId", cartId);
+            response.put("cleared", cartService.clear(cartId, userId(authorization)));
+            return response;
+        });
+    }
+
+    private ResponseEntity<Map<String, Object>> respond(Supplier<Map<String, Object>> action) {
+        try {
+            Map<String, Object> response = action.get();
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (NoSuchElementException e) {
+            return failure(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return failure(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> failure(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", message);
+        response.put("success", false);
+        return ResponseEntity.status(status).body(response);
+    }
+
+    private Integer userId(String authorization) {
+        return authTokenService.userId(authorization).orElse(null);
+    }
+
+    private static String string(Object value) {
+        return value instanceof String text ? text : null;
+    }
+
+    private static int quantity(Object value) {
+        if (!(value instanceof Integer quantity)) {
+            throw new IllegalArgumentException("quantity must be an integer");
+        }
+        return quantity;
+    }
+}
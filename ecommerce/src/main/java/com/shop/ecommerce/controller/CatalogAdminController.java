@@ -0,0 +1,168 @@
+package com.shop.ecommerce.controller;
+
+import com.shop.ecommerce.catalog.CatalogEntityCache;
+import com.shop.ecommerce.catalog.CatalogImportReport;
+import com.shop.ecommerce.catalog.CatalogSnapshot;
+import com.shop.ecommerce.service.CatalogImportService;
+import com.shop.ecommerce.service.CatalogSnapshotService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+@RestController
+@RequestMapping("/api/admin/catalog")
+public class CatalogAdminController {
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private CatalogEntityCache catalogEntityCache;
+
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getSnapshotStatus() {
+        Map<String, Object> response = new HashMap<>();
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        response.put("enabled", catalogSnapshotService.isEnabled());
+        response.put("maxStaleness", catalogSnapshotService.getMaxStaleness().toString());
+        response.put("loaded", snapshot != null);
+        if (snapshot != null) {
+            putSnapshot(response, snapshot);
+            response.put("stale", catalogSnapshotService.isStale(snapshot));
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/refresh", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> refreshSnapshot() {
+        Map<String, Object> response = new HashMap<>();
+        if (!catalogSnapshotService.isEnabled()) {
+            response.put("message", "Catalog snapshot is disabled");
+            response.put("success", false);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        putSnapshot(response, catalogSnapshotService.rebuild());
+        response.put("message", "Catalog snapshot rebuilt");
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Imports a CSV ({@code text/csv}) or NDJSON ({@code application/x-ndjson}) product feed,
+     * optionally sent with {@code Content-Encoding: gzip}. The body is read as a stream; the
+     * response is the import report once every row has been processed.
+     */
+    @PostMapping(value = "/import",
+            consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE, "application/ndjson"},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> importCatalog(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        CatalogImportService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? CatalogImportService.Format.CSV : CatalogImportService.Format.NDJSON;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        InputStream body = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            body = new GZIPInputStream(body, 64 * 1024);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        CatalogImportReport report;
+        try {
+            report = catalogImportService.importCatalog(new InputStreamReader(body, charset), format);
+        } catch (IllegalStateException e) {
+            response.put("message", e.getMessage());
+            response.put("success", false);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        putReport(response, report);
+        boolean completed = report.getStatus() == CatalogImportReport.Status.COMPLETED;
+        response.put("success", completed);
+        return completed ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
+    }
+
+    /** Progress of the running import, or the result of the last one. */
+    @GetMapping(value = "/import", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getImportStatus() {
+        Map<String, Object> response = new HashMap<>();
+        CatalogImportReport report = catalogImportService.status();
+        if (report == null) {
+            response.put("message", "No catalog import since startup");
+            response.put("success", false);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        putReport(response, report);
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    /** Hit ratio and size of each second-level cache region. */
+    @GetMapping(value = "/cache", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("regions", catalogEntityCache.regionStatistics());
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    /** Empties the second-level cache, e.g. after catalog rows were changed by hand. */
+    @DeleteMapping(value = "/cache", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> evictCache() {
+        catalogEntityCache.evictAll();
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Second-level cache evicted");
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    private void putReport(Map<String, Object> response, CatalogImportReport report) {
+        response.put("status", report.getStatus());
+        response.put("format", report.getFormat());
+        response.put("startedAt", report.getStartedAt().toString());
+        if (report.getFinishedAt() != null) {
+            response.put("finishedAt", report.getFinishedAt().toString());
+        }
+        if (report.getMessage() != null) {
+            response.put("message", report.getMessage());
+        }
+        response.put("rowsRead", report.getRowsRead());
+        response.put("inserted", report.getInserted());
+        response.put("updated", report.getUpdated());
+        response.put("rejected", report.getFailed());
+        response.put("batches", report.getBatches());
+        List<Map<String, Object>> errors = new ArrayList<>();
+        for (CatalogImportReport.RowError error : report.getErrors()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("row", error.getRow());
+            item.put("productId", error.getProductId());
+            item.put("message", error.getMessage());
+            errors.add(item);
+        }
+        response.put("errors", errors);
+        response.put("errorsTruncated", errors.size() < report.getFailed());
+    }
+
+    private void putSnapshot(Map<String, Object> response, CatalogSnapshot snapshot) {
+        response.put("version", snapshot.getVersion());
+        response.put("builtAt", snapshot.getBuiltAt().toString());
+        response.put("products", snapshot.size());
+    }
+}
@@ -1,8 +1,11 @@
 package com.shop.ecommerce.controller;
 
+import com.shop.ecommerce.config.CatalogCacheControl;
 import com.shop.ecommerce.entity.Category;
+import com.shop.ecommerce.service.CatalogResponseCache;
 import com.shop.ecommerce.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
@@ -15,12 +18,20 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @CatalogCacheControl(maxAgeSeconds = 300, varyByEncoding = true)
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> getAllCategories(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogResponseCache.respond("categories", acceptEncoding, () -> {
+            List<Category> categories = categoryService.getAllCategories();
+            return ResponseEntity.ok(categories);
+        });
     }
 
+    @CatalogCacheControl(maxAgeSeconds = 300)
     @GetMapping("/{id}")
     public ResponseEntity<Category> getCategoryById(@PathVariable Integer id) {
         return categoryService.getCategoryById(id)
@@ -28,6 +39,7 @@ public class CategoryController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @CatalogCacheControl(maxAgeSeconds = 300)
     @GetMapping("/search")
     public ResponseEntity<List<Category>> searchCategories(@RequestParam String name) {
         List<Category> categories = categoryService.searchCategories(name);
@@ -0,0 +1,101 @@
+package com.shop.ecommerce.controller;
+
+import com.shop.ecommerce.exception.InsufficientStockException;
+import com.shop.ecommerce.inventory.InventoryLedger;
+import com.shop.ecommerce.service.InventoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Stock availability is public. The reservation endpoints are internal: like {@code /api/admin},
+ * they need the admin key ({@link com.shop.ecommerce.config.AdminAuthInterceptor}), since any
+ * caller could otherwise hold every unit for a reservation TTL or settle someone else's hold.
+ * Shoppers reserve stock only by placing an order.
+ */
+@RestController
+@RequestMapping("/api/inventory")
+@CrossOrigin(origins = "*")
+public class InventoryController {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @GetMapping(value = "/{productId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getAvailability(@PathVariable String productId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("productId", productId);
+            response.put("available", inventoryService.available(productId));
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (NoSuchElementException e) {
+            response.put("message", e.getMessage());
+            response.put("success", false);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    @PostMapping(value = "/reservations",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> reserve(@RequestBody Map<String, Object> request) {
+        Map<String, Object> response = new HashMap<>();
+        Object productId = request.get("productId");
+        Object quantity = request.getOrDefault("quantity", 1);
+        if (!(productId instanceof String) || !(quantity instanceof Integer) || (Integer) quantity <= 0) {
+            response.put("message", "productId and a positive integer quantity are required");
+            response.put("success", false);
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        try {
+            InventoryLedger.Reservation reservation = inventoryService.reserve((String) productId, (Integer) quantity);
+            response.put("message", "Stock reserved");
+            response.put("success", true);
+            response.put("reservationId", reservation.getId());
+            response.put("productId", reservation.getProductId());
+            response.put("quantity", reservation.getQuantity());
+            response.put("expiresAt", Instant.ofEpochMilli(reservation.getExpiresAtMillis()).toString());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (NoSuchElementException e) {
+            response.put("message", e.getMessage());
+            response.put("success", false);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (InsufficientStockException e) {
+            response.put("message", e.getMessage());
+            response.put("success", false);
+            response.put("available", Math.max(e.getAvailable(), 0));
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    @PostMapping(value = "/reservations/{reservationId}/commit", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> commit(@PathVariable long reservationId) {
+        return settled(reservationId, inventoryService.commit(reservationId), "Reservation committed");
+    }
+
+    @DeleteMapping(value = "/reservations/{reservationId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> release(@PathVariable long reservationId) {
+        return settled(reservationId, inventoryService.release(reservationId), "Reservation released");
+    }
+
+    private ResponseEntity<Map<String, Object>> settled(long reservationId, boolean done, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("reservationId", reservationId);
+        response.put("success", done);
+        if (!done) {
+            response.put("message", "Reservation not found, already settled or expired");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("message", message);
+        return ResponseEntity.ok(response);
+    }
+}
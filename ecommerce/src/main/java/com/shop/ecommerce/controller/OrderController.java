@@ -0,0 +1,127 @@
+package com.shop.ecommerce.controller;
+
+import com.shop.ecommerce.cart.CartLine;
+import com.shop.ecommerce.exception.InsufficientStockException;
+import com.shop.ecommerce.service.AuthTokenService;
+import com.shop.ecommerce.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Orders are placed either from a server-side cart ({@code {"cartId": ...}}) or from an
+ * explicit item list ({@code {"items": [{"productId", "size", "quantity"}]}}). Every endpoint
+ * acts for the user of the login token in the {@code Authorization} header; a user id in
+ * the body or query is not trusted.
+ */
+@RestController
+@RequestMapping("/api/orders")
+@CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*")
+public class OrderController {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> placeOrder(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody Map<String, Object> request) {
+        Optional<Integer> user = authTokenService.userId(authorization);
+        if (user.isEmpty()) {
+            return unauthorized();
+        }
+        try {
+            Integer userId = user.get();
+            Map<String, Object> response = request.get("cartId") instanceof String cartId
+                    ? orderService.placeOrderFromCart(cartId, userId)
+                    : orderService.placeOrder(userId, items(request.get("items")));
+            response.put("message", "Order placed");
+            response.put("success", true);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (NoSuchElementException e) {
+            return failure(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return failure(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (InsufficientStockException e) {
+            ResponseEntity<Map<String, Object>> response = failure(HttpStatus.CONFLICT, e.getMessage());
+            response.getBody().put("productId", e.getProductId());
+            return response;
+        }
+    }
+
+    @GetMapping(value = "/{orderId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getOrder(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @PathVariable Long orderId) {
+        Optional<Integer> user = authTokenService.userId(authorization);
+        if (user.isEmpty()) {
+            return unauthorized();
+        }
+        try {
+            Map<String, Object> response = orderService.getOrder(orderId, user.get());
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (NoSuchElementException e) {
+            return failure(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getOrdersForUser(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestParam(defaultValue = "20") int limit) {
+        Optional<Integer> user = authTokenService.userId(authorization);
+        if (user.isEmpty()) {
+            return unauthorized();
+        }
+        if (limit < 1 || limit > 100) {
+            return failure(HttpStatus.BAD_REQUEST, "limit must be between 1 and 100");
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("userId", user.get());
+        response.put("orders", orderService.getOrdersForUser(user.get(), limit));
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    private static ResponseEntity<Map<String, Object>> unauthorized() {
+        return failure(HttpStatus.UNAUTHORIZED, "Sign in to see or place orders");
+    }
+
+    private static ResponseEntity<Map<String, Object>> failure(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", message);
+        response.put("success", false);
+        return ResponseEntity.status(status).body(response);
+    }
+
+    private static List<CartLine> items(Object value) {
+        if (!(value instanceof List<?> list) || list.isEmpty()) {
+            throw new IllegalArgumentException("cartId or a non-empty items list is required");
+        }
+        List<CartLine> lines = new ArrayList<>(list.size());
+        for (Object element : list) {
+            if (!(element instanceof Map<?, ?> item)
+                    || !(item.get("productId") instanceof String productId)
+                    || !(item.get("quantity") instanceof Integer quantity)) {
+                throw new IllegalArgumentException("Each item needs a productId and an integer quantity");
+            }
+            String size = item.get("size") instanceof String text ? text.trim() : "";
+            lines.add(new CartLine(productId.trim(), size, quantity));
+        }
+        return lines;
+    }
+}
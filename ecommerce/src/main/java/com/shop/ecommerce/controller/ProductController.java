@@ -1,27 +1,60 @@
 package com.shop.ecommerce.controller;
 
+import com.shop.ecommerce.catalog.BrowseQuery;
+import com.shop.ecommerce.config.CatalogCacheControl;
+import com.shop.ecommerce.dto.BrowseResult;
+import com.shop.ecommerce.dto.ProductBatch;
 import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.dto.ProductPage;
+import com.shop.ecommerce.service.CatalogResponseCache;
+import com.shop.ecommerce.service.ProductExportService;
 import com.shop.ecommerce.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "http://localhost:3000")
 public class ProductController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @CatalogCacheControl(maxAgeSeconds = 30)
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
+    public ResponseEntity<List<ProductDTO>> getAllProducts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (isPaged(limit, cursor)) {
+            return page(productService.getAllProducts(cursor, limit));
+        }
         List<ProductDTO> products = productService.getAllProducts();
         return ResponseEntity.ok(products);
     }
 
+    @CatalogCacheControl(maxAgeSeconds = 60)
     @GetMapping("/{id}")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable String id) {
         return productService.getProductById(id)
@@ -29,59 +62,205 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Details for many known products at once (cart, wishlist, order history).
+    @PostMapping(value = "/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getProductsBatch(@RequestBody Map<String, Object> request) {
+        if (!(request.get("productIds") instanceof List<?> ids)) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "productIds must be a list of product ids");
+            response.put("success", false);
+            return ResponseEntity.badRequest().body(response);
+        }
+        ProductBatch batch = productService.getProductsByIds(ids.stream().filter(Objects::nonNull).map(String::valueOf).toList());
+        return ResponseEntity.ok(batch);
+    }
+
+    @CatalogCacheControl(maxAgeSeconds = 60)
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatch> getProductsBatch(@RequestParam String ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(Arrays.asList(ids.split(","))));
+    }
+
+    @CatalogCacheControl(maxAgeSeconds = 30)
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable Integer categoryId) {
+    public ResponseEntity<List<ProductDTO>> getProductsByCategory(
+            @PathVariable Integer categoryId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (isPaged(limit, cursor)) {
+            return page(productService.getProductsByCategory(categoryId, cursor, limit));
+        }
         List<ProductDTO> products = productService.getProductsByCategory(categoryId);
         return ResponseEntity.ok(products);
     }
 
+    // Full catalog for feed jobs, one JSON object per line, gzipped when the client accepts it.
+    @CatalogCacheControl(varyByEncoding = true)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = CatalogResponseCache.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024)) {
+                    productExportService.exportNdjson(compressed);
+                }
+            } else {
+                productExportService.exportNdjson(out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @CatalogCacheControl(maxAgeSeconds = 30)
+    @GetMapping("/browse")
+    public ResponseEntity<?> browseProducts(
+            @RequestParam(required = false) List<Integer> categoryId,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) List<String> size,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        BrowseQuery query = new BrowseQuery(categoryId, brand, size, minPrice, maxPrice, inStock);
+        Optional<BrowseResult> result = productService.browseProducts(query, cursor, limit);
+        if (result.isPresent()) {
+            return ResponseEntity.ok(result.get());
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Catalog is still loading, please retry shortly");
+        response.put("success", false);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .cacheControl(CacheControl.noStore())
+                .body(response);
+    }
+
+    @CatalogCacheControl(maxAgeSeconds = 30)
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String name) {
-        List<ProductDTO> products = productService.searchProducts(name);
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+            @RequestParam String name,
+            @RequestParam(required = false) Integer limit) {
+        List<ProductDTO> products = productService.searchProducts(name, limit);
         return ResponseEntity.ok(products);
     }
 
+    @CatalogCacheControl(maxAgeSeconds = 30)
     @GetMapping("/brand/{brand}")
-    public ResponseEntity<List<ProductDTO>> getProductsByBrand(@PathVariable String brand) {
+    public ResponseEntity<List<ProductDTO>> getProductsByBrand(
+            @PathVariable String brand,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (isPaged(limit, cursor)) {
+            return page(productService.getProductsByBrand(brand, cursor, limit));
+        }
         List<ProductDTO> products = productService.getProductsByBrand(brand);
         return ResponseEntity.ok(products);
     }
 
+    @CatalogCacheControl(maxAgeSeconds = 30)
     @GetMapping("/price-range")
     public ResponseEntity<List<ProductDTO>> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
-        List<ProductDTO> products = productService.getProductsByPriceRange(minPrice, maxPrice);
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (isPaged(limit, cursor)) {
+            return page(productService.getProductsByPriceRange(minPrice, maxPrice, categoryId, inStock, cursor, limit));
+        }
+        List<ProductDTO> products = productService.getProductsByPriceRange(minPrice, maxPrice, categoryId, inStock);
         return ResponseEntity.ok(products);
     }
 
+    @CatalogCacheControl(maxAgeSeconds = 30, varyByEncoding = true)
     @GetMapping("/discounted")
-    public ResponseEntity<List<ProductDTO>> getDiscountedProducts() {
-        List<ProductDTO> products = productService.getDiscountedProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getDiscountedProducts(
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String key = "products/discounted?categoryId=" + categoryId + "&limit=" + limit + "&cursor=" + cursor;
+        return catalogResponseCache.respond(key, acceptEncoding, () -> {
+            if (isPaged(limit, cursor)) {
+                return page(productService.getDiscountedProducts(categoryId, cursor, limit));
+            }
+            List<ProductDTO> products = productService.getDiscountedProducts(categoryId);
+            return ResponseEntity.ok(products);
+        });
     }
 
+    @CatalogCacheControl(maxAgeSeconds = 30, varyByEncoding = true)
     @GetMapping("/available")
-    public ResponseEntity<List<ProductDTO>> getAvailableProducts() {
-        List<ProductDTO> products = productService.getAvailableProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getAvailableProducts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogResponseCache.respond("products/available?limit=" + limit + "&cursor=" + cursor, acceptEncoding, () -> {
+            if (isPaged(limit, cursor)) {
+                return page(productService.getAvailableProducts(cursor, limit));
+            }
+            List<ProductDTO> products = productService.getAvailableProducts();
+            return ResponseEntity.ok(products);
+        });
     }
 
+    @CatalogCacheControl(maxAgeSeconds = 30, varyByEncoding = true)
     @GetMapping("/latest")
-    public ResponseEntity<List<ProductDTO>> getLatestProducts() {
-        List<ProductDTO> products = productService.getLatestProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getLatestProducts(
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String key = "products/latest?categoryId=" + categoryId + "&limit=" + limit + "&cursor=" + cursor;
+        return catalogResponseCache.respond(key, acceptEncoding, () -> {
+            if (isPaged(limit, cursor)) {
+                return page(productService.getLatestProducts(categoryId, cursor, limit));
+            }
+            List<ProductDTO> products = productService.getLatestProducts(categoryId);
+            return ResponseEntity.ok(products);
+        });
     }
 
+    @CatalogCacheControl(maxAgeSeconds = 300, varyByEncoding = true)
     @GetMapping("/brands")
-    public ResponseEntity<List<String>> getAllBrands() {
-        List<String> brands = productService.getAllBrands();
-        return ResponseEntity.ok(brands);
+    public ResponseEntity<byte[]> getAllBrands(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogResponseCache.respond("products/brands", acceptEncoding, () -> {
+            List<String> brands = productService.getAllBrands();
+            return ResponseEntity.ok(brands);
+        });
     }
 
+    @CatalogCacheControl(maxAgeSeconds = 300, varyByEncoding = true)
     @GetMapping("/sizes")
-    public ResponseEntity<List<String>> getAllSizes() {
-        List<String> sizes = productService.getAllSizes();
-        return ResponseEntity.ok(sizes);
+    public ResponseEntity<byte[]> getAllSizes(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogResponseCache.respond("products/sizes", acceptEncoding, () -> {
+            List<String> sizes = productService.getAllSizes();
+            return ResponseEntity.ok(sizes);
+        });
+    }
+
+    private static boolean isPaged(Integer limit, String cursor) {
+        return limit != null || cursor != null;
+    }
+
+    // Paged responses keep the plain list body; the continuation travels in a header.
+    private static ResponseEntity<List<ProductDTO>> page(ProductPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 }
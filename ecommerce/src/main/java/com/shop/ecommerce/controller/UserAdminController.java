@@ -0,0 +1,56 @@
+package com.shop.ecommerce.controller;
+
+import com.shop.ecommerce.service.EmailExistenceService;
+import com.shop.ecommerce.user.EmailBloomFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/users")
+public class UserAdminController {
+
+    @Autowired
+    private EmailExistenceService emailExistenceService;
+
+    @GetMapping(value = "/email-filter", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getEmailFilterStatus() {
+        Map<String, Object> response = new HashMap<>();
+        EmailBloomFilter filter = emailExistenceService.currentFilter();
+        response.put("enabled", emailExistenceService.isEnabled());
+        response.put("loaded", filter != null);
+        response.put("cachedPositives", emailExistenceService.cachedPositives());
+        if (filter != null) {
+            putFilter(response, filter);
+            response.put("builtAt", emailExistenceService.getBuiltAt().toString());
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/email-filter/rebuild", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> rebuildEmailFilter() {
+        Map<String, Object> response = new HashMap<>();
+        if (!emailExistenceService.isEnabled()) {
+            response.put("message", "Email filter is disabled");
+            response.put("success", false);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        putFilter(response, emailExistenceService.rebuild());
+        response.put("message", "Email filter rebuilt");
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    private void putFilter(Map<String, Object> response, EmailBloomFilter filter) {
+        response.put("emails", filter.getInsertions());
+        response.put("capacity", filter.getCapacity());
+        response.put("bits", filter.getBitSize());
+        response.put("hashFunctions", filter.getHashFunctions());
+        response.put("expectedFpp", filter.expectedFpp());
+    }
+}
@@ -1,7 +1,12 @@
 package com.shop.ecommerce.controller;
 
+import com.shop.ecommerce.audit.AuthEventLog;
+import com.shop.ecommerce.audit.AuthEventType;
 import com.shop.ecommerce.entity.User;
 import com.shop.ecommerce.repository.UserRepository;
+import com.shop.ecommerce.service.EmailExistenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -19,16 +24,23 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class UserController {
 
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EmailExistenceService emailExistenceService;
+
+    @Autowired
+    private AuthEventLog authEventLog;
+
     @GetMapping(value = "/test", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, Object>> test() {
         Map<String, Object> response = new HashMap<>();
         response.put("message", "User controller is working!");
         response.put("success", true);
         response.put("timestamp", LocalDateTime.now().toString());
-        System.out.println("✅ User Test endpoint called successfully");
         return ResponseEntity.ok(response);
     }
 
@@ -37,7 +49,7 @@ public class UserController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            System.out.println("👥 Getting all users");
+            authEventLog.publish(AuthEventType.USER_LOOKUP, null, null, "list");
             List<User> users = userRepository.findAll();
 
             List<Map<String, Object>> userList = users.stream()
@@ -51,8 +63,8 @@ public class UserController {
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            System.err.println("❌ Error getting all users: " + e.getMessage());
-            e.printStackTrace();
+            authEventLog.publishError(AuthEventType.USER_LOOKUP_ERROR, null, e);
+            log.error("Listing users failed", e);
             response.put("message", "Failed to retrieve users: " + e.getMessage());
             response.put("success", false);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -64,7 +76,7 @@ public class UserController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            System.out.println("👤 Getting user by ID: " + id);
+            authEventLog.publish(AuthEventType.USER_LOOKUP, id, null, "by_id");
             Optional<User> userOptional = userRepository.findById(id);
 
             if (userOptional.isPresent()) {
@@ -80,8 +92,8 @@ public class UserController {
             }
 
         } catch (Exception e) {
-            System.err.println("❌ Error getting user by ID: " + e.getMessage());
-            e.printStackTrace();
+            authEventLog.publishError(AuthEventType.USER_LOOKUP_ERROR, null, e);
+            log.error("User lookup by id failed", e);
             response.put("message", "Failed to retrieve user: " + e.getMessage());
             response.put("success", false);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -93,7 +105,7 @@ public class UserController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            System.out.println("📧 Getting user by email: " + email);
+            authEventLog.publish(AuthEventType.USER_LOOKUP, null, email, "by_email");
             Optional<User> userOptional = userRepository.findByEmail(email);
 
             if (userOptional.isPresent()) {
@@ -109,8 +121,8 @@ public class UserController {
             }
 
         } catch (Exception e) {
-            System.err.println("❌ Error getting user by email: " + e.getMessage());
-            e.printStackTrace();
+            authEventLog.publishError(AuthEventType.USER_LOOKUP_ERROR, email, e);
+            log.error("User lookup by email failed", e);
             response.put("message", "Failed to retrieve user: " + e.getMessage());
             response.put("success", false);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -122,7 +134,7 @@ public class UserController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            System.out.println("🔍 Searching users by name: " + name);
+            authEventLog.publish(AuthEventType.USER_LOOKUP, null, null, "search");
             List<User> users = userRepository.findByNameContaining(name);
 
             List<Map<String, Object>> userList = users.stream()
@@ -137,8 +149,8 @@ public class UserController {
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            System.err.println("❌ Error searching users: " + e.getMessage());
-            e.printStackTrace();
+            authEventLog.publishError(AuthEventType.USER_LOOKUP_ERROR, null, e);
+            log.error("User search failed", e);
             response.put("message", "Failed to search users: " + e.getMessage());
             response.put("success", false);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -150,8 +162,8 @@ public class UserController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            System.out.println("🔍 Checking if email exists: " + email);
-            boolean exists = userRepository.existsByEmail(email);
+            boolean exists = emailExistenceService.exists(email);
+            authEventLog.publish(AuthEventType.EMAIL_CHECKED, null, email, exists ? "exists" : "available");
 
             response.put("message", exists ? "Email exists" : "Email available");
             response.put("success", true);
@@ -160,8 +172,8 @@ public class UserController {
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            System.err.println("❌ Error checking email existence: " + e.getMessage());
-            e.printStackTrace();
+            authEventLog.publishError(AuthEventType.EMAIL_CHECK_ERROR, email, e);
+            log.error("Email check failed", e);
             response.put("message", "Failed to check email: " + e.getMessage());
             response.put("success", false);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
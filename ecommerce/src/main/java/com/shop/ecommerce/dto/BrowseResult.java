@@ -0,0 +1,34 @@
+package com.shop.ecommerce.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class BrowseResult {
+    private List<ProductDTO> items;
+    private String nextCursor;
+    private int total;
+    private Map<String, List<FacetCount>> facets;
+
+    
+    public BrowseResult() {}
+
+    public BrowseResult(List<ProductDTO> items, String nextCursor, int total, Map<String, List<FacetCount>> facets) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.total = total;
+        this.facets = facets;
+    }
+
+    
+    public List<ProductDTO> getItems() { return items; }
+    public void setItems(List<ProductDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public Map<String, List<FacetCount>> getFacets() { return facets; }
+    public void setFacets(Map<String, List<FacetCount>> facets) { this.facets = facets; }
+}
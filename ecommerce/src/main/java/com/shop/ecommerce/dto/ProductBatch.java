@@ -0,0 +1,23 @@
+package com.shop.ecommerce.dto;
+
+import java.util.List;
+
+public class ProductBatch {
+    private List<ProductDTO> products;
+    private List<String> missingIds;
+
+    
+    public ProductBatch() {}
+
+    public ProductBatch(List<ProductDTO> products, List<String> missingIds) {
+        this.products = products;
+        this.missingIds = missingIds;
+    }
+
+    
+    public List<ProductDTO> getProducts() { return products; }
+    public void setProducts(List<ProductDTO> products) { this.products = products; }
+
+    public List<String> getMissingIds() { return missingIds; }
+    public void setMissingIds(List<String> missingIds) { this.missingIds = missingIds; }
+}
@@ -0,0 +1,23 @@
+package com.shop.ecommerce.dto;
+
+import java.util.List;
+
+public class ProductPage {
+    private List<ProductDTO> items;
+    private String nextCursor;
+
+    
+    public ProductPage() {}
+
+    public ProductPage(List<ProductDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    
+    public List<ProductDTO> getItems() { return items; }
+    public void setItems(List<ProductDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
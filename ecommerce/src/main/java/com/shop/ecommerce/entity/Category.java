@@ -1,10 +1,16 @@
 package com.shop.ecommerce.entity;
 
+import com.shop.ecommerce.catalog.CatalogChangeListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.categories")
+@EntityListeners(CatalogChangeListener.class)
 @Table(name = "categories")
 public class Category {
     @Id
@@ -1,8 +1,14 @@
 package com.shop.ecommerce.entity;
 
+import com.shop.ecommerce.catalog.CatalogChangeListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.offers")
+@EntityListeners(CatalogChangeListener.class)
 @Table(name = "offers")
 public class Offer {
     @Id
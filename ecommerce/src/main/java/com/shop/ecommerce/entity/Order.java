@@ -0,0 +1,72 @@
+package com.shop.ecommerce.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "orders")
+public class Order {
+    // Assigned by OrderWriter from id_sequences blocks before the insert, so inserts can be
+    // batched; an IDENTITY column would make Hibernate insert every order on its own to read
+    // the key back.
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status = "PLACED";
+
+    @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @OrderBy("lineId")
+    private List<OrderLine> lines = new ArrayList<>();
+
+
+    public Order() {}
+
+    public Order(Integer userId, LocalDateTime createdAt) {
+        this.userId = userId;
+        this.createdAt = createdAt;
+        this.totalAmount = BigDecimal.ZERO;
+    }
+
+    /** Adds the line and its amount to the order total. */
+    public void addLine(OrderLine line) {
+        line.setOrder(this);
+        lines.add(line);
+        totalAmount = totalAmount.add(line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+    }
+
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public Integer getUserId() { return userId; }
+    public void setUserId(Integer userId) { this.userId = userId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public List<OrderLine> getLines() { return lines; }
+    public void setLines(List<OrderLine> lines) { this.lines = lines; }
+}
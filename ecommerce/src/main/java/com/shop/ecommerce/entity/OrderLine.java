@@ -0,0 +1,65 @@
+package com.shop.ecommerce.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "order_lines")
+public class OrderLine {
+    // Assigned by OrderWriter, like Order.orderId.
+    @Id
+    @Column(name = "line_id")
+    private Long lineId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    // Kept as the plain key: an order line must not load or lock the product.
+    @Column(name = "product_id", nullable = false, length = 10)
+    private String productId;
+
+    @Column(name = "size", length = 10)
+    private String size;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+
+    // Set with the stock update that sells the line; see InventoryService.
+    @Column(name = "stock_committed", nullable = false)
+    private boolean stockCommitted;
+
+
+    public OrderLine() {}
+
+    public OrderLine(String productId, String size, Integer quantity, BigDecimal unitPrice) {
+        this.productId = productId;
+        this.size = size;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+
+
+    public Long getLineId() { return lineId; }
+    public void setLineId(Long lineId) { this.lineId = lineId; }
+
+    public Order getOrder() { return order; }
+    public void setOrder(Order order) { this.order = order; }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public String getSize() { return size; }
+    public void setSize(String size) { this.size = size; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public BigDecimal getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
+
+    public boolean isStockCommitted() { return stockCommitted; }
+}
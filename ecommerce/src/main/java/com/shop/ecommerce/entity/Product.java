@@ -1,11 +1,21 @@
 package com.shop.ecommerce.entity;
 
+import com.shop.ecommerce.catalog.CatalogChangeListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+// Second-level cached, as are sizes and offers. Writes that bypass JPA evict the
+// entries they touch through CatalogEntityCache.
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.products")
+@EntityListeners(CatalogChangeListener.class)
 @Table(name = "products")
 public class Product {
     @Id
@@ -43,10 +53,16 @@ public class Product {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Subselect fetching loads the collection for every product returned by the
+    // originating query in one statement instead of one statement per product.
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.products.sizes")
     private List<ProductSize> sizes;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.products.offers")
     private List<Offer> offers;
 
     
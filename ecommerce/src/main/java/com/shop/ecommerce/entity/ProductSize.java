@@ -1,8 +1,14 @@
 package com.shop.ecommerce.entity;
 
+import com.shop.ecommerce.catalog.CatalogChangeListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.product-sizes")
+@EntityListeners(CatalogChangeListener.class)
 @Table(name = "product_sizes")
 public class ProductSize {
     @Id
@@ -0,0 +1,25 @@
+package com.shop.ecommerce.exception;
+
+/**
+ * Thrown when a reservation asks for more units than are left unreserved. Mapped to
+ * {@code 409 Conflict}.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final String productId;
+    private final long available;
+
+    public InsufficientStockException(String productId, int requested, long available) {
+        super("Only " + Math.max(available, 0) + " of product " + productId + " left, " + requested + " requested");
+        this.productId = productId;
+        this.available = available;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public long getAvailable() {
+        return available;
+    }
+}
@@ -0,0 +1,21 @@
+package com.shop.ecommerce.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when work is shed because a bounded resource is saturated. Mapped to
+ * {@code 503 Service Unavailable} with a {@code Retry-After} header.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceBusyException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,188 @@
+package com.shop.ecommerce.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only record of committed stock changes that have not reached the database yet.
+ * Each line is {@code seq<TAB>productId<TAB>delta}, followed by {@code <TAB>lineId} when the
+ * change sells an order line; sequence numbers only grow, so the database can remember the
+ * last one it applied and recovery replays only what follows.
+ * <p>
+ * Entries go to numbered segment files. {@link #roll()} starts a new segment, and segments
+ * are deleted once everything in them is known to be in the database. A new segment is
+ * opened after every restart, so a line torn by a crash is never appended to. Not
+ * thread-safe: {@link InventoryLedger} serialises all calls.
+ */
+public class InventoryJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryJournal.class);
+
+    private static final String PREFIX = "inventory-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final boolean sync;
+
+    private FileChannel channel;
+    private long segment;
+    private long lastSeq;
+
+    /**
+     * @param sync when true every append reaches the disk before returning; otherwise it
+     *             only reaches the operating system, which survives a process crash
+     */
+    public InventoryJournal(Path directory, boolean sync) throws IOException {
+        this.directory = directory;
+        this.sync = sync;
+        Files.createDirectories(directory);
+        List<Long> existing = segments();
+        segment = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+    }
+
+    /**
+     * Replays every entry after {@code appliedSeq} in order and returns how many there
+     * were. New entries are numbered after both the replayed ones and {@code appliedSeq}.
+     */
+    public int replay(long appliedSeq, EntryConsumer consumer) throws IOException {
+        int replayed = 0;
+        lastSeq = Math.max(lastSeq, appliedSeq);
+        for (long number : segments()) {
+            try (BufferedReader reader = Files.newBufferedReader(path(number), StandardCharsets.US_ASCII)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t");
+                    long seq;
+                    long delta;
+                    long lineId;
+                    try {
+                        if (fields.length != 3 && fields.length != 4) {
+                            throw new NumberFormatException();
+                        }
+                        seq = Long.parseLong(fields[0]);
+                        delta = Long.parseLong(fields[2]);
+                        lineId = fields.length == 4 ? Long.parseLong(fields[3]) : 0;
+                    } catch (NumberFormatException e) {
+                        // Only the last line of a segment can be torn by a crash; it was never acknowledged.
+                        log.warn("Skipping unreadable inventory journal line in {}: {}", path(number), line);
+                        continue;
+                    }
+                    lastSeq = Math.max(lastSeq, seq);
+                    if (seq > appliedSeq) {
+                        consumer.accept(fields[1], delta, lineId);
+                        replayed++;
+                    }
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /** Appends one entry and returns its sequence number. */
+    public long append(String productId, long delta) {
+        return append(productId, delta, 0);
+    }
+
+    /** Appends one entry for order line {@code lineId}, or for none when it is 0. */
+    public long append(String productId, long delta, long lineId) {
+        long seq = lastSeq + 1;
+        String entry = seq + "\t" + productId + "\t" + delta + (lineId != 0 ? "\t" + lineId : "");
+        byte[] line = (entry + "\n").getBytes(StandardCharsets.US_ASCII);
+        try {
+            if (channel == null) {
+                open();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the inventory journal", e);
+        }
+        lastSeq = seq;
+        return seq;
+    }
+
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Closes the current segment so later entries go to a new one, and returns the number
+     * of the closed segment for {@link #deleteThrough}.
+     */
+    public long roll() throws IOException {
+        long closed = segment;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        return closed;
+    }
+
+    /** Deletes segment {@code number} and every older one. */
+    public void deleteThrough(long number) throws IOException {
+        for (long existing : segments()) {
+            if (existing <= number && existing != segmentInUse()) {
+                Files.deleteIfExists(path(existing));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void open() throws IOException {
+        segment++;
+        List<OpenOption> options = new ArrayList<>(List.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND));
+        if (sync) {
+            options.add(StandardOpenOption.DSYNC);
+        }
+        channel = FileChannel.open(path(segment), options.toArray(OpenOption[]::new));
+    }
+
+    private long segmentInUse() {
+        return channel != null ? segment : -1;
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path path(long number) {
+        return directory.resolve(PREFIX + String.format("%010d", number) + SUFFIX);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /** {@code lineId} is 0 for entries that belong to no order line. */
+        void accept(String productId, long delta, long lineId);
+    }
+}
@@ -0,0 +1,357 @@
+package com.shop.ecommerce.inventory;
+
+import com.shop.ecommerce.exception.InsufficientStockException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory stock ledger. Each product's unreserved count is one atomic value, so a
+ * reservation is a compare-and-set and never waits on a lock or the database, however
+ * many buyers hit the same product. A product's stock is loaded on first use and from
+ * then on this ledger is its source of truth.
+ * <p>
+ * A reservation holds units until it is committed, released or its TTL runs out.
+ * Commits are the only changes the database must see: each one is appended to the
+ * {@link InventoryJournal} and summed per product until {@link #drain()} hands the net
+ * deltas to the write-behind flush. Holds are not journaled; after a restart they are
+ * simply gone, as if they had expired.
+ * <p>
+ * A commit may name the order line it sells. The line is journaled with it and reported
+ * by the drain that covers it, so the database can record which lines it has applied;
+ * {@link #commitLine} sells a line whose hold was lost, at most once per drain.
+ */
+public class InventoryLedger {
+
+    private final ConcurrentHashMap<String, Sku> skus = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Reservation> reservations = new ConcurrentHashMap<>();
+    private final AtomicLong reservationIds = new AtomicLong();
+    private final Function<String, Integer> stockLoader;
+    private final InventoryJournal journal;
+    private final LongSupplier clock;
+
+    // Guarded by the journal, as are Sku.unflushed and Sku.dirty
+    private final List<Sku> dirty = new ArrayList<>();
+    private final Set<Long> unflushedLines = new HashSet<>();
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * @param stockLoader returns a product's stock as stored in the database, or
+     *                    {@code null} when there is no such product
+     */
+    public InventoryLedger(Function<String, Integer> stockLoader, InventoryJournal journal) {
+        this(stockLoader, journal, System::currentTimeMillis);
+    }
+
+    InventoryLedger(Function<String, Integer> stockLoader, InventoryJournal journal, LongSupplier clock) {
+        this.stockLoader = stockLoader;
+        this.journal = journal;
+        this.clock = clock;
+    }
+
+    /**
+     * Holds {@code quantity} units of a product for {@code ttl}.
+     *
+     * @throws InsufficientStockException when fewer units are unreserved
+     * @throws NoSuchElementException     when the product does not exist
+     */
+    public Reservation reserve(String productId, int quantity, Duration ttl) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Sku sku = sku(productId);
+        long available;
+        do {
+            available = sku.available.get();
+            if (available < quantity) {
+                rejected.increment();
+                throw new InsufficientStockException(productId, quantity, available);
+            }
+        } while (!sku.available.compareAndSet(available, available - quantity));
+
+        Reservation reservation = new Reservation(reservationIds.incrementAndGet(), productId, quantity,
+                clock.getAsLong() + ttl.toMillis());
+        reservations.put(reservation.getId(), reservation);
+        reserved.increment();
+        return reservation;
+    }
+
+    /** Returns the held units. False when the reservation is unknown, committed or expired. */
+    public boolean release(long reservationId) {
+        Reservation reservation = reservations.remove(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+        skus.get(reservation.getProductId()).available.addAndGet(reservation.getQuantity());
+        released.increment();
+        return true;
+    }
+
+    /**
+     * Turns the hold into a sale that will be written to the database. False when the
+     * reservation is unknown, already settled or past its TTL; an expired hold is released.
+     */
+    public boolean commit(long reservationId) {
+        return commit(reservationId, 0);
+    }
+
+    /** Like {@link #commit(long)}, recording the sale for order line {@code lineId}. */
+    public boolean commit(long reservationId, long lineId) {
+        Reservation reservation = reservations.remove(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+        Sku sku = skus.get(reservation.getProductId());
+        synchronized (journal) {
+            // Checked under the lock: once a hold has expired, commitLine may sell its line.
+            if (reservation.isExpired(clock.getAsLong())) {
+                sku.available.addAndGet(reservation.getQuantity());
+                expired.increment();
+                return false;
+            }
+            try {
+                journal.append(reservation.getProductId(), -reservation.getQuantity(), lineId);
+            } catch (UncheckedIOException e) {
+                // Not recorded, so not sold: the caller may retry until the hold expires.
+                reservations.put(reservationId, reservation);
+                throw e;
+            }
+            sku.unflushed -= reservation.getQuantity();
+            markDirty(sku);
+            if (lineId != 0) {
+                unflushedLines.add(lineId);
+            }
+        }
+        committed.increment();
+        return true;
+    }
+
+    /**
+     * Sells order line {@code lineId} without a hold, for a line whose hold expired or was
+     * lost before it was committed. The units are taken even if that leaves the product
+     * short. False when the line was already sold since the last drain.
+     *
+     * @throws NoSuchElementException when the product does not exist
+     */
+    public boolean commitLine(long lineId, String productId, int quantity) {
+        Sku sku = sku(productId);
+        synchronized (journal) {
+            if (unflushedLines.contains(lineId)) {
+                return false;
+            }
+            journal.append(productId, -quantity, lineId);
+            sku.available.addAndGet(-quantity);
+            sku.unflushed -= quantity;
+            markDirty(sku);
+            unflushedLines.add(lineId);
+        }
+        committed.increment();
+        return true;
+    }
+
+    /** Releases every hold past its TTL and returns how many there were. */
+    public int expire() {
+        long now = clock.getAsLong();
+        int count = 0;
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.isExpired(now) && reservations.remove(reservation.getId(), reservation)) {
+                skus.get(reservation.getProductId()).available.addAndGet(reservation.getQuantity());
+                count++;
+            }
+        }
+        expired.add(count);
+        return count;
+    }
+
+    /** Units that can still be reserved. */
+    public long available(String productId) {
+        return sku(productId).available.get();
+    }
+
+    /**
+     * Moves a product's unreserved count by {@code delta} after its stock was changed in
+     * the database directly, e.g. by a catalog import. Not journaled: the database already
+     * holds the change. Products not loaded yet will read the new stock when first used.
+     */
+    public void restock(String productId, long delta) {
+        Sku sku = skus.get(productId);
+        if (sku != null) {
+            sku.available.addAndGet(delta);
+        }
+    }
+
+    public int activeReservations() {
+        return reservations.size();
+    }
+
+    /**
+     * Takes the net committed delta of every product changed since the last drain and
+     * starts a new journal segment. The result must be either written with its
+     * {@link Flush#getThroughSeq() sequence number} or handed back to {@link #restore}.
+     */
+    public Flush drain() throws IOException {
+        synchronized (journal) {
+            Map<String, Long> deltas = new HashMap<>();
+            for (Sku sku : dirty) {
+                if (sku.unflushed != 0) {
+                    deltas.put(sku.productId, sku.unflushed);
+                }
+                sku.unflushed = 0;
+                sku.dirty = false;
+            }
+            dirty.clear();
+            Set<Long> lineIds = new HashSet<>(unflushedLines);
+            unflushedLines.clear();
+            return new Flush(deltas, lineIds, journal.lastSeq(), journal.roll());
+        }
+    }
+
+    /** Puts back the deltas of a drain that could not be written. */
+    public void restore(Flush flush) {
+        synchronized (journal) {
+            flush.getDeltas().forEach((productId, delta) -> {
+                Sku sku = skus.get(productId);
+                sku.unflushed += delta;
+                markDirty(sku);
+            });
+            unflushedLines.addAll(flush.getLineIds());
+        }
+    }
+
+    /**
+     * Collects the journaled commits after {@code appliedSeq} into a flush. Call before
+     * any product is loaded, so the stock read from the database already includes them.
+     */
+    public Flush recover(long appliedSeq) throws IOException {
+        synchronized (journal) {
+            Map<String, Long> deltas = new HashMap<>();
+            Set<Long> lineIds = new HashSet<>();
+            journal.replay(appliedSeq, (productId, delta, lineId) -> {
+                deltas.merge(productId, delta, Long::sum);
+                if (lineId != 0) {
+                    lineIds.add(lineId);
+                }
+            });
+            deltas.values().removeIf(delta -> delta == 0);
+            return new Flush(deltas, lineIds, journal.lastSeq(), journal.roll());
+        }
+    }
+
+    public long reservedCount() {
+        return reserved.sum();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public long releasedCount() {
+        return released.sum();
+    }
+
+    public long committedCount() {
+        return committed.sum();
+    }
+
+    public long expiredCount() {
+        return expired.sum();
+    }
+
+    private Sku sku(String productId) {
+        Sku sku = skus.get(productId);
+        if (sku == null) {
+            sku = skus.computeIfAbsent(productId, id -> {
+                Integer stock = stockLoader.apply(id);
+                return stock != null ? new Sku(id, stock) : null;
+            });
+            if (sku == null) {
+                throw new NoSuchElementException("Product not found: " + productId);
+            }
+        }
+        return sku;
+    }
+
+    private void markDirty(Sku sku) {
+        if (!sku.dirty) {
+            sku.dirty = true;
+            dirty.add(sku);
+        }
+    }
+
+    private static final class Sku {
+        final String productId;
+        final AtomicLong available;
+        long unflushed;
+        boolean dirty;
+
+        Sku(String productId, long stock) {
+            this.productId = productId;
+            this.available = new AtomicLong(stock);
+        }
+    }
+
+    public static final class Reservation {
+        private final long id;
+        private final String productId;
+        private final int quantity;
+        private final long expiresAtMillis;
+
+        Reservation(long id, String productId, int quantity, long expiresAtMillis) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public long getId() { return id; }
+        public String getProductId() { return productId; }
+        public int getQuantity() { return quantity; }
+        public long getExpiresAtMillis() { return expiresAtMillis; }
+
+        boolean isExpired(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+
+    /**
+     * Net stock changes per product and the order lines they sell, covering journal entries
+     * up to {@code throughSeq}.
+     */
+    public static final class Flush {
+        private final Map<String, Long> deltas;
+        private final Set<Long> lineIds;
+        private final long throughSeq;
+        private final long segment;
+
+        Flush(Map<String, Long> deltas, Set<Long> lineIds, long throughSeq, long segment) {
+            this.deltas = deltas;
+            this.lineIds = lineIds;
+            this.throughSeq = throughSeq;
+            this.segment = segment;
+        }
+
+        public Map<String, Long> getDeltas() { return deltas; }
+        public Set<Long> getLineIds() { return lineIds; }
+        public long getThroughSeq() { return throughSeq; }
+        /** Last journal segment this flush covers. */
+        public long getSegment() { return segment; }
+    }
+}
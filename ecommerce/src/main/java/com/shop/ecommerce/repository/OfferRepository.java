@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +13,9 @@ public interface OfferRepository extends JpaRepository<Offer, Integer> {
 
     @Query("SELECT o FROM Offer o WHERE o.product.productId = :productId")
     List<Offer> findByProductId(@Param("productId") String productId);
+
+    // [productId, offerDescription] pairs, in insertion order.
+    @Query("SELECT o.product.productId, o.offerDescription FROM Offer o " +
+            "WHERE o.product.productId IN :productIds ORDER BY o.offerId")
+    List<Object[]> findDescriptionsByProductIdIn(@Param("productIds") Collection<String> productIds);
 }
@@ -0,0 +1,15 @@
+package com.shop.ecommerce.repository;
+
+import com.shop.ecommerce.entity.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+
+@Repository
+@Transactional(readOnly = true)
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    List<Order> findByUserIdOrderByOrderIdDesc(Integer userId, Limit limit);
+}
@@ -1,37 +1,172 @@
 package com.shop.ecommerce.repository;
 
 import com.shop.ecommerce.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface ProductRepository extends JpaRepository<Product, String> {
 
+    // List reads join the category in the same statement; sizes and offers are
+    // loaded by subselect (see Product), so each list costs a fixed 3 statements.
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(String productId);
+
+    // Cached queries keep the ids of the result; the rows come from the entity cache.
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.category.categoryId = :categoryId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries")
+    })
     List<Product> findByCategoryId(@Param("categoryId") Integer categoryId);
 
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.productName LIKE %:name% OR p.description LIKE %:name%")
     List<Product> findByProductNameContaining(@Param("name") String name);
 
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.brand = :brand")
     List<Product> findByBrand(@Param("brand") String brand);
 
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
     List<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice);
 
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice " +
+            "AND (:categoryId IS NULL OR p.category.categoryId = :categoryId) " +
+            "AND (:inStockOnly = FALSE OR p.quantityInStock > 0) " +
+            "ORDER BY p.price, p.productId")
+    List<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+                                   @Param("categoryId") Integer categoryId,
+                                   @Param("inStockOnly") boolean inStockOnly);
+
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.discountPercent > 0 ORDER BY p.discountPercent DESC")
     List<Product> findDiscountedProducts();
 
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.category.categoryId = :categoryId AND p.discountPercent > 0 " +
+            "ORDER BY p.discountPercent DESC, p.productId")
+    List<Product> findDiscountedProductsByCategoryId(@Param("categoryId") Integer categoryId);
+
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.quantityInStock > 0")
     List<Product> findAvailableProducts();
 
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p ORDER BY p.createdAt DESC")
     List<Product> findLatestProducts();
 
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.category.categoryId = :categoryId ORDER BY p.createdAt DESC, p.productId")
+    List<Product> findLatestProductsByCategoryId(@Param("categoryId") Integer categoryId);
+
+    // Keyset ("seek") pages: each query continues strictly after the last row of the
+    // previous page, so the cost does not depend on how deep the client has paged.
+    // They return ids only; the rows are then loaded with findAllByProductIdIn so that
+    // the subselect fetch of sizes and offers stays bounded by the page size.
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.productId IN :productIds")
+    List<Product> findAllByProductIdIn(@Param("productIds") Collection<String> productIds);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.productId > :afterId ORDER BY p.productId")
+    List<String> findIdPageAfter(@Param("afterId") String afterId, Limit limit);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.category.categoryId = :categoryId AND p.productId > :afterId " +
+            "ORDER BY p.productId")
+    List<String> findIdPageByCategoryIdAfter(@Param("categoryId") Integer categoryId,
+                                             @Param("afterId") String afterId, Limit limit);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.brand = :brand AND p.productId > :afterId ORDER BY p.productId")
+    List<String> findIdPageByBrandAfter(@Param("brand") String brand, @Param("afterId") String afterId, Limit limit);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.quantityInStock > 0 AND p.productId > :afterId ORDER BY p.productId")
+    List<String> findAvailableIdPageAfter(@Param("afterId") String afterId, Limit limit);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.price <= :maxPrice " +
+            "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.productId > :afterId)) " +
+            "AND (:categoryId IS NULL OR p.category.categoryId = :categoryId) " +
+            "AND (:inStockOnly = FALSE OR p.quantityInStock > 0) " +
+            "ORDER BY p.price, p.productId")
+    List<String> findIdPageByPriceRangeAfter(@Param("maxPrice") BigDecimal maxPrice,
+                                             @Param("afterPrice") BigDecimal afterPrice,
+                                             @Param("afterId") String afterId,
+                                             @Param("categoryId") Integer categoryId,
+                                             @Param("inStockOnly") boolean inStockOnly, Limit limit);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.discountPercent > 0 " +
+            "AND (p.discountPercent < :afterDiscount OR (p.discountPercent = :afterDiscount AND p.productId > :afterId)) " +
+            "ORDER BY p.discountPercent DESC, p.productId")
+    List<String> findDiscountedIdPageAfter(@Param("afterDiscount") Integer afterDiscount,
+                                           @Param("afterId") String afterId, Limit limit);
+
+    // The latest feed lists products without createdAt last, by id. The dated and undated
+    // parts are separate seeks so each can use an index; see ProductService.latestIdPage.
+
+    @Query("SELECT p.productId FROM Product p WHERE p.createdAt IS NOT NULL ORDER BY p.createdAt DESC, p.productId")
+    List<String> findLatestIdPage(Limit limit);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.createdAt IS NULL AND p.productId > :afterId ORDER BY p.productId")
+    List<String> findUndatedIdPageAfter(@Param("afterId") String afterId, Limit limit);
+
+    // Category-scoped top-K seeks; served by the (category_id, <key> DESC, product_id) indexes.
+
+    @Query("SELECT p.productId FROM Product p WHERE p.category.categoryId = :categoryId AND p.discountPercent > 0 " +
+            "AND (p.discountPercent < :afterDiscount OR (p.discountPercent = :afterDiscount AND p.productId > :afterId)) " +
+            "ORDER BY p.discountPercent DESC, p.productId")
+    List<String> findDiscountedIdPageByCategoryIdAfter(@Param("categoryId") Integer categoryId,
+                                                       @Param("afterDiscount") Integer afterDiscount,
+                                                       @Param("afterId") String afterId, Limit limit);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.category.categoryId = :categoryId AND p.createdAt IS NOT NULL " +
+            "ORDER BY p.createdAt DESC, p.productId")
+    List<String> findLatestIdPageByCategoryId(@Param("categoryId") Integer categoryId, Limit limit);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.category.categoryId = :categoryId " +
+            "AND (p.createdAt < :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.productId > :afterId)) " +
+            "ORDER BY p.createdAt DESC, p.productId")
+    List<String> findLatestIdPageByCategoryIdAfter(@Param("categoryId") Integer categoryId,
+                                                   @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                   @Param("afterId") String afterId, Limit limit);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.category.categoryId = :categoryId AND p.createdAt IS NULL " +
+            "AND p.productId > :afterId ORDER BY p.productId")
+    List<String> findUndatedIdPageByCategoryIdAfter(@Param("categoryId") Integer categoryId,
+                                                    @Param("afterId") String afterId, Limit limit);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.createdAt < :afterCreatedAt " +
+            "OR (p.createdAt = :afterCreatedAt AND p.productId > :afterId) " +
+            "ORDER BY p.createdAt DESC, p.productId")
+    List<String> findLatestIdPageAfter(@Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                       @Param("afterId") String afterId, Limit limit);
+
     @Query("SELECT DISTINCT p.brand FROM Product p WHERE p.brand IS NOT NULL ORDER BY p.brand")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries")
+    })
     List<String> findAllBrands();
 }
@@ -1,10 +1,14 @@
 package com.shop.ecommerce.repository;
 
 import com.shop.ecommerce.entity.ProductSize;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,5 +18,14 @@ public interface ProductSizeRepository extends JpaRepository<ProductSize, Intege
     List<ProductSize> findByProductId(@Param("productId") String productId);
 
     @Query("SELECT DISTINCT ps.size FROM ProductSize ps ORDER BY ps.size")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries")
+    })
     List<String> findAllSizes();
+
+    // [productId, size] pairs, in insertion order.
+    @Query("SELECT ps.product.productId, ps.size FROM ProductSize ps " +
+            "WHERE ps.product.productId IN :productIds ORDER BY ps.sizeId")
+    List<Object[]> findSizesByProductIdIn(@Param("productIds") Collection<String> productIds);
 }
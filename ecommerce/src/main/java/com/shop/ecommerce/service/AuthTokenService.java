@@ -0,0 +1,98 @@
+package com.shop.ecommerce.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Bearer tokens handed out at login: {@code <userId>.<expiry>.<signature>}, signed with
+ * HMAC-SHA256 under {@code auth.token.secret}. Endpoints that act for a user take the user
+ * from the token, never from the request body or query.
+ * <p>
+ * Without a configured secret a random one is drawn at startup, so tokens stop working on
+ * restart and are not accepted by other instances.
+ */
+@Service
+public class AuthTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthTokenService.class);
+
+    private static final String BEARER = "Bearer ";
+    private static final String HMAC = "HmacSHA256";
+
+    @Value("${auth.token.secret:}")
+    private String secret;
+
+    @Value("${auth.token.ttl:12h}")
+    private Duration ttl;
+
+    private SecretKeySpec key;
+
+    @PostConstruct
+    void init() {
+        byte[] bytes;
+        if (secret == null || secret.isBlank()) {
+            bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+            log.warn("auth.token.secret is not set; using a random key, sessions end on restart");
+        } else {
+            bytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        key = new SecretKeySpec(bytes, HMAC);
+    }
+
+    public String issue(int userId) {
+        String payload = userId + "." + (System.currentTimeMillis() / 1000 + ttl.toSeconds());
+        return payload + "." + sign(payload);
+    }
+
+    /** The user an {@code Authorization: Bearer} header value was issued to, if it is valid and unexpired. */
+    public Optional<Integer> userId(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return Optional.empty();
+        }
+        String token = authorization.substring(BEARER.length()).trim();
+        int signatureStart = token.lastIndexOf('.');
+        int expiryStart = token.indexOf('.');
+        if (expiryStart <= 0 || signatureStart <= expiryStart) {
+            return Optional.empty();
+        }
+        String payload = token.substring(0, signatureStart);
+        byte[] signature = token.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(signature, sign(payload).getBytes(StandardCharsets.US_ASCII))) {
+            return Optional.empty();
+        }
+        try {
+            long expiresAt = Long.parseLong(payload.substring(expiryStart + 1));
+            if (expiresAt < System.currentTimeMillis() / 1000) {
+                return Optional.empty();
+            }
+            return Optional.of(Integer.parseInt(payload.substring(0, expiryStart)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.cart.CartLine;
+import com.shop.ecommerce.cart.CartStore;
+import com.shop.ecommerce.cart.CompactCart;
+import com.shop.ecommerce.dto.ProductBatch;
+import com.shop.ecommerce.dto.ProductDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Server-side carts. Carts live only in the in-process {@link CartStore}, so adding to
+ * or reading a cart never queries MySQL for the cart itself; a cart view resolves prices
+ * for all its products with one {@link ProductService#getProductsByIds} call, which the
+ * catalog snapshot answers from memory.
+ * <p>
+ * Cart ids are random UUIDs issued by {@link #create}. Holding the id is what gives access
+ * to a cart, so ids a client makes up, such as one derived from a user id, are rejected.
+ * The first signed-in user to use a cart becomes its owner; from then on it is not found
+ * for anyone else, guests included. {@code userId} is the signed-in caller, null for guests.
+ * <p>
+ * With {@code cart.snapshot.enabled} the store is written to {@code cart.snapshot.file}
+ * every {@code cart.snapshot.interval-ms} and on shutdown, and read back on startup.
+ */
+@Service
+public class CartService {
+
+    private static final Logger log = LoggerFactory.getLogger(CartService.class);
+
+    private static final Pattern CART_ID =
+            Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-4[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}");
+
+    @Autowired
+    private ProductService productService;
+
+    @Value("${cart.max-carts:100000}")
+    private int maxCarts;
+
+    @Value("${cart.max-lines:50}")
+    private int maxLines;
+
+    @Value("${cart.max-quantity:20}")
+    private int maxQuantity;
+
+    @Value("${cart.idle-ttl:7d}")
+    private Duration idleTtl;
+
+    @Value("${cart.snapshot.enabled:false}")
+    private boolean snapshotEnabled;
+
+    @Value("${cart.snapshot.file:data/carts.bin}")
+    private Path snapshotFile;
+
+    private CartStore store;
+
+    @PostConstruct
+    void start() {
+        store = new CartStore(maxCarts, maxLines, idleTtl.toMillis());
+        Gauge.builder("cart.store.carts", store, CartStore::size)
+                .description("Carts held in memory")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("cart.store.bytes", store, CartStore::bytes)
+                .description("Encoded size of the carts held in memory")
+                .register(Metrics.globalRegistry);
+        FunctionCounter.builder("cart.store.evictions", store, CartStore::idleEvictions)
+                .description("Carts dropped after the idle TTL")
+                .tag("reason", "idle")
+                .register(Metrics.globalRegistry);
+        FunctionCounter.builder("cart.store.evictions", store, CartStore::capacityEvictions)
+                .description("Least recently used carts dropped to stay under max-carts")
+                .tag("reason", "capacity")
+                .register(Metrics.globalRegistry);
+        if (snapshotEnabled) {
+            try {
+                log.info("Restored {} carts from {}", store.load(snapshotFile), snapshotFile);
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Could not restore carts from {}: {}", snapshotFile, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        saveSnapshot();
+    }
+
+    /** A new, empty cart under a fresh random id. */
+    public Map<String, Object> create() {
+        return price(UUID.randomUUID().toString(), CompactCart.EMPTY);
+    }
+
+    /** Lines with current prices; products no longer in the catalog are listed separately. */
+    public Map<String, Object> view(String cartId, Integer userId) {
+        CompactCart cart = store.get(checkAccess(cartId, userId));
+        return price(cartId, cart);
+    }
+
+    /** Adds {@code quantity} to the line, capped at {@code cart.max-quantity}. */
+    public Map<String, Object> addItem(String cartId, Integer userId, String productId, String size, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        String id = checkProductId(productId);
+        String lineSize = checkItem(id, size);
+        CompactCart cart = store.update(checkAccess(cartId, userId), current -> current.withQuantity(id, lineSize,
+                Math.min(maxQuantity, current.quantityOf(id, lineSize) + quantity)));
+        store.claim(cartId, userId);
+        return price(cartId, cart);
+    }
+
+    /** Sets the line's quantity; zero removes it. */
+    public Map<String, Object> setItem(String cartId, Integer userId, String productId, String size, int quantity) {
+        if (quantity < 0 || quantity > maxQuantity) {
+            throw new IllegalArgumentException("Quantity must be between 0 and " + maxQuantity);
+        }
+        String id = checkProductId(productId);
+        String lineSize = quantity > 0 ? checkItem(id, size) : normalizeSize(size);
+        CompactCart cart = store.update(checkAccess(cartId, userId), current -> current.withQuantity(id, lineSize, quantity));
+        store.claim(cartId, userId);
+        return price(cartId, cart);
+    }
+
+    /** The cart's lines without pricing, for checkout. */
+    public List<CartLine> lines(String cartId, Integer userId) {
+        return store.get(checkAccess(cartId, userId)).lines();
+    }
+
+    public boolean clear(String cartId, Integer userId) {
+        return store.remove(checkAccess(cartId, userId));
+    }
+
+    @Scheduled(fixedDelayString = "${cart.sweep-interval-ms:60000}",
+            initialDelayString = "${cart.sweep-interval-ms:60000}")
+    public void expireIdleCarts() {
+        int expired = store.expire();
+        if (expired > 0) {
+            log.debug("Dropped {} idle carts", expired);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.snapshot.interval-ms:60000}",
+            initialDelayString = "${cart.snapshot.interval-ms:60000}")
+    public void saveSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        try {
+            store.save(snapshotFile);
+        } catch (IOException e) {
+            log.warn("Could not save carts to {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    // One batched catalog lookup for every product in the cart.
+    private Map<String, Object> price(String cartId, CompactCart cart) {
+        Map<String, ProductDTO> products = new HashMap<>();
+        List<String> missing = List.of();
+        if (!cart.isEmpty()) {
+            ProductBatch batch = productService.getProductsByIds(cart.productIds());
+            for (ProductDTO product : batch.getProducts()) {
+                products.put(product.getProductId(), product);
+            }
+            missing = batch.getMissingIds();
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(cart.lineCount());
+        BigDecimal subtotal = BigDecimal.ZERO;
+        int itemCount = 0;
+        for (CartLine line : cart.lines()) {
+            ProductDTO product = products.get(line.getProductId());
+            if (product == null) {
+                continue;
+            }
+            BigDecimal lineTotal = product.getPrice().multiply(BigDecimal.valueOf(line.getQuantity()));
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", line.getProductId());
+            item.put("size", line.getSize().isEmpty() ? null : line.getSize());
+            item.put("quantity", line.getQuantity());
+            item.put("productName", product.getProductName());
+            item.put("brand", product.getBrand());
+            item.put("imageUrl", product.getImageUrl());
+            item.put("price", product.getPrice());
+            item.put("originalPrice", product.getOriginalPrice());
+            item.put("lineTotal", lineTotal);
+            item.put("inStock", product.getQuantityInStock() != null && product.getQuantityInStock() >= line.getQuantity());
+            items.add(item);
+            subtotal = subtotal.add(lineTotal);
+            itemCount += line.getQuantity();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("cartId", cartId);
+        response.put("items", items);
+        response.put("itemCount", itemCount);
+        response.put("subtotal", subtotal);
+        response.put("unavailableProductIds", missing);
+        return response;
+    }
+
+    // The product must exist and, when it comes in sizes, the size must be one of them.
+    private String checkItem(String productId, String size) {
+        List<ProductDTO> found = productService.getProductsByIds(List.of(productId)).getProducts();
+        if (found.isEmpty()) {
+            throw new NoSuchElementException("Product not found: " + productId);
+        }
+        String lineSize = normalizeSize(size);
+        List<String> sizes = found.get(0).getSizes();
+        if (sizes != null && !sizes.isEmpty() && !sizes.contains(lineSize)) {
+            throw new IllegalArgumentException("Size must be one of " + sizes + " for product " + productId);
+        }
+        return lineSize;
+    }
+
+    private static String checkProductId(String productId) {
+        if (productId == null || productId.isBlank()) {
+            throw new IllegalArgumentException("productId is required");
+        }
+        return productId.trim();
+    }
+
+    private static String normalizeSize(String size) {
+        return size != null ? size.trim() : "";
+    }
+
+    // Claims an unowned cart for a signed-in caller; a cart owned by someone else does not exist.
+    private String checkAccess(String cartId, Integer userId) {
+        Integer owner = store.claim(checkCartId(cartId), userId);
+        if (owner != null && !owner.equals(userId)) {
+            throw new NoSuchElementException("Cart not found: " + cartId);
+        }
+        return cartId;
+    }
+
+    private static String checkCartId(String cartId) {
+        if (cartId == null || !CART_ID.matcher(cartId).matches()) {
+            throw new IllegalArgumentException("Unknown cart id; create a cart with POST /api/cart");
+        }
+        return cartId;
+    }
+}
@@ -0,0 +1,529 @@
+package com.shop.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shop.ecommerce.catalog.CatalogEntityCache;
+import com.shop.ecommerce.catalog.CatalogImportReport;
+import com.shop.ecommerce.catalog.CatalogVersion;
+import com.shop.ecommerce.catalog.CsvRecordReader;
+import com.shop.ecommerce.dto.ProductDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bulk catalog import from CSV or NDJSON. The input is parsed one row at a time and each
+ * row is validated as it is read, so memory use depends on {@code catalog.import.batch-size},
+ * not on the size of the feed.
+ * <p>
+ * Every batch is one transaction of JDBC batch statements: the batch's existing products
+ * are locked and read with one query, then new products are inserted, existing ones
+ * updated, and sizes and offers replaced. Unknown categories are created by name. If a
+ * batch fails, its rows are retried one at a time so the error is reported against the row
+ * that caused it. Rows are written through JDBC rather than JPA, so no persistence context
+ * builds up; each batch evicts what it wrote from the second-level cache, and the catalog
+ * version moves once, when the import ends.
+ * <p>
+ * NDJSON rows have the shape of {@code /api/products/export}. CSV needs a header row naming
+ * the same fields ({@code product_id} and {@code productId} both work); {@code sizes} and
+ * {@code offers} hold {@code |}-separated values. A product's fields are replaced by the
+ * row, except that stock, sizes and offers are left alone when the row does not give them.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    private enum Column {
+        PRODUCT_ID, PRODUCT_NAME, CATEGORY_NAME, DESCRIPTION, PRICE, ORIGINAL_PRICE, DISCOUNT_PERCENT,
+        QUANTITY_IN_STOCK, BRAND, IMAGE_URL, SIZES, OFFERS;
+
+        // productId, product_id, "Product Id" and PRODUCT_ID all name PRODUCT_ID.
+        static Column forHeader(String header) {
+            String key = header.replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+            for (Column column : values()) {
+                if (column.name().replace("_", "").toLowerCase(Locale.ROOT).equals(key)) {
+                    return column;
+                }
+            }
+            return key.equals("category") ? CATEGORY_NAME : null;
+        }
+    }
+
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CatalogEntityCache catalogEntityCache;
+
+    @Value("${catalog.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${catalog.import.max-errors:1000}")
+    private int maxErrors;
+
+    private final AtomicReference<CatalogImportReport> running = new AtomicReference<>();
+    private volatile CatalogImportReport last;
+
+    /** The running import, else the last one since startup, else {@code null}. */
+    public CatalogImportReport status() {
+        CatalogImportReport report = running.get();
+        return report != null ? report : last;
+    }
+
+    /**
+     * Imports every row of {@code in} and returns the report. Malformed rows are reported
+     * and skipped; a malformed header or unreadable input stops the import with status
+     * {@code FAILED}, keeping the batches already written.
+     *
+     * @throws IllegalStateException when another import is running
+     */
+    public CatalogImportReport importCatalog(Reader in, Format format) {
+        CatalogImportReport report = new CatalogImportReport(format.name().toLowerCase(Locale.ROOT), maxErrors);
+        if (!running.compareAndSet(null, report)) {
+            throw new IllegalStateException("A catalog import is already running");
+        }
+        last = report;
+        long started = System.nanoTime();
+        try {
+            new ImportRun(report).run(format == Format.CSV ? new CsvRows(in) : new NdjsonRows(in));
+            report.complete();
+        } catch (IOException | IllegalArgumentException e) {
+            report.fail(e.getMessage());
+        } finally {
+            if (report.getStatus() == CatalogImportReport.Status.RUNNING) {
+                report.fail("Import aborted");
+            }
+            if (report.getInserted() + report.getUpdated() > 0) {
+                catalogVersion.advance();
+            }
+            running.set(null);
+        }
+        log.info("Catalog import {}: {} rows, {} inserted, {} updated, {} rejected in {} ms", report.getStatus(),
+                report.getRowsRead(), report.getInserted(), report.getUpdated(), report.getFailed(),
+                (System.nanoTime() - started) / 1_000_000);
+        return report;
+    }
+
+    /** One parsed input row: a product, or the reason it could not be read. */
+    private record Row(long line, ProductDTO product, String error) {}
+
+    private interface RowSource {
+        /** Next row, or {@code null} at the end of the input. */
+        Row next() throws IOException;
+    }
+
+    private final class ImportRun {
+
+        private final CatalogImportReport report;
+        private final TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        private Map<String, Integer> categories;
+
+        ImportRun(CatalogImportReport report) {
+            this.report = report;
+        }
+
+        void run(RowSource rows) throws IOException {
+            // Keyed by product id: a product repeated within a batch is written once, as last given.
+            Map<String, Row> batch = new LinkedHashMap<>();
+            for (Row row = rows.next(); row != null; row = rows.next()) {
+                report.rowRead();
+                String error = row.error() != null ? row.error() : validate(row.product());
+                if (error != null) {
+                    report.rowFailed(row.line(), row.product() != null ? row.product().getProductId() : null, error);
+                    continue;
+                }
+                batch.remove(row.product().getProductId());
+                batch.put(row.product().getProductId(), row);
+                if (batch.size() >= batchSize) {
+                    write(new ArrayList<>(batch.values()));
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(new ArrayList<>(batch.values()));
+            }
+        }
+
+        private void write(List<Row> rows) {
+            Map<String, Long> stockChanges = new HashMap<>();
+            int[] written;
+            try {
+                written = tx.execute(status -> upsert(rows, stockChanges));
+            } catch (DataAccessException | TransactionException e) {
+                // Categories created by the rolled back transaction are gone again.
+                categories = null;
+                if (rows.size() == 1) {
+                    Row row = rows.get(0);
+                    report.rowFailed(row.line(), row.product().getProductId(), rootMessage(e));
+                } else {
+                    log.debug("Catalog import batch of {} rows failed, retrying row by row: {}", rows.size(), e.getMessage());
+                    rows.forEach(row -> write(List.of(row)));
+                }
+                return;
+            }
+            report.batchWritten(written[0], written[1]);
+            catalogEntityCache.evictProducts(rows.stream().map(row -> row.product().getProductId()).toList());
+            catalogEntityCache.evictQueries();
+            inventoryService.restocked(stockChanges);
+            log.debug("Catalog import: {} rows read, {} written", report.getRowsRead(),
+                    report.getInserted() + report.getUpdated());
+        }
+
+        // Returns {inserted, updated}; fills in the stock change of every existing product.
+        private int[] upsert(List<Row> rows, Map<String, Long> stockChanges) {
+            List<String> ids = rows.stream().map(row -> row.product().getProductId()).toList();
+            Map<String, Integer> existing = new HashMap<>();
+            // FOR UPDATE keeps the inventory flush from changing these rows between the read and the write.
+            jdbcTemplate.query("SELECT product_id, quantity_in_stock FROM products WHERE product_id IN ("
+                            + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") FOR UPDATE",
+                    rs -> {
+                        int stock = rs.getInt(2);
+                        existing.put(rs.getString(1), rs.wasNull() ? null : stock);
+                    },
+                    ids.toArray());
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> sizeOwners = new ArrayList<>();
+            List<Object[]> sizes = new ArrayList<>();
+            List<Object[]> offerOwners = new ArrayList<>();
+            List<Object[]> offers = new ArrayList<>();
+            for (Row row : rows) {
+                ProductDTO p = row.product();
+                String id = p.getProductId();
+                Integer categoryId = categoryId(p.getCategoryName());
+                Integer discount = p.getDiscountPercent() != null ? p.getDiscountPercent() : 0;
+                if (existing.containsKey(id)) {
+                    updates.add(new Object[]{p.getProductName(), categoryId, p.getDescription(), p.getPrice(),
+                            p.getOriginalPrice(), discount, new SqlParameterValue(Types.INTEGER, p.getQuantityInStock()),
+                            p.getBrand(), p.getImageUrl(), id});
+                    if (p.getQuantityInStock() != null) {
+                        Integer before = existing.get(id);
+                        stockChanges.put(id, (long) p.getQuantityInStock() - (before != null ? before : 0));
+                    }
+                } else {
+                    inserts.add(new Object[]{id, p.getProductName(), categoryId, p.getDescription(), p.getPrice(),
+                            p.getOriginalPrice(), discount, p.getQuantityInStock() != null ? p.getQuantityInStock() : 0,
+                            p.getBrand(), p.getImageUrl(), now});
+                }
+                if (p.getSizes() != null) {
+                    sizeOwners.add(new Object[]{id});
+                    p.getSizes().forEach(size -> sizes.add(new Object[]{id, size}));
+                }
+                if (p.getOffers() != null) {
+                    offerOwners.add(new Object[]{id});
+                    p.getOffers().forEach(offer -> offers.add(new Object[]{id, offer}));
+                }
+            }
+
+            batch("INSERT INTO products (product_id, product_name, category_id, description, price, original_price, "
+                    + "discount_percent, quantity_in_stock, brand, image_url, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", inserts);
+            batch("UPDATE products SET product_name = ?, category_id = ?, description = ?, price = ?, "
+                    + "original_price = ?, discount_percent = ?, quantity_in_stock = COALESCE(?, quantity_in_stock), "
+                    + "brand = ?, image_url = ? WHERE product_id = ?", updates);
+            batch("DELETE FROM product_sizes WHERE product_id = ?", sizeOwners);
+            batch("INSERT INTO product_sizes (product_id, size) VALUES (?, ?)", sizes);
+            batch("DELETE FROM offers WHERE product_id = ?", offerOwners);
+            batch("INSERT INTO offers (product_id, offer_description) VALUES (?, ?)", offers);
+            return new int[]{inserts.size(), updates.size()};
+        }
+
+        private void batch(String sql, List<Object[]> args) {
+            if (!args.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, args);
+            }
+        }
+
+        // Categories are matched by name, ignoring case; there are few, so all are cached.
+        private Integer categoryId(String name) {
+            if (name == null) {
+                return null;
+            }
+            if (categories == null) {
+                categories = new HashMap<>();
+                jdbcTemplate.query("SELECT category_id, category_name FROM categories ORDER BY category_id",
+                        rs -> {
+                            categories.putIfAbsent(rs.getString(2).toLowerCase(Locale.ROOT), rs.getInt(1));
+                        });
+            }
+            String key = name.toLowerCase(Locale.ROOT);
+            Integer id = categories.get(key);
+            if (id == null) {
+                KeyHolder keys = new GeneratedKeyHolder();
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                            "INSERT INTO categories (category_name) VALUES (?)", Statement.RETURN_GENERATED_KEYS);
+                    ps.setString(1, name);
+                    return ps;
+                }, keys);
+                id = keys.getKey().intValue();
+                categories.put(key, id);
+            }
+            return id;
+        }
+    }
+
+    private final class NdjsonRows implements RowSource {
+
+        private final BufferedReader in;
+        private long line;
+
+        NdjsonRows(Reader in) {
+            this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in, 64 * 1024);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = in.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            try {
+                return new Row(line, normalize(objectMapper.readValue(text, ProductDTO.class)), null);
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class CsvRows implements RowSource {
+
+        private final CsvRecordReader in;
+        private Column[] columns;
+
+        CsvRows(Reader in) {
+            this.in = new CsvRecordReader(in instanceof BufferedReader ? in : new BufferedReader(in, 64 * 1024));
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (columns == null) {
+                List<String> header = in.next();
+                if (header == null) {
+                    return null;
+                }
+                columns = columns(header);
+            }
+            List<String> record = in.next();
+            if (record == null) {
+                return null;
+            }
+            if (record.size() != columns.length) {
+                return new Row(in.recordLine(), null,
+                        "Expected " + columns.length + " fields, found " + record.size());
+            }
+            ProductDTO product = new ProductDTO();
+            try {
+                for (int i = 0; i < columns.length; i++) {
+                    set(product, columns[i], record.get(i));
+                }
+            } catch (NumberFormatException e) {
+                return new Row(in.recordLine(), product, e.getMessage());
+            }
+            return new Row(in.recordLine(), normalize(product), null);
+        }
+
+        private static Column[] columns(List<String> header) {
+            Column[] columns = new Column[header.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Column.forHeader(header.get(i));
+                if (columns[i] == null) {
+                    throw new IllegalArgumentException("Unknown CSV column '" + header.get(i) + "'");
+                }
+                for (int j = 0; j < i; j++) {
+                    if (columns[j] == columns[i]) {
+                        throw new IllegalArgumentException("Duplicate CSV column '" + header.get(i) + "'");
+                    }
+                }
+            }
+            List<Column> present = List.of(columns);
+            for (Column required : List.of(Column.PRODUCT_ID, Column.PRODUCT_NAME, Column.PRICE)) {
+                if (!present.contains(required)) {
+                    throw new IllegalArgumentException("CSV header has no " + required.name().toLowerCase(Locale.ROOT) + " column");
+                }
+            }
+            return columns;
+        }
+
+        private static void set(ProductDTO product, Column column, String raw) {
+            String value = raw.isBlank() ? null : raw.trim();
+            switch (column) {
+                case PRODUCT_ID -> product.setProductId(value);
+                case PRODUCT_NAME -> product.setProductName(value);
+                case CATEGORY_NAME -> product.setCategoryName(value);
+                case DESCRIPTION -> product.setDescription(value);
+                case PRICE -> product.setPrice(decimal("price", value));
+                case ORIGINAL_PRICE -> product.setOriginalPrice(decimal("originalPrice", value));
+                case DISCOUNT_PERCENT -> product.setDiscountPercent(integer("discountPercent", value));
+                case QUANTITY_IN_STOCK -> product.setQuantityInStock(integer("quantityInStock", value));
+                case BRAND -> product.setBrand(value);
+                case IMAGE_URL -> product.setImageUrl(value);
+                case SIZES -> product.setSizes(list(value));
+                case OFFERS -> product.setOffers(list(value));
+            }
+        }
+
+        private static BigDecimal decimal(String field, String value) {
+            try {
+                return value != null ? new BigDecimal(value) : null;
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException(field + " is not a number: '" + value + "'");
+            }
+        }
+
+        private static Integer integer(String field, String value) {
+            try {
+                return value != null ? Integer.valueOf(value) : null;
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException(field + " is not a whole number: '" + value + "'");
+            }
+        }
+
+        // A present but empty column clears the list.
+        private static List<String> list(String value) {
+            return value != null ? List.of(value.split("\\|")) : List.of();
+        }
+    }
+
+    private static ProductDTO normalize(ProductDTO product) {
+        product.setProductId(trim(product.getProductId()));
+        product.setProductName(trim(product.getProductName()));
+        product.setCategoryName(trim(product.getCategoryName()));
+        product.setBrand(trim(product.getBrand()));
+        product.setImageUrl(trim(product.getImageUrl()));
+        if (product.getSizes() != null) {
+            LinkedHashSet<String> sizes = new LinkedHashSet<>();
+            product.getSizes().stream().map(CatalogImportService::trim).filter(s -> s != null).forEach(sizes::add);
+            product.setSizes(new ArrayList<>(sizes));
+        }
+        if (product.getOffers() != null) {
+            product.setOffers(product.getOffers().stream().map(CatalogImportService::trim).filter(s -> s != null).toList());
+        }
+        return product;
+    }
+
+    // Limits follow the column sizes in ECOM_DB.sql.
+    private static String validate(ProductDTO p) {
+        if (p.getProductId() == null) {
+            return "productId is required";
+        }
+        if (p.getProductId().length() > 10) {
+            return "productId is longer than 10 characters";
+        }
+        if (p.getProductName() == null) {
+            return "productName is required";
+        }
+        if (p.getProductName().length() > 200) {
+            return "productName is longer than 200 characters";
+        }
+        if (p.getPrice() == null) {
+            return "price is required";
+        }
+        String error = checkPrice("price", p.getPrice());
+        if (error == null && p.getOriginalPrice() != null) {
+            error = checkPrice("originalPrice", p.getOriginalPrice());
+        }
+        if (error != null) {
+            return error;
+        }
+        if (p.getDiscountPercent() != null && (p.getDiscountPercent() < 0 || p.getDiscountPercent() > 100)) {
+            return "discountPercent must be between 0 and 100";
+        }
+        if (p.getQuantityInStock() != null && p.getQuantityInStock() < 0) {
+            return "quantityInStock must not be negative";
+        }
+        if (p.getCategoryName() != null && p.getCategoryName().length() > 100) {
+            return "categoryName is longer than 100 characters";
+        }
+        if (p.getBrand() != null && p.getBrand().length() > 100) {
+            return "brand is longer than 100 characters";
+        }
+        if (p.getImageUrl() != null && p.getImageUrl().length() > 500) {
+            return "imageUrl is longer than 500 characters";
+        }
+        if (p.getSizes() != null && p.getSizes().stream().anyMatch(size -> size.length() > 10)) {
+            return "sizes must be at most 10 characters each";
+        }
+        if (p.getOffers() != null && p.getOffers().stream().anyMatch(offer -> offer.length() > 200)) {
+            return "offers must be at most 200 characters each";
+        }
+        return null;
+    }
+
+    private static String checkPrice(String field, BigDecimal value) {
+        if (value.signum() < 0) {
+            return field + " must not be negative";
+        }
+        if (value.stripTrailingZeros().scale() > 2) {
+            return field + " has more than 2 decimal places";
+        }
+        if (value.compareTo(MAX_PRICE) > 0) {
+            return field + " is larger than " + MAX_PRICE;
+        }
+        return null;
+    }
+
+    private static String trim(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static String rootMessage(Exception e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
@@ -0,0 +1,241 @@
+package com.shop.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shop.ecommerce.catalog.CatalogSnapshot;
+import com.shop.ecommerce.catalog.CatalogVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized JSON of hot catalog responses, with a gzip copy compressed once
+ * at store time, so a hit is written straight from byte arrays. Entries belong to one
+ * catalog and snapshot version and are dropped together when either moves; within a
+ * version they are evicted least recently used once {@code max-bytes} is reached.
+ * <p>
+ * Brotli is not offered: the JDK has no encoder and the available bindings are native.
+ */
+@Service
+public class CatalogResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${catalog.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${catalog.response-cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${catalog.response-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private final Map<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private Generation generation;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    void registerMetrics() {
+        hits = Counter.builder("catalog.response.cache").tag("result", "hit")
+                .description("Catalog responses served from cached bytes")
+                .register(Metrics.globalRegistry);
+        misses = Counter.builder("catalog.response.cache").tag("result", "miss")
+                .description("Catalog responses serialized by the handler")
+                .register(Metrics.globalRegistry);
+        evictions = Counter.builder("catalog.response.cache.evictions")
+                .description("Cached catalog responses evicted to stay under max-bytes")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("catalog.response.cache.bytes", this, CatalogResponseCache::getTotalBytes)
+                .description("Bytes held by cached catalog responses, all encodings")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Serves {@code key} from the cache, or runs {@code handler}, serializes what it returns
+     * and caches it when it is a 200. Headers the handler sets are kept with the entry.
+     */
+    public ResponseEntity<byte[]> respond(String key, String acceptEncoding, Supplier<ResponseEntity<?>> handler) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        if (!enabled) {
+            return toResponse(serialize(handler.get(), false), false);
+        }
+        Generation current = currentGeneration();
+        CachedResponse cached = lookup(key, current);
+        if (cached != null) {
+            hits.increment();
+            return toResponse(cached, gzip);
+        }
+        misses.increment();
+        ResponseEntity<?> response = handler.get();
+        CachedResponse loaded = serialize(response, response.getStatusCode().value() == 200);
+        if (response.getStatusCode().value() == 200) {
+            store(key, current, loaded);
+        }
+        return toResponse(loaded, gzip);
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} value allows gzip: listed itself, or covered by
+     * {@code *}, with a q-value above 0. {@code gzip;q=0} refuses it.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String name = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = Math.max(gzip, q);
+            } else if (name.equals("*")) {
+                any = Math.max(any, q);
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    // Taken before the handler runs: a body produced from newer data is then filed under an
+    // older generation and discarded on the next lookup, never the other way round.
+    private Generation currentGeneration() {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        return new Generation(catalogVersion.current(), snapshot != null ? snapshot.getVersion() : 0);
+    }
+
+    private synchronized CachedResponse lookup(String key, Generation current) {
+        if (current.equals(generation)) {
+            return entries.get(key);
+        }
+        if (generation == null || !current.isOlderThan(generation)) {
+            clear();
+            generation = current;
+        }
+        return null;
+    }
+
+    private synchronized void store(String key, Generation current, CachedResponse response) {
+        if (!current.equals(generation) || response.bytes() > maxBytes) {
+            return;
+        }
+        CachedResponse previous = entries.put(key, response);
+        if (previous != null) {
+            totalBytes -= previous.bytes();
+        }
+        totalBytes += response.bytes();
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().bytes();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private CachedResponse serialize(ResponseEntity<?> response, boolean compress) {
+        byte[] json;
+        try {
+            json = response.getBody() != null ? objectMapper.writeValueAsBytes(response.getBody()) : new byte[0];
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize catalog response", e);
+        }
+        byte[] gzipped = compress && json.length >= gzipMinBytes ? gzip(json) : null;
+        if (gzipped != null && gzipped.length >= json.length) {
+            gzipped = null;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        return new CachedResponse(response.getStatusCode().value(), HttpHeaders.readOnlyHttpHeaders(headers),
+                json, gzipped);
+    }
+
+    private static ResponseEntity<byte[]> toResponse(CachedResponse cached, boolean acceptsGzip) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(cached.status())
+                .headers(cached.headers())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip && cached.gzip() != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.gzip());
+        }
+        return response.body(cached.json());
+    }
+
+    // Compressed once per entry, so the slowest level is worth it.
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private record Generation(long catalogVersion, long snapshotVersion) {
+        boolean isOlderThan(Generation other) {
+            return catalogVersion < other.catalogVersion || snapshotVersion < other.snapshotVersion;
+        }
+    }
+
+    private record CachedResponse(int status, HttpHeaders headers, byte[] json, byte[] gzip) {
+        long bytes() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.catalog.CatalogEntry;
+import com.shop.ecommerce.catalog.CatalogSnapshot;
+import com.shop.ecommerce.catalog.CatalogVersion;
+import com.shop.ecommerce.catalog.ProductSearchIndex;
+import com.shop.ecommerce.config.ReadYourWrites;
+import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the current {@link CatalogSnapshot}. Readers only perform a volatile read;
+ * rebuilds happen off to the side and are published with a single reference swap.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${catalog.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${catalog.snapshot.max-staleness:5m}")
+    private Duration maxStaleness;
+
+    private final AtomicLong versions = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile CatalogSnapshot current;
+    // Catalog version the current snapshot was loaded at
+    private volatile long loadedCatalogVersion;
+    private volatile ProductSearchIndex searchIndex;
+
+    /**
+     * Returns the published snapshot, or {@code null} when snapshots are disabled or
+     * none could be built yet, in which case callers read from the database.
+     */
+    public CatalogSnapshot current() {
+        return enabled ? current : null;
+    }
+
+    /** Full-text index over the current snapshot, or {@code null} alongside {@link #current()}. */
+    public ProductSearchIndex searchIndex() {
+        return enabled ? searchIndex : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public CatalogSnapshot rebuild() {
+        rebuildLock.lock();
+        try {
+            long started = System.nanoTime();
+            // Taken before loading, so a change committed mid-load triggers another rebuild.
+            long catalogVersionAtLoad = catalogVersion.current();
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            // The version recorded above must match what is read, so replicas are bypassed.
+            List<CatalogEntry> entries = ReadYourWrites.onPrimary(() -> tx.execute(status -> loadEntries()));
+            CatalogSnapshot previous = current;
+            CatalogSnapshot snapshot = new CatalogSnapshot(versions.incrementAndGet(), entries, previous);
+            current = snapshot;
+            loadedCatalogVersion = catalogVersionAtLoad;
+            updateSearchIndex(previous, snapshot);
+            log.info("Catalog snapshot v{} built with {} products in {} ms", snapshot.getVersion(),
+                    snapshot.size(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInitialSnapshot() {
+        if (enabled) {
+            tryRebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.check-interval-ms:30000}",
+            initialDelayString = "${catalog.snapshot.check-interval-ms:30000}")
+    public void refreshIfStale() {
+        if (!enabled || rebuildLock.isLocked()) {
+            return;
+        }
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null || isStale(snapshot) || loadedCatalogVersion != catalogVersion.current()) {
+            tryRebuild();
+        }
+    }
+
+    public boolean isStale(CatalogSnapshot snapshot) {
+        return snapshot.getBuiltAt().plus(maxStaleness).isBefore(Instant.now());
+    }
+
+    private void tryRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Catalog snapshot rebuild failed, serving from {}: {}",
+                    current != null ? "v" + current.getVersion() : "the database", e.getMessage());
+        }
+    }
+
+    // Only products whose searchable text changed are re-indexed; a full rebuild
+    // happens on the first snapshot or once deletions have bloated the index.
+    private void updateSearchIndex(CatalogSnapshot previous, CatalogSnapshot snapshot) {
+        ProductSearchIndex index = searchIndex;
+        if (previous == null || index == null || index.needsCompaction()) {
+            searchIndex = ProductSearchIndex.of(snapshot.getAllProducts());
+            return;
+        }
+        for (ProductDTO product : snapshot.getAllProducts()) {
+            ProductDTO old = previous.getProduct(product.getProductId());
+            if (old == null || !ProductSearchIndex.sameIndexedText(old, product)) {
+                index.put(product);
+            }
+        }
+        for (ProductDTO old : previous.getAllProducts()) {
+            if (snapshot.getProduct(old.getProductId()) == null) {
+                index.remove(old.getProductId());
+            }
+        }
+    }
+
+    // Reads every product with its sizes and offers, so it bypasses the second-level cache
+    // rather than pushing the hot entries out of it.
+    private List<CatalogEntry> loadEntries() {
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        try {
+            return productMapper.toCatalogEntries(productRepository.findAll());
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+    }
+}
@@ -4,10 +4,12 @@ import com.shop.ecommerce.entity.Category;
 import com.shop.ecommerce.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Transactional(readOnly = true)
 public class CategoryService {
 
     @Autowired
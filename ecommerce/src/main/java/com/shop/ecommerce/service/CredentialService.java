@@ -0,0 +1,229 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.entity.User;
+import com.shop.ecommerce.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Hashes and verifies passwords with bcrypt on a small dedicated pool, so a burst of
+ * logins queues here instead of holding the request threads that serve the catalog.
+ * Callers are turned away with a {@link ServiceBusyException} straight away when the
+ * queue is full, or when the queue ahead of them would take longer than the timeout
+ * to drain at the recently measured hashing speed: such a caller would give up anyway,
+ * and queueing it only delays the ones that can still be served.
+ * <p>
+ * Credentials are read with plain JDBC rather than through the JPA session: with
+ * open-in-view the session would keep its connection for the rest of the request,
+ * including the wait for a hashing thread.
+ * <p>
+ * Rows written before hashing still hold the plaintext password. Those are compared
+ * directly and replaced with a hash in the background after a successful login.
+ */
+@Service
+public class CredentialService {
+
+    private static final Logger log = LoggerFactory.getLogger(CredentialService.class);
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+    private static final RowMapper<User> CREDENTIALS = (row, n) -> {
+        User user = new User();
+        user.setUserId(row.getInt("UserID"));
+        user.setFirstName(row.getString("FirstName"));
+        user.setLastName(row.getString("LastName"));
+        user.setPassword(row.getString("Password"));
+        user.setEmail(row.getString("Email"));
+        user.setPhoneNumber(row.getString("PhoneNumber"));
+        return user;
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.hashing.queue-capacity:0}")
+    private int queueCapacity;
+
+    @Value("${auth.hashing.timeout-ms:2000}")
+    private long timeoutMillis;
+
+    @Value("${auth.bcrypt.strength:10}")
+    private int strength;
+
+    private final Counter queueFull = rejectionCounter("queue_full");
+    private final Counter overloaded = rejectionCounter("expected_wait");
+    private final Counter timedOut = rejectionCounter("timeout");
+    private final Counter migrated = Counter.builder("auth.passwords.migrated")
+            .description("Plaintext or weaker-hashed passwords rehashed after login")
+            .register(Metrics.globalRegistry);
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    private int poolSize;
+    private String unknownUserHash;
+    // Moving average of wall-clock time per hash on the pool, including CPU contention.
+    private volatile long averageHashNanos;
+
+    private static Counter rejectionCounter(String reason) {
+        return Counter.builder("auth.hashing.rejected")
+                .description("Password hashing requests shed instead of queued")
+                .tag("reason", reason)
+                .register(Metrics.globalRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        // One core is left for request handling where there is more than one.
+        poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        int capacity = queueCapacity > 0 ? queueCapacity : 16 * poolSize;
+        encoder = new BCryptPasswordEncoder(strength);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("credential-hash-");
+        threadFactory.setDaemon(true);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(Metrics.globalRegistry, executor, "credential-hashing");
+        long started = System.nanoTime();
+        unknownUserHash = encoder.encode("unknown-user");
+        averageHashNanos = System.nanoTime() - started;
+        log.info("Password hashing on {} threads, queue of {}, bcrypt strength {}", poolSize, capacity, strength);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /** Returns the user when the email exists and the password matches it. */
+    public Optional<User> authenticate(String email, String rawPassword) {
+        List<User> users = jdbcTemplate.query("SELECT UserID, FirstName, LastName, Password, Email, PhoneNumber "
+                + "FROM Users1 WHERE Email = ?", CREDENTIALS, email.trim().toLowerCase());
+        User user = users.isEmpty() ? null : users.get(0);
+        return verify(user, rawPassword) ? Optional.of(user) : Optional.empty();
+    }
+
+    public String hash(String rawPassword) {
+        return call(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks {@code rawPassword} against the user's stored password. A {@code null} user or
+     * a legacy plaintext password still costs one bcrypt comparison, so response time reveals
+     * neither which emails exist nor which are not migrated yet.
+     */
+    boolean verify(User user, String rawPassword) {
+        if (user == null || user.getPassword() == null) {
+            call(() -> encoder.matches(rawPassword, unknownUserHash));
+            return false;
+        }
+        String stored = user.getPassword();
+        if (BCRYPT.matcher(stored).matches()) {
+            boolean matches = call(() -> encoder.matches(rawPassword, stored));
+            if (matches && encoder.upgradeEncoding(stored)) {
+                rehashInBackground(user.getUserId(), stored, rawPassword);
+            }
+            return matches;
+        }
+        call(() -> encoder.matches(rawPassword, unknownUserHash));
+        boolean matches = MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8),
+                rawPassword.getBytes(StandardCharsets.UTF_8));
+        if (matches) {
+            rehashInBackground(user.getUserId(), stored, rawPassword);
+        }
+        return matches;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    // Conditional on the old value, so a password changed in the meantime is never
+    // overwritten. Skipped when the pool is busy; the next login tries again.
+    private void rehashInBackground(Integer userId, String oldValue, String rawPassword) {
+        try {
+            executor.execute(() -> {
+                try {
+                    int updated = jdbcTemplate.update("UPDATE Users1 SET Password = ? WHERE UserID = ? AND Password = ?",
+                            encoder.encode(rawPassword), userId, oldValue);
+                    if (updated == 1) {
+                        migrated.increment();
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not rehash password for user {}: {}", userId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Hashing pool busy, password rehash for user {} deferred", userId);
+        }
+    }
+
+    private <T> T call(Callable<T> task) {
+        long expectedWait = (executor.getQueue().size() + 1) * averageHashNanos / poolSize;
+        if (expectedWait > TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) {
+            overloaded.increment();
+            throw busy();
+        }
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - started;
+                    // Unsynchronized: a sample lost to a concurrent update does not matter.
+                    averageHashNanos += (elapsed - averageHashNanos) / 8;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queueFull.increment();
+            throw busy();
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private ServiceBusyException busy() {
+        return new ServiceBusyException("Too many sign-in requests right now, please try again shortly", RETRY_AFTER);
+    }
+}
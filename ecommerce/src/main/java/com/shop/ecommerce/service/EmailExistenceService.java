@@ -0,0 +1,216 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.repository.UserRepository;
+import com.shop.ecommerce.user.EmailBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers "is this email registered?" without a query when it can. A Bloom filter over
+ * every address rules out most unknown emails in memory, a small LRU set remembers
+ * recent positive answers, and only the remaining "maybe" cases run
+ * {@link UserRepository#existsByEmail}. Until the filter is built every check goes to
+ * the database.
+ */
+@Service
+public class EmailExistenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailExistenceService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${users.email-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${users.email-filter.fpp:0.01}")
+    private double fpp;
+
+    @Value("${users.email-filter.min-capacity:100000}")
+    private long minCapacity;
+
+    @Value("${users.email-cache.max-size:10000}")
+    private int cacheSize;
+
+    private final Counter filtered = checkCounter("filtered");
+    private final Counter cached = checkCounter("cached");
+    private final Counter confirmed = checkCounter("confirmed");
+    private final Counter falsePositives = checkCounter("false_positive");
+    private final Counter unfiltered = checkCounter("unfiltered");
+
+    private volatile EmailBloomFilter filter;
+    private volatile Instant builtAt;
+    // Access-ordered, so the least recently confirmed address is evicted first; guarded by this.
+    private final Map<String, Boolean> positives = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    // Registrations seen while a rebuild is scanning Users1; guarded by this.
+    private List<String> pendingDuringRebuild;
+
+    private static Counter checkCounter(String outcome) {
+        return Counter.builder("users.email.checks")
+                .description("Email existence checks by where the answer came from")
+                .tag("outcome", outcome)
+                .register(Metrics.globalRegistry);
+    }
+
+    public EmailExistenceService() {
+        Gauge.builder("users.email.filter.expected_fpp", this,
+                        service -> service.filter != null ? service.filter.expectedFpp() : Double.NaN)
+                .description("False-positive rate implied by the current email filter fill")
+                .register(Metrics.globalRegistry);
+    }
+
+    public boolean exists(String email) {
+        String key = EmailBloomFilter.normalize(email);
+        EmailBloomFilter current = filter;
+        if (current == null) {
+            unfiltered.increment();
+            return userRepository.existsByEmail(key);
+        }
+        if (!current.mightContain(key)) {
+            filtered.increment();
+            return false;
+        }
+        if (isCached(key)) {
+            cached.increment();
+            return true;
+        }
+        if (userRepository.existsByEmail(key)) {
+            confirmed.increment();
+            cache(key);
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Adds a newly saved user's email. Inside a transaction the address is added only after
+     * commit, so a rolled-back registration is not remembered as existing; a rebuild running
+     * at that moment picks it up through {@code pendingDuringRebuild}.
+     */
+    public void recordRegistered(String email) {
+        String key = EmailBloomFilter.normalize(email);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(key);
+            }
+        });
+    }
+
+    public EmailBloomFilter rebuild() {
+        synchronized (this) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        try {
+            long started = System.nanoTime();
+            Long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Users1", Long.class);
+            // Leave room to grow so the false-positive rate holds until the next rebuild.
+            EmailBloomFilter rebuilt = EmailBloomFilter.create(Math.max(minCapacity, 2 * (users != null ? users : 0)), fpp);
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("SELECT Email FROM Users1 WHERE Email IS NOT NULL");
+                statement.setFetchSize(1000);
+                return statement;
+            }, row -> {
+                rebuilt.put(EmailBloomFilter.normalize(row.getString(1)));
+            });
+            synchronized (this) {
+                pendingDuringRebuild.forEach(rebuilt::put);
+                builtAt = Instant.now();
+                filter = rebuilt;
+            }
+            log.info("Email filter built with {} addresses ({} bits, {} hashes) in {} ms", rebuilt.getInsertions(),
+                    rebuilt.getBitSize(), rebuilt.getHashFunctions(),
+                    Duration.ofNanos(System.nanoTime() - started).toMillis());
+            return rebuilt;
+        } finally {
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInitialFilter() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Email filter build failed, checking emails against the database: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** The filter in use, or {@code null} before the first successful build. */
+    public EmailBloomFilter currentFilter() {
+        return filter;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public synchronized int cachedPositives() {
+        return positives.size();
+    }
+
+    private synchronized void add(String key) {
+        EmailBloomFilter current = filter;
+        if (current != null) {
+            current.put(key);
+            if (current.getInsertions() == current.getCapacity() + 1) {
+                log.warn("Email filter holds more than its {} address capacity; rebuild it to restore the "
+                        + "false-positive rate", current.getCapacity());
+            }
+        }
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(key);
+        }
+        cache(key);
+    }
+
+    private synchronized boolean isCached(String key) {
+        return positives.get(key) != null;
+    }
+
+    private synchronized void cache(String key) {
+        positives.put(key, Boolean.TRUE);
+    }
+}
@@ -0,0 +1,144 @@
+package com.shop.ecommerce.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out ids for one {@code id_sequences} row from blocks reserved in that table.
+ * Reserving a block is one short transaction of its own; ids inside the block come from
+ * an atomic counter, so allocation costs O(1) and never needs a lock on the fast path.
+ * <p>
+ * Several application instances can share the table: each reserves disjoint blocks. Ids
+ * left in a block when the application stops are skipped, so ids can have gaps.
+ * <p>
+ * Databases set up from an ECOM_DB.sql that predates the table get it created on the first
+ * reservation; a sequence with no row starts after the highest existing id.
+ */
+class IdBlockAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(IdBlockAllocator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final String sequence;
+    private final String initialValueQuery;
+    private final int blockSize;
+
+    private final Object refillLock = new Object();
+    private volatile Block block = Block.EMPTY;
+
+    /**
+     * @param initialValueQuery first id of a sequence that has no row yet, typically
+     *                          {@code SELECT COALESCE(MAX(id), 0) + 1 FROM table}
+     */
+    IdBlockAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                     String sequence, String initialValueQuery, int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Its own transaction, so the row lock is released as soon as the block is taken,
+        // not when the caller's transaction commits.
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.sequence = sequence;
+        this.initialValueQuery = initialValueQuery;
+        this.blockSize = blockSize;
+    }
+
+    long nextId() {
+        while (true) {
+            Block current = block;
+            long id = current.next.getAndIncrement();
+            if (id < current.end) {
+                return id;
+            }
+            synchronized (refillLock) {
+                if (block == current) {
+                    block = reserve();
+                }
+            }
+        }
+    }
+
+    private Block reserve() {
+        Block reserved;
+        try {
+            reserved = reserveBlock();
+        } catch (BadSqlGrammarException e) {
+            createTableIfMissing(jdbcTemplate, e);
+            reserved = reserveBlock();
+        }
+        log.debug("Reserved {} ids [{}, {})", sequence, reserved.start, reserved.end);
+        return reserved;
+    }
+
+    private Block reserveBlock() {
+        return tx.execute(status -> {
+            Long start = lockNextValue();
+            if (start == null) {
+                start = createSequence();
+            }
+            jdbcTemplate.update("UPDATE id_sequences SET next_value = ? WHERE sequence_name = ?",
+                    start + blockSize, sequence);
+            return new Block(start, start + blockSize);
+        });
+    }
+
+    /**
+     * Creates {@code id_sequences} for callers whose query on it failed with {@code cause}.
+     *
+     * @throws IllegalStateException when the table cannot be created
+     */
+    static void createTableIfMissing(JdbcTemplate jdbcTemplate, BadSqlGrammarException cause) {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_sequences ("
+                    + "sequence_name VARCHAR(64) PRIMARY KEY, next_value BIGINT NOT NULL)");
+        } catch (DataAccessException e) {
+            e.addSuppressed(cause);
+            throw new IllegalStateException("Table id_sequences is missing and could not be created; "
+                    + "create it as in ECOM_DB.sql", e);
+        }
+        log.info("Created table id_sequences if it was missing");
+    }
+
+    private Long lockNextValue() {
+        List<Long> values = jdbcTemplate.queryForList(
+                "SELECT next_value FROM id_sequences WHERE sequence_name = ? FOR UPDATE", Long.class, sequence);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    // Databases created before the sequence row existed start after the highest existing id.
+    private long createSequence() {
+        try {
+            jdbcTemplate.update("INSERT INTO id_sequences (sequence_name, next_value) SELECT ?, ("
+                    + initialValueQuery + ")", sequence);
+        } catch (DuplicateKeyException e) {
+            // another instance created it first
+        }
+        Long start = lockNextValue();
+        log.info("Initialised id sequence {} at {}", sequence, start);
+        return start;
+    }
+
+    private static final class Block {
+        static final Block EMPTY = new Block(0, 0);
+
+        final long start;
+        final long end;
+        final AtomicLong next;
+
+        Block(long start, long end) {
+            this.start = start;
+            this.end = end;
+            this.next = new AtomicLong(start);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.catalog.CatalogEntityCache;
+import com.shop.ecommerce.catalog.CatalogVersion;
+import com.shop.ecommerce.inventory.InventoryJournal;
+import com.shop.ecommerce.inventory.InventoryLedger;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Stock reservations for checkout, served from the {@link InventoryLedger} and written
+ * back to {@code products.quantity_in_stock} in batches.
+ * <p>
+ * Every {@code inventory.flush-interval-ms} the net change per product is applied with
+ * relative {@code UPDATE}s in one transaction, which also stores the last journal
+ * sequence number it covers in {@code id_sequences}. On startup, journal entries after
+ * that number are applied the same way before any stock is read, so commits that never
+ * reached the database survive a crash and none is applied twice.
+ * <p>
+ * Order lines are sold through the same path. The transaction that applies a line's sale
+ * also sets its {@code order_lines.stock_committed}, and every
+ * {@code inventory.order-sweep-interval-ms} the lines of orders placed more than a
+ * reservation TTL ago that are still unset are sold again through the ledger: their hold
+ * expired or was lost in a crash between the order insert and its commit.
+ */
+@Service
+public class InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    static final String CHECKPOINT = "inventory_journal";
+
+    // Slack for clock granularity and created_at precision on top of the reservation TTL.
+    private static final Duration SWEEP_MARGIN = Duration.ofMinutes(1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Absent where JPA is not set up, as in JDBC-only tests.
+    @Autowired
+    private ObjectProvider<CatalogEntityCache> catalogEntityCache;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${inventory.reservation-ttl:15m}")
+    private Duration reservationTtl;
+
+    @Value("${inventory.journal.dir:data/inventory}")
+    private Path journalDirectory;
+
+    @Value("${inventory.journal.sync:false}")
+    private boolean syncJournal;
+
+    private final Object flushLock = new Object();
+    private InventoryJournal journal;
+    private InventoryLedger ledger;
+    private volatile boolean recovered;
+
+    @PostConstruct
+    void start() throws IOException {
+        journal = new InventoryJournal(journalDirectory, syncJournal);
+        ledger = new InventoryLedger(this::loadStock, journal);
+        reservations("reserved", "Stock reservations granted", InventoryLedger::reservedCount);
+        reservations("rejected", "Stock reservations refused for lack of stock", InventoryLedger::rejectedCount);
+        reservations("released", "Stock reservations released", InventoryLedger::releasedCount);
+        reservations("committed", "Stock reservations committed as sales", InventoryLedger::committedCount);
+        reservations("expired", "Stock reservations released after their TTL", InventoryLedger::expiredCount);
+        Gauge.builder("inventory.reservations.active", ledger, InventoryLedger::activeReservations)
+                .description("Stock reservations currently held")
+                .register(Metrics.globalRegistry);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        try {
+            flush();
+        } finally {
+            journal.close();
+        }
+    }
+
+    public InventoryLedger.Reservation reserve(String productId, int quantity) {
+        recover();
+        return ledger.reserve(productId, quantity, reservationTtl);
+    }
+
+    public boolean release(long reservationId) {
+        return ledger.release(reservationId);
+    }
+
+    public boolean commit(long reservationId) {
+        return ledger.commit(reservationId);
+    }
+
+    /** Commits the hold as the sale of order line {@code lineId}. */
+    public boolean commit(long reservationId, long lineId) {
+        return ledger.commit(reservationId, lineId);
+    }
+
+    public long available(String productId) {
+        recover();
+        return ledger.available(productId);
+    }
+
+    /** Applies stock changes written to {@code products} outside the ledger, per product. */
+    public void restocked(Map<String, Long> deltas) {
+        deltas.forEach(ledger::restock);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.sweep-interval-ms:1000}",
+            initialDelayString = "${inventory.sweep-interval-ms:1000}")
+    public void expireReservations() {
+        int expired = ledger.expire();
+        if (expired > 0) {
+            log.debug("Released {} expired stock reservations", expired);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.order-sweep-interval-ms:60000}",
+            initialDelayString = "${inventory.order-sweep-interval-ms:60000}")
+    public void sweepOrders() {
+        try {
+            int sold = commitUnsettledLines(LocalDateTime.now().minus(reservationTtl).minus(SWEEP_MARGIN));
+            if (sold > 0) {
+                log.info("Committed stock for {} order lines whose holds were not committed", sold);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Order line stock sweep failed, retrying on the next sweep: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sells every order line of orders created before {@code placedBefore} whose stock the
+     * database has not recorded and the ledger has not journaled yet; returns how many.
+     * Every hold of those orders must have been committed or expired by then.
+     */
+    public int commitUnsettledLines(LocalDateTime placedBefore) {
+        recover();
+        synchronized (flushLock) {
+            int sold = 0;
+            for (Map<String, Object> line : jdbcTemplate.queryForList(
+                    "SELECT l.line_id, l.product_id, l.quantity FROM order_lines l " +
+                            "JOIN orders o ON o.order_id = l.order_id " +
+                            "WHERE l.stock_committed = FALSE AND o.created_at < ? ORDER BY l.line_id",
+                    Timestamp.valueOf(placedBefore))) {
+                long lineId = ((Number) line.get("line_id")).longValue();
+                try {
+                    if (ledger.commitLine(lineId, (String) line.get("product_id"),
+                            ((Number) line.get("quantity")).intValue())) {
+                        sold++;
+                    }
+                } catch (NoSuchElementException e) {
+                    log.warn("Cannot commit stock for order line {}: {}", lineId, e.getMessage());
+                }
+            }
+            return sold;
+        }
+    }
+
+    /** Writes the net committed changes since the last flush. */
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms:1000}",
+            initialDelayString = "${inventory.flush-interval-ms:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            if (!recovered) {
+                try {
+                    recover();
+                } catch (RuntimeException e) {
+                    log.warn("Inventory journal recovery failed, retrying on the next flush: {}", e.getMessage());
+                    return;
+                }
+            }
+            InventoryLedger.Flush flush;
+            try {
+                flush = ledger.drain();
+            } catch (IOException e) {
+                log.warn("Could not roll the inventory journal: {}", e.getMessage());
+                return;
+            }
+            if (flush.getDeltas().isEmpty() && flush.getLineIds().isEmpty()) {
+                return;
+            }
+            try {
+                write(flush);
+            } catch (RuntimeException e) {
+                ledger.restore(flush);
+                log.warn("Inventory flush of {} products failed, retrying on the next flush: {}",
+                        flush.getDeltas().size(), e.getMessage());
+                return;
+            }
+            deleteJournalThrough(flush.getSegment());
+        }
+    }
+
+    private void recover() {
+        if (recovered) {
+            return;
+        }
+        synchronized (flushLock) {
+            if (recovered) {
+                return;
+            }
+            InventoryLedger.Flush replayed;
+            try {
+                replayed = ledger.recover(appliedSeq());
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read the inventory journal", e);
+            }
+            write(replayed);
+            if (!replayed.getDeltas().isEmpty()) {
+                log.info("Applied unflushed stock changes for {} products from the inventory journal",
+                        replayed.getDeltas().size());
+            }
+            deleteJournalThrough(replayed.getSegment());
+            recovered = true;
+        }
+    }
+
+    private void write(InventoryLedger.Flush flush) {
+        List<Object[]> updates = new ArrayList<>(flush.getDeltas().size());
+        for (Map.Entry<String, Long> delta : flush.getDeltas().entrySet()) {
+            updates.add(new Object[]{delta.getValue(), delta.getKey()});
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate("UPDATE products SET quantity_in_stock = COALESCE(quantity_in_stock, 0) + ? " +
+                    "WHERE product_id = ?", updates);
+            if (!flush.getLineIds().isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE order_lines SET stock_committed = TRUE WHERE line_id = ?",
+                        flush.getLineIds().stream().map(lineId -> new Object[]{lineId}).toList());
+            }
+            jdbcTemplate.update("UPDATE id_sequences SET next_value = ? WHERE sequence_name = ? AND next_value < ?",
+                    flush.getThroughSeq(), CHECKPOINT, flush.getThroughSeq());
+        });
+        catalogEntityCache.ifAvailable(cache -> cache.evictProducts(flush.getDeltas().keySet()));
+        if (!flush.getDeltas().isEmpty()) {
+            // Stock is part of what the catalog serves: ETags and cached responses must move.
+            catalogVersion.advance();
+        }
+    }
+
+    // Highest journal sequence number already applied to the database.
+    private long appliedSeq() {
+        List<Long> values;
+        try {
+            values = jdbcTemplate.queryForList(
+                    "SELECT next_value FROM id_sequences WHERE sequence_name = ?", Long.class, CHECKPOINT);
+        } catch (BadSqlGrammarException e) {
+            IdBlockAllocator.createTableIfMissing(jdbcTemplate, e);
+            values = List.of();
+        }
+        if (!values.isEmpty()) {
+            return values.get(0);
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO id_sequences (sequence_name, next_value) VALUES (?, 0)", CHECKPOINT);
+        } catch (DuplicateKeyException e) {
+            // another instance created it first
+        }
+        return 0;
+    }
+
+    private Integer loadStock(String productId) {
+        List<Integer> stock = jdbcTemplate.queryForList(
+                "SELECT COALESCE(quantity_in_stock, 0) FROM products WHERE product_id = ?", Integer.class, productId);
+        return stock.isEmpty() ? null : stock.get(0);
+    }
+
+    private void deleteJournalThrough(long segment) {
+        try {
+            synchronized (journal) {
+                journal.deleteThrough(segment);
+            }
+        } catch (IOException e) {
+            // Harmless: the checkpoint keeps these entries from being applied again.
+            log.warn("Could not delete flushed inventory journal segments: {}", e.getMessage());
+        }
+    }
+
+    private void reservations(String result, String description, ToDoubleFunction<InventoryLedger> count) {
+        FunctionCounter.builder("inventory.reservations", ledger, count)
+                .description(description)
+                .tag("result", result)
+                .register(Metrics.globalRegistry);
+    }
+}
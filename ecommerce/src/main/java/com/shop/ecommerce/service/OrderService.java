@@ -0,0 +1,159 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.cart.CartLine;
+import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.entity.Order;
+import com.shop.ecommerce.entity.OrderLine;
+import com.shop.ecommerce.inventory.InventoryLedger;
+import com.shop.ecommerce.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Checkout: prices the lines from the catalog, holds their stock, writes the order through
+ * {@link OrderWriter} and only then commits the holds. If anything fails before the order
+ * is written, every hold taken so far is released. Once it is written the order stands: a
+ * hold that cannot be committed is left to expire, and {@link InventoryService} sells its
+ * line in the next sweep of unsettled order lines.
+ */
+@Service
+public class OrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderWriter orderWriter;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    public Map<String, Object> placeOrder(Integer userId, List<CartLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("An order needs at least one item");
+        }
+        for (CartLine line : lines) {
+            if (line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product " + line.getProductId());
+            }
+        }
+        Map<String, ProductDTO> products = products(lines);
+        Order order = new Order(userId, LocalDateTime.now());
+        for (CartLine line : lines) {
+            ProductDTO product = products.get(line.getProductId());
+            List<String> sizes = product.getSizes();
+            String size = line.getSize() == null || line.getSize().isEmpty() ? null : line.getSize();
+            if (sizes != null && !sizes.isEmpty() && !sizes.contains(size)) {
+                throw new IllegalArgumentException("Size must be one of " + sizes + " for product " + line.getProductId());
+            }
+            order.addLine(new OrderLine(line.getProductId(), size, line.getQuantity(), product.getPrice()));
+        }
+
+        List<InventoryLedger.Reservation> holds = new ArrayList<>(lines.size());
+        try {
+            for (OrderLine line : order.getLines()) {
+                holds.add(inventoryService.reserve(line.getProductId(), line.getQuantity()));
+            }
+            // Stamped after the holds, so all of them expire within a reservation TTL of it.
+            order.setCreatedAt(LocalDateTime.now());
+            orderWriter.write(order);
+        } catch (RuntimeException e) {
+            holds.forEach(hold -> inventoryService.release(hold.getId()));
+            throw e;
+        }
+        for (int i = 0; i < holds.size(); i++) {
+            long lineId = order.getLines().get(i).getLineId();
+            try {
+                inventoryService.commit(holds.get(i).getId(), lineId);
+            } catch (RuntimeException e) {
+                log.warn("Could not commit the stock of order line {}, leaving it to the sweep: {}",
+                        lineId, e.getMessage());
+            }
+        }
+        return toMap(order);
+    }
+
+    /**
+     * Places the cart's contents as an order and empties the cart. The cart must be the
+     * user's: one owned by someone else is not found, an unowned one becomes the user's.
+     */
+    public Map<String, Object> placeOrderFromCart(String cartId, Integer userId) {
+        Map<String, Object> response = placeOrder(userId, cartService.lines(cartId, userId));
+        cartService.clear(cartId, userId);
+        return response;
+    }
+
+    /** The order, if it is {@code userId}'s; other users' orders are not found. */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getOrder(Long orderId, Integer userId) {
+        return orderRepository.findById(orderId)
+                .filter(order -> order.getUserId() != null && order.getUserId().equals(userId))
+                .map(OrderService::toMap)
+                .orElseThrow(() -> new NoSuchElementException("Order not found: " + orderId));
+    }
+
+    /** Most recent first; the lines of all returned orders are loaded with one query. */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getOrdersForUser(Integer userId, int limit) {
+        List<Map<String, Object>> orders = new ArrayList<>();
+        for (Order order : orderRepository.findByUserIdOrderByOrderIdDesc(userId, Limit.of(limit))) {
+            orders.add(toMap(order));
+        }
+        return orders;
+    }
+
+    private Map<String, ProductDTO> products(List<CartLine> lines) {
+        List<String> ids = lines.stream().map(CartLine::getProductId).distinct().toList();
+        Map<String, ProductDTO> products = new HashMap<>();
+        for (ProductDTO product : productService.getProductsByIds(ids).getProducts()) {
+            products.put(product.getProductId(), product);
+        }
+        for (String id : ids) {
+            if (!products.containsKey(id)) {
+                throw new NoSuchElementException("Product not found: " + id);
+            }
+        }
+        return products;
+    }
+
+    private static Map<String, Object> toMap(Order order) {
+        List<Map<String, Object>> items = new ArrayList<>(order.getLines().size());
+        for (OrderLine line : order.getLines()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("lineId", line.getLineId());
+            item.put("productId", line.getProductId());
+            item.put("size", line.getSize());
+            item.put("quantity", line.getQuantity());
+            item.put("unitPrice", line.getUnitPrice());
+            items.add(item);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("orderId", order.getOrderId());
+        response.put("userId", order.getUserId());
+        response.put("status", order.getStatus());
+        response.put("totalAmount", order.getTotalAmount());
+        response.put("createdAt", order.getCreatedAt().toString());
+        response.put("items", items);
+        return response;
+    }
+}
@@ -0,0 +1,211 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.entity.Order;
+import com.shop.ecommerce.entity.OrderLine;
+import com.shop.ecommerce.exception.ServiceBusyException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts orders with their lines. Ids are assigned up front from {@code id_sequences}
+ * blocks ({@link IdBlockAllocator}), outside the insert transaction, and Hibernate batches
+ * the inserts ({@code hibernate.jdbc.batch_size}, {@code order_inserts}), so an order of
+ * any size costs two batched statements.
+ * <p>
+ * By default every order is its own transaction. With {@code orders.group-commit.enabled}
+ * callers hand their order to a single writer thread instead, which gathers whatever
+ * arrives within {@code max-wait-ms} of the first order (up to {@code max-batch}) and
+ * writes them all in one transaction: one commit, and one batch per table, for many
+ * checkouts. If that transaction fails, its orders are retried one by one so a bad
+ * order only fails its own caller.
+ */
+@Service
+public class OrderWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderWriter.class);
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${orders.id-block-size:100}")
+    private int idBlockSize;
+
+    @Value("${orders.group-commit.enabled:false}")
+    private boolean groupCommit;
+
+    @Value("${orders.group-commit.max-batch:100}")
+    private int maxBatch;
+
+    @Value("${orders.group-commit.max-wait-ms:2}")
+    private long maxWaitMillis;
+
+    @Value("${orders.group-commit.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private IdBlockAllocator orderIds;
+    private IdBlockAllocator lineIds;
+    private TransactionTemplate tx;
+    private BlockingQueue<PendingOrder> queue;
+    private DistributionSummary batchSizes;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        orderIds = new IdBlockAllocator(jdbcTemplate, transactionManager, "orders",
+                "SELECT COALESCE(MAX(order_id), 0) + 1 FROM orders", idBlockSize);
+        lineIds = new IdBlockAllocator(jdbcTemplate, transactionManager, "order_lines",
+                "SELECT COALESCE(MAX(line_id), 0) + 1 FROM order_lines", idBlockSize);
+        tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        batchSizes = DistributionSummary.builder("orders.commit.batch.size")
+                .description("Orders written per transaction")
+                .register(Metrics.globalRegistry);
+        if (groupCommit) {
+            queue = new ArrayBlockingQueue<>(queueCapacity);
+            Gauge.builder("orders.commit.queue", queue, BlockingQueue::size)
+                    .description("Orders waiting for the group-commit writer")
+                    .register(Metrics.globalRegistry);
+            running = true;
+            writerThread = new Thread(this::writeLoop, "order-group-commit");
+            writerThread.setDaemon(true);
+            writerThread.start();
+            log.info("Order group commit on: up to {} orders per transaction, {} ms window", maxBatch, maxWaitMillis);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Inserts the order and its lines and returns it with ids assigned. With group commit
+     * the caller waits for its batch to commit.
+     *
+     * @throws ServiceBusyException when {@code queue-capacity} orders are already waiting
+     */
+    public Order write(Order order) {
+        order.setOrderId(orderIds.nextId());
+        for (OrderLine line : order.getLines()) {
+            line.setLineId(lineIds.nextId());
+        }
+        if (!groupCommit) {
+            return writeAlone(order);
+        }
+        PendingOrder pending = new PendingOrder(order);
+        if (!running || !queue.offer(pending)) {
+            throw new ServiceBusyException("Too many orders waiting to be written", RETRY_AFTER);
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Order writeAlone(Order order) {
+        tx.executeWithoutResult(status -> entityManager.persist(order));
+        batchSizes.record(1);
+        return order;
+    }
+
+    private void writeLoop() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result.completeExceptionally(
+                        new ServiceBusyException("Order writer stopped", RETRY_AFTER)));
+                return;
+            } catch (RuntimeException e) {
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        try {
+            tx.executeWithoutResult(status -> batch.forEach(pending -> entityManager.persist(pending.order)));
+            batchSizes.record(batch.size());
+            batch.forEach(pending -> pending.result.complete(pending.order));
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            log.warn("Group commit of {} orders failed, writing them one by one: {}", batch.size(), e.getMessage());
+        }
+        for (PendingOrder pending : batch) {
+            try {
+                pending.result.complete(writeAlone(pending.order));
+            } catch (RuntimeException e) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class PendingOrder {
+        final Order order;
+        final CompletableFuture<Order> result = new CompletableFuture<>();
+
+        PendingOrder(Order order) {
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.shop.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.entity.Product;
+import com.shop.ecommerce.repository.OfferRepository;
+import com.shop.ecommerce.repository.ProductSizeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalog as NDJSON (one product per line) without holding it in memory.
+ * Products are read as one forward-only stream; every {@code catalog.export.batch-size}
+ * rows their sizes and offers are fetched with two IN queries, the lines are written and
+ * flushed, and the persistence context is cleared, so heap use does not grow with the catalog.
+ * <p>
+ * On MySQL the product query alone streams row by row ({@code fetchSize = Integer.MIN_VALUE}),
+ * which leaves its connection unusable until the stream is closed, so sizes and offers are
+ * read in a short transaction on a second connection. An export therefore holds two.
+ */
+@Service
+public class ProductExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductExportService.class);
+
+    @Autowired
+    private ProductSizeRepository productSizeRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.export.batch-size:500}")
+    private int batchSize;
+
+    private int fetchSize;
+    private TransactionTemplate batchTx;
+
+    @PostConstruct
+    void init() {
+        boolean mysql = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof MySQLDialect;
+        // Connector/J streams only with this exact value; other drivers take a plain fetch size.
+        fetchSize = mysql ? Integer.MIN_VALUE : batchSize;
+        batchTx = new TransactionTemplate(transactionManager);
+        batchTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        batchTx.setReadOnly(true);
+    }
+
+    /** Streams every product to {@code out} in product-id order and returns how many were written. */
+    public long exportNdjson(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ProductDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        long started = System.nanoTime();
+        try {
+            Long written = tx.execute(status -> {
+                long count = 0;
+                // A full pass would push every hot product and category out of the second-level
+                // cache, so it neither reads nor fills it.
+                Session session = entityManager.unwrap(Session.class);
+                CacheMode cacheMode = session.getCacheMode();
+                session.setCacheMode(CacheMode.IGNORE);
+                try (Stream<Product> products = streamAllOrderByProductId()) {
+                    List<Product> batch = new ArrayList<>(batchSize);
+                    Iterator<Product> it = products.iterator();
+                    while (it.hasNext()) {
+                        batch.add(it.next());
+                        if (batch.size() == batchSize || !it.hasNext()) {
+                            writeBatch(batch, writer, generator);
+                            count += batch.size();
+                            batch.clear();
+                            entityManager.clear();
+                        }
+                    }
+                } finally {
+                    session.setCacheMode(cacheMode);
+                }
+                return count;
+            });
+            log.info("Exported {} products in {} ms", written, (System.nanoTime() - started) / 1_000_000);
+            return written != null ? written : 0;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            generator.close();
+        }
+    }
+
+    // Must be consumed inside a transaction and closed; sizes and offers are loaded per
+    // batch by the caller, not by subselect.
+    private Stream<Product> streamAllOrderByProductId() {
+        return entityManager.createQuery("SELECT p FROM Product p LEFT JOIN FETCH p.category ORDER BY p.productId",
+                        Product.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private void writeBatch(List<Product> batch, ObjectWriter writer, JsonGenerator generator) {
+        List<String> ids = new ArrayList<>(batch.size());
+        for (Product product : batch) {
+            ids.add(product.getProductId());
+        }
+        List<Map<String, List<String>>> children = batchTx.execute(status -> List.of(
+                groupByProduct(productSizeRepository.findSizesByProductIdIn(ids)),
+                groupByProduct(offerRepository.findDescriptionsByProductIdIn(ids))));
+        Map<String, List<String>> sizes = children.get(0);
+        Map<String, List<String>> offers = children.get(1);
+        try {
+            for (Product product : batch) {
+                String id = product.getProductId();
+                ProductDTO dto = productMapper.convertToDTO(product,
+                        sizes.getOrDefault(id, List.of()), offers.getOrDefault(id, List.of()));
+                writer.writeValue(generator, dto);
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, List<String>> groupByProduct(List<Object[]> rows) {
+        Map<String, List<String>> grouped = new HashMap<>();
+        for (Object[] row : rows) {
+            grouped.computeIfAbsent((String) row[0], k -> new ArrayList<>()).add((String) row[1]);
+        }
+        return grouped;
+    }
+}
@@ -0,0 +1,95 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.catalog.CatalogEntry;
+import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.entity.Offer;
+import com.shop.ecommerce.entity.Product;
+import com.shop.ecommerce.entity.ProductSize;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class ProductMapper {
+
+    // Registered globally so the mapper can still be used outside a Spring context.
+    private final Timer responseConversions = conversionTimer("response");
+    private final Timer snapshotConversions = conversionTimer("snapshot");
+
+    private static Timer conversionTimer(String target) {
+        return Timer.builder("catalog.dto.conversion")
+                .description("Entity to DTO conversion of a batch of products")
+                .tag("target", target)
+                .register(Metrics.globalRegistry);
+    }
+
+    public ProductDTO convertToDTO(Product product) {
+        ProductDTO dto = convertScalars(product);
+
+        if (product.getSizes() != null) {
+            dto.setSizes(product.getSizes().stream()
+                    .map(ProductSize::getSize)
+                    .collect(Collectors.toList()));
+        }
+
+        if (product.getOffers() != null) {
+            dto.setOffers(product.getOffers().stream()
+                    .map(Offer::getOfferDescription)
+                    .collect(Collectors.toList()));
+        }
+
+        return dto;
+    }
+
+    /** Converts without touching the lazy collections; sizes and offers were loaded separately. */
+    public ProductDTO convertToDTO(Product product, List<String> sizes, List<String> offers) {
+        ProductDTO dto = convertScalars(product);
+        dto.setSizes(sizes);
+        dto.setOffers(offers);
+        return dto;
+    }
+
+    private ProductDTO convertScalars(Product product) {
+        ProductDTO dto = new ProductDTO();
+        dto.setProductId(product.getProductId());
+        dto.setProductName(product.getProductName());
+        dto.setCategoryName(product.getCategory() != null ? product.getCategory().getCategoryName() : null);
+        dto.setDescription(product.getDescription());
+        dto.setPrice(product.getPrice());
+        dto.setOriginalPrice(product.getOriginalPrice());
+        dto.setDiscountPercent(product.getDiscountPercent());
+        dto.setQuantityInStock(product.getQuantityInStock());
+        dto.setBrand(product.getBrand());
+        dto.setImageUrl(product.getImageUrl());
+        return dto;
+    }
+
+    public List<ProductDTO> convertAll(Collection<Product> products) {
+        return responseConversions.record(() -> {
+            List<ProductDTO> dtos = new ArrayList<>(products.size());
+            for (Product product : products) {
+                dtos.add(convertToDTO(product));
+            }
+            return dtos;
+        });
+    }
+
+    public CatalogEntry toCatalogEntry(Product product) {
+        Integer categoryId = product.getCategory() != null ? product.getCategory().getCategoryId() : null;
+        return new CatalogEntry(convertToDTO(product), categoryId, product.getCreatedAt());
+    }
+
+    public List<CatalogEntry> toCatalogEntries(Collection<Product> products) {
+        return snapshotConversions.record(() -> {
+            List<CatalogEntry> entries = new ArrayList<>(products.size());
+            for (Product product : products) {
+                entries.add(toCatalogEntry(product));
+            }
+            return entries;
+        });
+    }
+}
@@ -1,17 +1,32 @@
 package com.shop.ecommerce.service;
 
+import com.shop.ecommerce.catalog.BrowseQuery;
+import com.shop.ecommerce.catalog.CatalogEntry;
+import com.shop.ecommerce.catalog.CatalogSnapshot;
+import com.shop.ecommerce.catalog.ProductCursor;
+import com.shop.ecommerce.catalog.ProductSearchIndex;
+import com.shop.ecommerce.catalog.ProductSort;
+import com.shop.ecommerce.catalog.SearchTokenizer;
+import com.shop.ecommerce.dto.BrowseResult;
+import com.shop.ecommerce.dto.ProductBatch;
 import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.dto.ProductPage;
 import com.shop.ecommerce.entity.Product;
-import com.shop.ecommerce.entity.ProductSize;
-import com.shop.ecommerce.entity.Offer;
 import com.shop.ecommerce.repository.ProductRepository;
 import com.shop.ecommerce.repository.ProductSizeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -22,92 +37,384 @@ public class ProductService {
     @Autowired
     private ProductSizeRepository productSizeRepository;
 
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${catalog.page.default-limit:24}")
+    private int defaultPageLimit;
+
+    @Value("${catalog.page.max-limit:100}")
+    private int maxPageLimit;
+
+    @Value("${catalog.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    @Value("${catalog.batch.chunk-size:100}")
+    private int batchChunkSize;
+
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.getAllProducts();
+        }
+        return productMapper.convertAll(productRepository.findAll());
     }
 
     public Optional<ProductDTO> getProductById(String id) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return Optional.ofNullable(snapshot.getProduct(id));
+        }
         return productRepository.findById(id)
-                .map(this::convertToDTO);
+                .map(productMapper::convertToDTO);
     }
 
     public List<ProductDTO> getProductsByCategory(Integer categoryId) {
-        return productRepository.findByCategoryId(categoryId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.getProductsByCategory(categoryId);
+        }
+        return productMapper.convertAll(productRepository.findByCategoryId(categoryId));
     }
 
     public List<ProductDTO> searchProducts(String name) {
-        return productRepository.findByProductNameContaining(name).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return searchProducts(name, null);
+    }
+
+    /**
+     * Products matching every term of {@code name}, best match first. A query with nothing
+     * searchable in it, blank or punctuation only, matches every product in id order.
+     */
+    public List<ProductDTO> searchProducts(String name, Integer limit) {
+        if (SearchTokenizer.tokenize(name).isEmpty()) {
+            return firstProducts(limit != null ? Math.max(1, limit) : null);
+        }
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        ProductSearchIndex index = catalogSnapshotService.searchIndex();
+        if (snapshot != null && index != null) {
+            List<ProductDTO> results = new ArrayList<>();
+            for (String productId : index.search(name, limit != null ? Math.max(1, limit) : 0)) {
+                ProductDTO product = snapshot.getProduct(productId);
+                if (product != null) {
+                    results.add(product);
+                }
+            }
+            return results;
+        }
+        List<Product> found = productRepository.findByProductNameContaining(name);
+        if (limit != null && found.size() > Math.max(1, limit)) {
+            found = found.subList(0, Math.max(1, limit));
+        }
+        return productMapper.convertAll(found);
+    }
+
+    private List<ProductDTO> firstProducts(Integer limit) {
+        if (limit == null) {
+            return getAllProducts();
+        }
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            List<ProductDTO> all = snapshot.getAllProducts();
+            return all.size() > limit ? all.subList(0, limit) : all;
+        }
+        return productMapper.convertAll(
+                productRepository.findAll(PageRequest.of(0, limit, Sort.by("productId"))).getContent());
     }
 
     public List<ProductDTO> getProductsByBrand(String brand) {
-        return productRepository.findByBrand(brand).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.getProductsByBrand(brand);
+        }
+        return productMapper.convertAll(productRepository.findByBrand(brand));
     }
 
     public List<ProductDTO> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return productRepository.findByPriceRange(minPrice, maxPrice).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return getProductsByPriceRange(minPrice, maxPrice, null, false);
+    }
+
+    public List<ProductDTO> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice,
+                                                    Integer categoryId, boolean inStockOnly) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.getProductsByPriceRange(minPrice, maxPrice, categoryId, inStockOnly);
+        }
+        if (categoryId == null && !inStockOnly) {
+            return productMapper.convertAll(productRepository.findByPriceRange(minPrice, maxPrice));
+        }
+        return productMapper.convertAll(productRepository.findByPriceRange(minPrice, maxPrice, categoryId, inStockOnly));
     }
 
     public List<ProductDTO> getDiscountedProducts() {
-        return productRepository.findDiscountedProducts().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return getDiscountedProducts((Integer) null);
+    }
+
+    public List<ProductDTO> getDiscountedProducts(Integer categoryId) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.getDiscountedProducts(categoryId);
+        }
+        return productMapper.convertAll(categoryId == null
+                ? productRepository.findDiscountedProducts()
+                : productRepository.findDiscountedProductsByCategoryId(categoryId));
     }
 
     public List<ProductDTO> getAvailableProducts() {
-        return productRepository.findAvailableProducts().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.getAvailableProducts();
+        }
+        return productMapper.convertAll(productRepository.findAvailableProducts());
     }
 
     public List<ProductDTO> getLatestProducts() {
-        return productRepository.findLatestProducts().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return getLatestProducts((Integer) null);
+    }
+
+    public List<ProductDTO> getLatestProducts(Integer categoryId) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.getLatestProducts(categoryId);
+        }
+        return productMapper.convertAll(categoryId == null
+                ? productRepository.findLatestProducts()
+                : productRepository.findLatestProductsByCategoryId(categoryId));
+    }
+
+    public ProductPage getAllProducts(String cursor, Integer limit) {
+        ProductCursor after = ProductCursor.decode(ProductSort.PRODUCT_ID, cursor);
+        int pageSize = pageSize(limit);
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.pageAll(after, pageSize);
+        }
+        return toPage(productRepository.findIdPageAfter(afterId(after), Limit.of(pageSize + 1)),
+                pageSize, ProductSort.PRODUCT_ID);
+    }
+
+    public ProductPage getProductsByCategory(Integer categoryId, String cursor, Integer limit) {
+        ProductCursor after = ProductCursor.decode(ProductSort.PRODUCT_ID, cursor);
+        int pageSize = pageSize(limit);
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.pageByCategory(categoryId, after, pageSize);
+        }
+        return toPage(productRepository.findIdPageByCategoryIdAfter(categoryId, afterId(after), Limit.of(pageSize + 1)),
+                pageSize, ProductSort.PRODUCT_ID);
+    }
+
+    public ProductPage getProductsByBrand(String brand, String cursor, Integer limit) {
+        ProductCursor after = ProductCursor.decode(ProductSort.PRODUCT_ID, cursor);
+        int pageSize = pageSize(limit);
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.pageByBrand(brand, after, pageSize);
+        }
+        return toPage(productRepository.findIdPageByBrandAfter(brand, afterId(after), Limit.of(pageSize + 1)),
+                pageSize, ProductSort.PRODUCT_ID);
+    }
+
+    public ProductPage getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, String cursor, Integer limit) {
+        return getProductsByPriceRange(minPrice, maxPrice, null, false, cursor, limit);
+    }
+
+    public ProductPage getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Integer categoryId,
+                                               boolean inStockOnly, String cursor, Integer limit) {
+        ProductCursor after = ProductCursor.decode(ProductSort.PRICE, cursor);
+        int pageSize = pageSize(limit);
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.pageByPriceRange(minPrice, maxPrice, categoryId, inStockOnly, after, pageSize);
+        }
+        BigDecimal afterPrice = after != null ? after.getPrice() : minPrice;
+        return toPage(productRepository.findIdPageByPriceRangeAfter(maxPrice, afterPrice, afterId(after),
+                categoryId, inStockOnly, Limit.of(pageSize + 1)), pageSize, ProductSort.PRICE);
+    }
+
+    public ProductPage getDiscountedProducts(String cursor, Integer limit) {
+        return getDiscountedProducts(null, cursor, limit);
+    }
+
+    /** Top discounts, optionally within a category; an O(limit) slice or an index seek. */
+    public ProductPage getDiscountedProducts(Integer categoryId, String cursor, Integer limit) {
+        ProductCursor after = ProductCursor.decode(ProductSort.DISCOUNT, cursor);
+        int pageSize = pageSize(limit);
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.pageDiscounted(categoryId, after, pageSize);
+        }
+        Integer afterDiscount = after != null ? after.getDiscountPercent() : Integer.MAX_VALUE;
+        List<String> ids = categoryId == null
+                ? productRepository.findDiscountedIdPageAfter(afterDiscount, afterId(after), Limit.of(pageSize + 1))
+                : productRepository.findDiscountedIdPageByCategoryIdAfter(categoryId, afterDiscount, afterId(after),
+                        Limit.of(pageSize + 1));
+        return toPage(ids, pageSize, ProductSort.DISCOUNT);
+    }
+
+    public ProductPage getAvailableProducts(String cursor, Integer limit) {
+        ProductCursor after = ProductCursor.decode(ProductSort.PRODUCT_ID, cursor);
+        int pageSize = pageSize(limit);
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.pageAvailable(after, pageSize);
+        }
+        return toPage(productRepository.findAvailableIdPageAfter(afterId(after), Limit.of(pageSize + 1)),
+                pageSize, ProductSort.PRODUCT_ID);
+    }
+
+    public ProductPage getLatestProducts(String cursor, Integer limit) {
+        return getLatestProducts(null, cursor, limit);
+    }
+
+    /** Newest products, optionally within a category; an O(limit) slice or an index seek. */
+    public ProductPage getLatestProducts(Integer categoryId, String cursor, Integer limit) {
+        ProductCursor after = ProductCursor.decode(ProductSort.LATEST, cursor);
+        int pageSize = pageSize(limit);
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.pageLatest(categoryId, after, pageSize);
+        }
+        return toPage(latestIdPage(categoryId, after, pageSize + 1), pageSize, ProductSort.LATEST);
+    }
+
+    // Same order as ProductSort.LATEST, with or without a category: dated products newest
+    // first, then the undated ones by id. A cursor without a date points into the undated
+    // tail, not at the start.
+    private List<String> latestIdPage(Integer categoryId, ProductCursor after, int limit) {
+        List<String> ids = new ArrayList<>(limit);
+        if (after == null) {
+            ids.addAll(categoryId == null
+                    ? productRepository.findLatestIdPage(Limit.of(limit))
+                    : productRepository.findLatestIdPageByCategoryId(categoryId, Limit.of(limit)));
+        } else if (after.getCreatedAt() != null) {
+            ids.addAll(categoryId == null
+                    ? productRepository.findLatestIdPageAfter(after.getCreatedAt(), after.getProductId(), Limit.of(limit))
+                    : productRepository.findLatestIdPageByCategoryIdAfter(categoryId, after.getCreatedAt(),
+                            after.getProductId(), Limit.of(limit)));
+        }
+        if (ids.size() < limit) {
+            String afterId = after != null && after.getCreatedAt() == null ? after.getProductId() : "";
+            Limit rest = Limit.of(limit - ids.size());
+            ids.addAll(categoryId == null
+                    ? productRepository.findUndatedIdPageAfter(afterId, rest)
+                    : productRepository.findUndatedIdPageByCategoryIdAfter(categoryId, afterId, rest));
+        }
+        return ids;
+    }
+
+    /**
+     * Products for the given ids in request order, duplicates collapsed; ids with no
+     * product are listed in {@code missingIds}. Without a snapshot the ids are loaded in
+     * chunks of {@code catalog.batch.chunk-size}, three statements per chunk.
+     */
+    public ProductBatch getProductsByIds(List<String> productIds) {
+        LinkedHashSet<String> ids = new LinkedHashSet<>();
+        for (String id : productIds) {
+            if (id != null && !id.isBlank()) {
+                ids.add(id.trim());
+            }
+        }
+        if (ids.size() > maxBatchIds) {
+            throw new IllegalArgumentException("At most " + maxBatchIds + " product ids per batch, got " + ids.size());
+        }
+
+        Map<String, ProductDTO> found = new HashMap<>(ids.size() * 2);
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            for (String id : ids) {
+                ProductDTO product = snapshot.getProduct(id);
+                if (product != null) {
+                    found.put(id, product);
+                }
+            }
+        } else {
+            List<String> pending = new ArrayList<>(ids);
+            for (int from = 0; from < pending.size(); from += batchChunkSize) {
+                List<String> chunk = pending.subList(from, Math.min(pending.size(), from + batchChunkSize));
+                for (ProductDTO product : productMapper.convertAll(productRepository.findAllByProductIdIn(chunk))) {
+                    found.put(product.getProductId(), product);
+                }
+            }
+        }
+
+        List<ProductDTO> products = new ArrayList<>(found.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            ProductDTO product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductBatch(products, missing);
+    }
+
+    /**
+     * Faceted browse over the snapshot. Returns empty when no snapshot is loaded:
+     * the listing is computed from in-memory bitmaps only and never queries MySQL.
+     */
+    public Optional<BrowseResult> browseProducts(BrowseQuery query, String cursor, Integer limit) {
+        ProductCursor after = ProductCursor.decode(ProductSort.PRODUCT_ID, cursor);
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        return Optional.of(snapshot.browse(query, after, pageSize(limit)));
     }
 
     public List<String> getAllBrands() {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.getAllBrands();
+        }
         return productRepository.findAllBrands();
     }
 
     public List<String> getAllSizes() {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (snapshot != null) {
+            return snapshot.getAllSizes();
+        }
         return productSizeRepository.findAllSizes();
     }
 
-    private ProductDTO convertToDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setProductId(product.getProductId());
-        dto.setProductName(product.getProductName());
-        dto.setCategoryName(product.getCategory() != null ? product.getCategory().getCategoryName() : null);
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setOriginalPrice(product.getOriginalPrice());
-        dto.setDiscountPercent(product.getDiscountPercent());
-        dto.setQuantityInStock(product.getQuantityInStock());
-        dto.setBrand(product.getBrand());
-        dto.setImageUrl(product.getImageUrl());
-
-        if (product.getSizes() != null) {
-            dto.setSizes(product.getSizes().stream()
-                    .map(ProductSize::getSize)
-                    .collect(Collectors.toList()));
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageLimit;
         }
+        return Math.max(1, Math.min(limit, maxPageLimit));
+    }
+
+    private static String afterId(ProductCursor after) {
+        return after != null ? after.getProductId() : "";
+    }
 
-        if (product.getOffers() != null) {
-            dto.setOffers(product.getOffers().stream()
-                    .map(Offer::getOfferDescription)
-                    .collect(Collectors.toList()));
+    // Seek queries return one id more than the page so we know whether a next page exists.
+    private ProductPage toPage(List<String> ids, int pageSize, ProductSort sort) {
+        boolean more = ids.size() > pageSize;
+        List<String> pageIds = more ? ids.subList(0, pageSize) : ids;
+        Map<String, Product> rows = new HashMap<>();
+        for (Product product : productRepository.findAllByProductIdIn(pageIds)) {
+            rows.put(product.getProductId(), product);
         }
 
-        return dto;
+        List<Product> ordered = new ArrayList<>(pageIds.size());
+        for (String id : pageIds) {
+            Product product = rows.get(id);
+            if (product != null) {
+                ordered.add(product);
+            }
+        }
+        List<ProductDTO> items = productMapper.convertAll(ordered);
+        String next = null;
+        if (more && !items.isEmpty()) {
+            int last = items.size() - 1;
+            next = ProductCursor.after(sort, new CatalogEntry(items.get(last), null, ordered.get(last).getCreatedAt())).encode();
+        }
+        return new ProductPage(items, next);
     }
 }
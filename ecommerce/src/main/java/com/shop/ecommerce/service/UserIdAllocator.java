@@ -0,0 +1,40 @@
+package com.shop.ecommerce.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Hands out {@code Users1.UserID} values from blocks reserved in the {@code id_sequences}
+ * table (see {@link IdBlockAllocator}). Ids left in a block when the application stops
+ * are skipped, so UserIDs can have gaps.
+ */
+@Component
+public class UserIdAllocator {
+
+    static final String SEQUENCE = "Users1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${users.id-block-size:50}")
+    private int blockSize;
+
+    private IdBlockAllocator ids;
+
+    @PostConstruct
+    void start() {
+        ids = new IdBlockAllocator(jdbcTemplate, transactionManager, SEQUENCE,
+                "SELECT COALESCE(MAX(UserID), 0) + 1 FROM Users1", blockSize);
+    }
+
+    public int nextId() {
+        return Math.toIntExact(ids.nextId());
+    }
+}
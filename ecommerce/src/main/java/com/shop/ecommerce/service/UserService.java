@@ -1,9 +1,15 @@
 package com.shop.ecommerce.service;
 
+import com.shop.ecommerce.audit.AuthEventLog;
+import com.shop.ecommerce.audit.AuthEventType;
 import com.shop.ecommerce.entity.User;
+import com.shop.ecommerce.exception.ServiceBusyException;
 import com.shop.ecommerce.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -15,15 +21,30 @@ import java.util.Optional;
 @Transactional
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserIdAllocator userIdAllocator;
+
+    @Autowired
+    private EmailExistenceService emailExistenceService;
+
+    @Autowired
+    private CredentialService credentialService;
+
+    @Autowired
+    private AuthEventLog authEventLog;
+
+    // Login and registration wait for the hashing pool, so they run without a
+    // transaction rather than holding a connection for the whole wait.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> login(String email, String password) {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            System.out.println("🔐 UserService: Login attempt for email: " + email);
-
             if (email == null || email.trim().isEmpty()) {
                 response.put("message", "Email is required");
                 response.put("success", false);
@@ -36,47 +57,42 @@ public class UserService {
                 return response;
             }
 
-            Optional<User> userOptional = userRepository.findByEmail(email.trim().toLowerCase());
+            Optional<User> userOptional = credentialService.authenticate(email, password);
 
             if (userOptional.isPresent()) {
                 User user = userOptional.get();
-                if (user.getPassword().equals(password)) {
-                    System.out.println("✅ UserService: Login successful for: " + user.getFirstName());
-                    response.put("message", "Login successful");
-                    response.put("success", true);
-                    response.put("userId", user.getUserId());
-                    response.put("firstName", user.getFirstName());
-                    response.put("lastName", user.getLastName());
-                    response.put("email", user.getEmail());
-                    return response;
-                } else {
-                    System.out.println("❌ UserService: Invalid password for: " + email);
-                    response.put("message", "Invalid email or password");
-                    response.put("success", false);
-                    return response;
-                }
+                authEventLog.publish(AuthEventType.LOGIN_SUCCEEDED, user.getUserId(), user.getEmail(), null);
+                response.put("message", "Login successful");
+                response.put("success", true);
+                response.put("userId", user.getUserId());
+                response.put("firstName", user.getFirstName());
+                response.put("lastName", user.getLastName());
+                response.put("email", user.getEmail());
+                return response;
             } else {
-                System.out.println("❌ UserService: User not found: " + email);
+                authEventLog.publish(AuthEventType.LOGIN_FAILED, null, email, null);
                 response.put("message", "Invalid email or password");
                 response.put("success", false);
                 return response;
             }
+        } catch (ServiceBusyException e) {
+            authEventLog.publish(AuthEventType.LOGIN_SHED, null, email, null);
+            throw e;
         } catch (Exception e) {
-            System.err.println("❌ UserService: Login error: " + e.getMessage());
-            e.printStackTrace();
+            authEventLog.publishError(AuthEventType.LOGIN_ERROR, email, e);
+            log.error("Login failed", e);
             response.put("message", "Login failed: " + e.getMessage());
             response.put("success", false);
             return response;
         }
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> register(String firstName, String lastName, String email,
                                         String password, String phoneNumber) {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            System.out.println("📝 UserService: Registration attempt for: " + email);
-
             if (firstName == null || firstName.trim().isEmpty()) {
                 response.put("message", "First name is required");
                 response.put("success", false);
@@ -101,27 +117,29 @@ public class UserService {
                 return response;
             }
 
-            if (userRepository.existsByEmail(email.trim().toLowerCase())) {
-                System.out.println("❌ UserService: Email already exists: " + email);
+            String passwordHash = credentialService.hash(password);
+
+            if (emailExistenceService.exists(email)) {
+                authEventLog.publish(AuthEventType.REGISTRATION_REJECTED, null, email, "email_exists");
                 response.put("message", "Email already exists. Please use a different email.");
                 response.put("success", false);
                 return response;
             }
 
-            Integer nextUserId = getNextUserId();
-            System.out.println("🆔 UserService: Next UserID: " + nextUserId);
+            Integer nextUserId = userIdAllocator.nextId();
 
             User newUser = new User();
             newUser.setUserId(nextUserId);
             newUser.setFirstName(firstName.trim());
             newUser.setLastName(lastName.trim());
-            newUser.setPassword(password);
+            newUser.setPassword(passwordHash);
             newUser.setEmail(email.trim().toLowerCase());
             newUser.setPhoneNumber(phoneNumber);
             newUser.setCreatedAt(LocalDateTime.now());
 
             User savedUser = userRepository.save(newUser);
-            System.out.println("✅ UserService: User registered successfully: " + savedUser.getUserId());
+            emailExistenceService.recordRegistered(savedUser.getEmail());
+            authEventLog.publish(AuthEventType.REGISTERED, savedUser.getUserId(), savedUser.getEmail(), null);
 
             response.put("message", "Registration successful! You can now login with your credentials.");
             response.put("success", true);
@@ -131,52 +149,48 @@ public class UserService {
             response.put("email", savedUser.getEmail());
             return response;
 
+        } catch (ServiceBusyException e) {
+            authEventLog.publish(AuthEventType.REGISTRATION_SHED, null, email, null);
+            throw e;
         } catch (Exception e) {
-            System.err.println("❌ UserService: Registration error: " + e.getMessage());
-            e.printStackTrace();
+            authEventLog.publishError(AuthEventType.REGISTRATION_ERROR, email, e);
+            log.error("Registration failed", e);
             response.put("message", "Registration failed: " + e.getMessage());
             response.put("success", false);
             return response;
         }
     }
 
+    @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
         try {
-            return userRepository.existsByEmail(email.trim().toLowerCase());
+            return emailExistenceService.exists(email);
         } catch (Exception e) {
-            System.err.println("❌ UserService: Error checking email: " + e.getMessage());
+            authEventLog.publishError(AuthEventType.EMAIL_CHECK_ERROR, email, e);
+            log.error("Email check failed", e);
             return false;
         }
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> getUserByEmail(String email) {
         try {
             return userRepository.findByEmail(email.trim().toLowerCase());
         } catch (Exception e) {
-            System.err.println("❌ UserService: Error getting user by email: " + e.getMessage());
+            authEventLog.publishError(AuthEventType.USER_LOOKUP_ERROR, email, e);
+            log.error("User lookup by email failed", e);
             return Optional.empty();
         }
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> getUserById(Integer userId) {
         try {
             return userRepository.findById(userId);
         } catch (Exception e) {
-            System.err.println("❌ UserService: Error getting user by ID: " + e.getMessage());
+            authEventLog.publishError(AuthEventType.USER_LOOKUP_ERROR, null, e);
+            log.error("User lookup by id failed", e);
             return Optional.empty();
         }
     }
-
-    private Integer getNextUserId() {
-        try {
-            Integer maxId = userRepository.findAll().stream()
-                    .mapToInt(User::getUserId)
-                    .max()
-                    .orElse(4);
-            return maxId + 1;
-        } catch (Exception e) {
-            System.out.println("⚠️ UserService: Error getting next UserID, using fallback: " + e.getMessage());
-            return 5;
-        }
-    }
 }
@@ -0,0 +1,90 @@
+package com.shop.ecommerce.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthEventRingTests {
+
+	@Test
+	void dropsAndCountsEventsOnceTheConsumerIsAFullRingBehind() {
+		AuthEventRing ring = new AuthEventRing(4);
+		for (int i = 1; i <= 6; i++) {
+			ring.offer(AuthEventType.LOGIN_FAILED, i, i, "user" + i + "@example.com", null, null);
+		}
+		assertThat(ring.dropped()).isEqualTo(2);
+		assertThat(ring.backlog()).isEqualTo(4);
+
+		List<Integer> userIds = new ArrayList<>();
+		assertThat(ring.drain(event -> userIds.add(event.getUserId()), 3)).isEqualTo(3);
+		assertThat(ring.offer(AuthEventType.LOGIN_SUCCEEDED, 7, 7, null, null, null)).isTrue();
+		ring.drain(event -> userIds.add(event.getUserId()), 10);
+
+		assertThat(userIds).containsExactly(1, 2, 3, 4, 7);
+		assertThat(ring.backlog()).isZero();
+	}
+
+	@Test
+	void releasesReferencesHeldBySlotsOnceDrained() {
+		AuthEventRing ring = new AuthEventRing(2);
+		ring.offer(AuthEventType.LOGIN_ERROR, 1, 0, "a@example.com", "detail", new IllegalStateException());
+		List<AuthEvent> seen = new ArrayList<>();
+		ring.drain(event -> {
+			assertThat(event.getError()).isInstanceOf(IllegalStateException.class);
+			seen.add(event);
+		}, 1);
+
+		assertThat(seen.get(0).getEmail()).isNull();
+		assertThat(seen.get(0).getError()).isNull();
+	}
+
+	@Test
+	void keepsEveryEventFromConcurrentProducersWhenThereIsRoom() throws Exception {
+		int producers = 8;
+		int perProducer = 10_000;
+		AuthEventRing ring = new AuthEventRing(1 << 17);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int p = 0; p < producers; p++) {
+				int producer = p;
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < perProducer; i++) {
+						ring.offer(AuthEventType.USER_LOOKUP, i, producer * perProducer + i + 1, null, null, null);
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		boolean[] seen = new boolean[producers * perProducer + 1];
+		int[] lastPerProducer = new int[producers];
+		ring.drain(event -> {
+			int id = event.getUserId();
+			seen[id] = true;
+			int producer = (id - 1) / perProducer;
+			assertThat(id).isGreaterThan(lastPerProducer[producer]);
+			lastPerProducer[producer] = id;
+		}, Integer.MAX_VALUE);
+
+		assertThat(ring.dropped()).isZero();
+		for (int id = 1; id < seen.length; id++) {
+			assertThat(seen[id]).as("event %d", id).isTrue();
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.shop.ecommerce.cart;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CartStoreTests {
+
+	private static final long TTL = 60_000;
+
+	private final AtomicLong now = new AtomicLong(1_000_000);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void linesKeepTheirOrderAndTakeAFewBytesEach() {
+		CompactCart cart = CompactCart.EMPTY
+				.withQuantity("P101", "M", 2)
+				.withQuantity("P104", "", 1)
+				.withQuantity("P101", "L", 300)
+				.withQuantity("P101", "M", 5);
+
+		assertThat(cart.lines()).extracting(CartLine::getProductId, CartLine::getSize, CartLine::getQuantity)
+				.containsExactly(tuple("P101", "M", 5),
+						tuple("P104", "", 1),
+						tuple("P101", "L", 300));
+		assertThat(cart.productIds()).containsExactly("P101", "P104");
+		assertThat(cart.totalQuantity()).isEqualTo(306);
+		assertThat(cart.encodedSize()).isEqualTo(8 + 7 + 9);
+		assertThat(CompactCart.fromBytes(cart.toBytes())).isEqualTo(cart);
+		assertThat(cart.withQuantity("P104", "", 0).withQuantity("P101", "M", 0).withQuantity("P101", "L", 0))
+				.isSameAs(CompactCart.EMPTY);
+	}
+
+	@Test
+	void cartsAreCappedInLinesAndDroppedWhenIdleOrLeastRecentlyUsed() {
+		CartStore store = new CartStore(2, 2, TTL, now::get);
+		store.update("a", cart -> cart.withQuantity("P101", "M", 1).withQuantity("P102", "S", 1));
+		assertThatThrownBy(() -> store.update("a", cart -> cart.withQuantity("P103", "S", 1)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(store.update("a", cart -> cart.withQuantity("P102", "S", 4)).totalQuantity()).isEqualTo(5);
+
+		store.update("b", cart -> cart.withQuantity("P101", "M", 1));
+		now.addAndGet(1_000);
+		store.get("a");
+		store.update("c", cart -> cart.withQuantity("P101", "M", 1));
+		assertThat(store.get("b")).isSameAs(CompactCart.EMPTY);
+		assertThat(store.capacityEvictions()).isEqualTo(1);
+
+		now.addAndGet(1_000);
+		store.get("a");
+		now.addAndGet(TTL - 1_000);
+		assertThat(store.expire()).isEqualTo(1);
+		assertThat(store.get("a").lineCount()).isEqualTo(2);
+		now.addAndGet(TTL);
+		assertThat(store.get("a")).isSameAs(CompactCart.EMPTY);
+		assertThat(store.size()).isZero();
+		assertThat(store.bytes()).isZero();
+		assertThat(store.idleEvictions()).isEqualTo(2);
+	}
+
+	@Test
+	void snapshotsRestoreCartsThatAreStillLive() throws Exception {
+		CartStore store = new CartStore(10, 10, TTL, now::get);
+		store.update("stale", cart -> cart.withQuantity("P103", "S", 1));
+		now.addAndGet(TTL / 2);
+		store.update("user-7", cart -> cart.withQuantity("P101", "M", 2).withQuantity("P104", "XL", 1));
+		assertThat(store.claim("user-7", 7)).isEqualTo(7);
+		assertThat(store.claim("user-7", 8)).isEqualTo(7);
+		Path file = directory.resolve("carts.bin");
+		store.save(file);
+
+		now.addAndGet(TTL / 2 + 1);
+		CartStore restarted = new CartStore(10, 10, TTL, now::get);
+		assertThat(restarted.load(file)).isEqualTo(1);
+		assertThat(restarted.get("user-7")).isEqualTo(store.get("user-7"));
+		assertThat(restarted.claim("user-7", null)).isEqualTo(7);
+		assertThat(restarted.get("stale")).isSameAs(CompactCart.EMPTY);
+		assertThat(restarted.bytes()).isEqualTo(store.get("user-7").encodedSize());
+	}
+}
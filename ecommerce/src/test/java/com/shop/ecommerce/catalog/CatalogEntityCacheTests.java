@@ -0,0 +1,157 @@
+package com.shop.ecommerce.catalog;
+
+import com.shop.ecommerce.entity.Category;
+import com.shop.ecommerce.entity.Product;
+import com.shop.ecommerce.entity.ProductSize;
+import com.shop.ecommerce.repository.ProductRepository;
+import com.shop.ecommerce.repository.ProductSizeRepository;
+import com.shop.ecommerce.service.CatalogSnapshotService;
+import com.shop.ecommerce.service.ProductMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"catalog.snapshot.enabled=false"
+})
+@Import({CatalogEntityCache.class, CatalogVersion.class, CatalogSnapshotService.class, ProductMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogEntityCacheTests {
+
+	@Autowired
+	private CatalogEntityCache catalogEntityCache;
+
+	@Autowired
+	private CatalogSnapshotService catalogSnapshotService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductSizeRepository productSizeRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		catalogEntityCache.evictAll();
+	}
+
+	@Test
+	void secondReadOfAProductAndItsSizesIsServedFromTheCache() {
+		persist("L1", "Acme", "S", "M");
+
+		assertThat(sizesOf("L1")).containsExactly("S", "M");
+		long statements = statistics.getPrepareStatementCount();
+		assertThat(sizesOf("L1")).containsExactly("S", "M");
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+		Map<String, Object> products = region("catalog.products");
+		assertThat((Long) products.get("hits")).isPositive();
+		assertThat((Double) products.get("hitRatio")).isGreaterThan(0.0);
+	}
+
+	@Test
+	void cachedQueriesAreInvalidatedByJpaWritesAndEvictedAfterJdbcWrites() {
+		persist("Q1", "Birch", "L");
+		assertThat(productRepository.findAllBrands()).contains("Birch");
+		assertThat(productSizeRepository.findAllSizes()).contains("L");
+
+		long statements = statistics.getPrepareStatementCount();
+		productRepository.findAllBrands();
+		productSizeRepository.findAllSizes();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+
+		persist("Q2", "Cedar", "XL");
+		assertThat(productRepository.findAllBrands()).contains("Birch", "Cedar");
+
+		jdbcTemplate.update("UPDATE products SET brand = 'Dune', price = 12.50 WHERE product_id = 'Q1'");
+		assertThat(productRepository.findAllBrands()).doesNotContain("Dune");
+		catalogEntityCache.evictProducts(List.of("Q1"));
+		catalogEntityCache.evictQueries();
+
+		assertThat(productRepository.findAllBrands()).contains("Dune");
+		assertThat(productRepository.findById("Q1").orElseThrow().getPrice()).isEqualByComparingTo("12.50");
+	}
+
+	@Test
+	void snapshotRebuildsNeitherReadNorFillTheCache() {
+		persist("R1", "Elm", "S", "M");
+		persist("R2", "Fir", "L");
+		catalogEntityCache.evictAll();
+		statistics.clear();
+
+		assertThat(catalogSnapshotService.rebuild().size()).isGreaterThanOrEqualTo(2);
+
+		assertThat(statistics.getSecondLevelCachePutCount()).isZero();
+		assertThat(statistics.getSecondLevelCacheHitCount()).isZero();
+		assertThat(sizesOf("R1")).containsExactly("S", "M");
+		assertThat(statistics.getSecondLevelCachePutCount()).isPositive();
+	}
+
+	private void persist(String productId, String brand, String... sizes) {
+		inTransaction(() -> {
+			Category category = new Category("Category " + productId, null);
+			entityManager.persist(category);
+			Product product = new Product();
+			product.setProductId(productId);
+			product.setProductName("Product " + productId);
+			product.setCategory(category);
+			product.setBrand(brand);
+			product.setPrice(new BigDecimal("10.00"));
+			entityManager.persist(product);
+			for (String size : sizes) {
+				entityManager.persist(new ProductSize(product, size));
+			}
+			return null;
+		});
+	}
+
+	private List<String> sizesOf(String productId) {
+		return inTransaction(() -> productRepository.findById(productId).orElseThrow().getSizes().stream()
+				.map(ProductSize::getSize).toList());
+	}
+
+	private Map<String, Object> region(String name) {
+		return catalogEntityCache.regionStatistics().stream()
+				.filter(region -> name.equals(region.get("region")))
+				.findFirst().orElseThrow();
+	}
+
+	private <T> T inTransaction(Supplier<T> work) {
+		return new TransactionTemplate(transactionManager).execute(status -> work.get());
+	}
+}
@@ -0,0 +1,185 @@
+package com.shop.ecommerce.catalog;
+
+import com.shop.ecommerce.dto.BrowseResult;
+import com.shop.ecommerce.dto.FacetCount;
+import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.dto.ProductPage;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTests {
+
+	private final CatalogSnapshot snapshot = new CatalogSnapshot(1, entries(37));
+
+	@Test
+	void pagesVisitEveryProductOnceInViewOrder() {
+		assertWalk(ProductSort.PRODUCT_ID, snapshot.getAllProducts(), snapshot::pageAll);
+		assertWalk(ProductSort.PRODUCT_ID, snapshot.getProductsByCategory(1), (after, limit) -> snapshot.pageByCategory(1, after, limit));
+		assertWalk(ProductSort.PRODUCT_ID, snapshot.getProductsByBrand("fashionhub"), (after, limit) -> snapshot.pageByBrand("FashionHub", after, limit));
+		assertWalk(ProductSort.PRODUCT_ID, snapshot.getAvailableProducts(), snapshot::pageAvailable);
+		assertWalk(ProductSort.DISCOUNT, snapshot.getDiscountedProducts(), snapshot::pageDiscounted);
+		assertWalk(ProductSort.LATEST, snapshot.getLatestProducts(), snapshot::pageLatest);
+
+		BigDecimal min = new BigDecimal("810");
+		BigDecimal max = new BigDecimal("830");
+		assertThat(snapshot.getProductsByPriceRange(min, max))
+				.isNotEmpty()
+				.allSatisfy(p -> assertThat(p.getPrice()).isBetween(min, max));
+		assertWalk(ProductSort.PRICE, snapshot.getProductsByPriceRange(min, max),
+				(after, limit) -> snapshot.pageByPriceRange(min, max, after, limit));
+	}
+
+	@Test
+	void priceRangesCombineWithCategoryAndStockFilters() {
+		BigDecimal min = new BigDecimal("805");
+		BigDecimal max = new BigDecimal("830");
+
+		List<ProductDTO> expected = snapshot.getProductsByPriceRange(min, max).stream()
+				.filter(p -> snapshot.getProductsByCategory(2).contains(p))
+				.filter(p -> p.getQuantityInStock() > 0)
+				.toList();
+		assertThat(expected).isNotEmpty();
+		assertThat(snapshot.getProductsByPriceRange(min, max, 2, true)).containsExactlyElementsOf(expected);
+		assertWalk(ProductSort.PRICE, expected,
+				(after, limit) -> snapshot.pageByPriceRange(min, max, 2, true, after, limit));
+		assertThat(snapshot.getProductsByPriceRange(min, max, 99, false)).isEmpty();
+	}
+
+	@Test
+	void categoryTopListsKeepTheGlobalOrder() {
+		List<ProductDTO> inCategory = snapshot.getProductsByCategory(2);
+		List<ProductDTO> discounted = snapshot.getDiscountedProducts().stream().filter(inCategory::contains).toList();
+		List<ProductDTO> latest = snapshot.getLatestProducts().stream().filter(inCategory::contains).toList();
+		assertThat(discounted).isNotEmpty();
+
+		assertThat(snapshot.getDiscountedProducts(2)).containsExactlyElementsOf(discounted);
+		assertThat(snapshot.getLatestProducts(2)).containsExactlyElementsOf(latest);
+		assertWalk(ProductSort.DISCOUNT, discounted, (after, limit) -> snapshot.pageDiscounted(2, after, limit));
+		assertWalk(ProductSort.LATEST, latest, (after, limit) -> snapshot.pageLatest(2, after, limit));
+		assertThat(snapshot.pageLatest(2, null, 3).getItems()).containsExactlyElementsOf(latest.subList(0, 3));
+		assertThat(snapshot.getLatestProducts(99)).isEmpty();
+		assertThat(snapshot.pageDiscounted(99, null, 3).getItems()).isEmpty();
+	}
+
+	@Test
+	void repricedSnapshotsOrderLikeAFreshBuild() {
+		List<CatalogEntry> repriced = entries(37);
+		repriced.get(4).getProduct().setPrice(new BigDecimal("805.50"));
+		repriced.get(20).getProduct().setPrice(new BigDecimal("1.00"));
+
+		CatalogSnapshot incremental = new CatalogSnapshot(2, repriced, snapshot);
+		CatalogSnapshot fresh = new CatalogSnapshot(2, repriced);
+
+		BigDecimal min = BigDecimal.ZERO;
+		BigDecimal max = new BigDecimal("10000");
+		assertThat(incremental.getProductsByPriceRange(min, max))
+				.containsExactlyElementsOf(fresh.getProductsByPriceRange(min, max))
+				.startsWith(repriced.get(20).getProduct());
+	}
+
+	@Test
+	void cursorsAreBoundToTheirOrdering() {
+		String token = snapshot.pageDiscounted(null, 5).getNextCursor();
+
+		assertThat(ProductCursor.decode(ProductSort.DISCOUNT, token).getProductId()).isNotBlank();
+		assertThatThrownBy(() -> ProductCursor.decode(ProductSort.LATEST, token))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ProductCursor.decode(ProductSort.PRICE, "not a cursor"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void browseFiltersAndCountsEachDimensionWithoutItsOwnFilter() {
+		BrowseQuery query = new BrowseQuery(List.of(1), List.of("urban"), List.of(), null, new BigDecimal("820"), true);
+
+		List<ProductDTO> expected = snapshot.getAllProducts().stream()
+				.filter(p -> snapshot.getProductsByCategory(1).contains(p))
+				.filter(p -> p.getBrand().equals("Urban"))
+				.filter(p -> p.getPrice().compareTo(new BigDecimal("820")) <= 0)
+				.filter(p -> p.getQuantityInStock() > 0)
+				.toList();
+		assertThat(expected).hasSize(3);
+		List<ProductDTO> walked = new ArrayList<>();
+		ProductCursor after = null;
+		BrowseResult result;
+		do {
+			result = snapshot.browse(query, after, 2);
+			assertThat(result.getTotal()).isEqualTo(expected.size());
+			walked.addAll(result.getItems());
+			after = ProductCursor.decode(ProductSort.PRODUCT_ID, result.getNextCursor());
+		} while (after != null);
+		assertThat(walked).containsExactlyElementsOf(expected);
+
+		Map<String, Integer> brands = counts(result, "brands");
+		long fashionHub = snapshot.getProductsByCategory(1).stream()
+				.filter(p -> p.getBrand().equals("FashionHub"))
+				.filter(p -> p.getPrice().compareTo(new BigDecimal("820")) <= 0)
+				.filter(p -> p.getQuantityInStock() > 0)
+				.count();
+		assertThat(brands).containsEntry("Urban", expected.size()).containsEntry("FashionHub", (int) fashionHub);
+		assertThat(counts(result, "inStock")).containsEntry("In stock", expected.size());
+	}
+
+	@Test
+	void priceRangesCountOnlyValidPrices() {
+		List<CatalogEntry> entries = entries(5);
+		entries.get(0).getProduct().setPrice(new BigDecimal("-5.00"));
+		entries.get(1).getProduct().setPrice(null);
+		entries.get(2).getProduct().setPrice(new BigDecimal("499.99"));
+
+		BrowseQuery query = new BrowseQuery(List.of(), List.of(), List.of(), null, null, false);
+		CatalogSnapshot priced = new CatalogSnapshot(2, entries);
+		BrowseResult result = priced.browse(query, null, 10);
+
+		assertThat(result.getTotal()).isEqualTo(5);
+		assertThat(counts(result, "priceRanges"))
+				.containsEntry("0-500", 1)
+				.containsEntry("500-1000", 2)
+				.containsEntry("5000+", 0);
+		assertThat(priced.getProductsByPriceRange(BigDecimal.ZERO, new BigDecimal("10000"))).hasSize(3);
+	}
+
+	private static Map<String, Integer> counts(BrowseResult result, String facet) {
+		return result.getFacets().get(facet).stream()
+				.collect(Collectors.toMap(FacetCount::getLabel, FacetCount::getCount));
+	}
+
+	private void assertWalk(ProductSort sort, List<ProductDTO> expected,
+							BiFunction<ProductCursor, Integer, ProductPage> pages) {
+		List<ProductDTO> walked = new ArrayList<>();
+		ProductCursor after = null;
+		do {
+			ProductPage page = pages.apply(after, 4);
+			walked.addAll(page.getItems());
+			after = ProductCursor.decode(sort, page.getNextCursor());
+		} while (after != null);
+		assertThat(walked).containsExactlyElementsOf(expected);
+	}
+
+	static List<CatalogEntry> entries(int count) {
+		List<CatalogEntry> entries = new ArrayList<>();
+		for (int i = 1; i <= count; i++) {
+			ProductDTO dto = new ProductDTO();
+			dto.setProductId(String.format("P%03d", i));
+			dto.setProductName("Product " + i);
+			dto.setBrand(i % 3 == 0 ? "Urban" : "FashionHub");
+			dto.setPrice(new BigDecimal(800 + (i % 5) * 10));
+			dto.setDiscountPercent(i % 4 * 10);
+			dto.setQuantityInStock(i % 5);
+			dto.setSizes(List.of("M", "L"));
+			LocalDateTime createdAt = i % 7 == 0 ? null : LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(i % 5);
+			entries.add(new CatalogEntry(dto, i % 2 + 1, createdAt));
+		}
+		return entries;
+	}
+}
@@ -0,0 +1,65 @@
+package com.shop.ecommerce.catalog;
+
+import com.shop.ecommerce.entity.Category;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import(CatalogVersion.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogVersionTests {
+
+	@Autowired
+	private CatalogVersion catalogVersion;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void advancesOncePerCommittedTransaction() {
+		long before = catalogVersion.current();
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			entityManager.persist(category("Shoes"));
+			entityManager.persist(category("Bags"));
+			entityManager.flush();
+			assertThat(catalogVersion.current()).isEqualTo(before);
+		});
+
+		assertThat(catalogVersion.current()).isEqualTo(before + 1);
+	}
+
+	@Test
+	void rolledBackChangesLeaveTheVersionAlone() {
+		long before = catalogVersion.current();
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			entityManager.persist(category("Hats"));
+			entityManager.flush();
+			status.setRollbackOnly();
+		});
+
+		assertThat(catalogVersion.current()).isEqualTo(before);
+	}
+
+	private static Category category(String name) {
+		Category category = new Category();
+		category.setCategoryName(name);
+		return category;
+	}
+}
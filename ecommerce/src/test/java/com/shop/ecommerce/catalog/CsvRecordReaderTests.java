@@ -0,0 +1,42 @@
+package com.shop.ecommerce.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTests {
+
+	@Test
+	void readsQuotedFieldsAcrossLines() throws Exception {
+		CsvRecordReader reader = new CsvRecordReader(new StringReader(
+				"\uFEFFid,name,note\r\n"
+						+ "P1,\"Shirt, blue\",\"says \"\"hi\"\"\"\r\n"
+						+ "\r\n"
+						+ "P2,\"two\nlines\",\n"
+						+ "P3,plain,last"));
+
+		assertThat(reader.next()).containsExactly("id", "name", "note");
+		assertThat(reader.recordLine()).isEqualTo(1);
+		assertThat(reader.next()).containsExactly("P1", "Shirt, blue", "says \"hi\"");
+		assertThat(reader.recordLine()).isEqualTo(2);
+		assertThat(reader.next()).containsExactly("P2", "two\nlines", "");
+		assertThat(reader.recordLine()).isEqualTo(4);
+		assertThat(reader.next()).containsExactly("P3", "plain", "last");
+		assertThat(reader.recordLine()).isEqualTo(6);
+		assertThat(reader.next()).isNull();
+	}
+
+	@Test
+	void rejectsAnUnterminatedQuote() throws Exception {
+		CsvRecordReader reader = new CsvRecordReader(new StringReader("id,name\nP1,\"open\n"));
+
+		reader.next();
+
+		assertThatThrownBy(reader::next)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("line 2");
+	}
+}
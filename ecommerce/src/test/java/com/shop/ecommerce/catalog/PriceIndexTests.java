@@ -0,0 +1,52 @@
+package com.shop.ecommerce.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceIndexTests {
+
+	@Test
+	void rangesAreInclusiveWholeCentBounds() {
+		PriceIndex index = PriceIndex.of(new long[]{79900, PriceIndex.NO_PRICE, 50000, 79900, 129900});
+
+		int from = index.lowerBound(PriceIndex.ceilCents(new BigDecimal("500.001")));
+		int to = index.upperBound(PriceIndex.floorCents(new BigDecimal("799")));
+
+		assertThat(index.size()).isEqualTo(4);
+		assertThat(new int[]{index.ordinalAt(from), index.ordinalAt(from + 1)}).containsExactly(0, 3);
+		assertThat(to - from).isEqualTo(2);
+		assertThat(index.upperBound(79900, 0)).isEqualTo(index.lowerBound(79900, 3));
+	}
+
+	@Test
+	void repricingMatchesARebuild() {
+		Random random = new Random(7);
+		long[] prices = new long[500];
+		for (int i = 0; i < prices.length; i++) {
+			prices[i] = i % 50 == 0 ? PriceIndex.NO_PRICE : 100 * (1 + random.nextInt(40));
+		}
+		PriceIndex index = PriceIndex.of(prices);
+
+		for (int round = 0; round < 20; round++) {
+			int[] changed = new int[1 + random.nextInt(8)];
+			long[] cents = new long[changed.length];
+			for (int c = 0; c < changed.length; c++) {
+				changed[c] = random.nextInt(prices.length);
+				cents[c] = random.nextInt(10) == 0 ? PriceIndex.NO_PRICE : 100 * (1 + random.nextInt(40));
+				prices[changed[c]] = cents[c];
+			}
+			index = index.withPrices(changed, cents);
+
+			PriceIndex rebuilt = PriceIndex.of(prices);
+			assertThat(index.size()).isEqualTo(rebuilt.size());
+			for (int i = 0; i < rebuilt.size(); i++) {
+				assertThat(index.ordinalAt(i)).isEqualTo(rebuilt.ordinalAt(i));
+				assertThat(index.centsAt(i)).isEqualTo(rebuilt.centsAt(i));
+			}
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.shop.ecommerce.catalog;
+
+import com.shop.ecommerce.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTests {
+
+	private final ProductSearchIndex index = ProductSearchIndex.of(List.of(
+			product("P101", "Men Cotton Shirt", "Men", "Comfortable cotton shirt for men"),
+			product("P102", "Women Floral Dress", "Women", "Beautiful floral dress, pairs with a shirt"),
+			product("P103", "Kids Winter Jacket", "Kids", "Warm winter jacket for kids"),
+			product("P104", "Men Leather Jacket", "Men", "Premium leather jacket for men"),
+			product("P105", "Café Crème Kurta", "Women", "Festive kurta")));
+
+	@Test
+	void ranksNameMatchesAboveDescriptionMatches() {
+		assertThat(index.search("shirt", 0)).containsExactly("P101", "P102");
+	}
+
+	@Test
+	void requiresEveryTermAndMatchesTheLastAsPrefix() {
+		assertThat(index.search("men jack", 0)).containsExactly("P104");
+		assertThat(index.search("jack", 0)).containsExactlyInAnyOrder("P103", "P104");
+		assertThat(index.search("men dress", 0)).isEmpty();
+	}
+
+	@Test
+	void foldsCaseAndAccents() {
+		assertThat(index.search("CAFE creme", 0)).containsExactly("P105");
+		assertThat(index.search("café", 0)).containsExactly("P105");
+	}
+
+	@Test
+	void appliesIncrementalUpdates() {
+		index.put(product("P103", "Kids Rain Coat", "Kids", "Waterproof coat"));
+		index.remove("P101");
+
+		assertThat(index.search("jacket", 0)).containsExactly("P104");
+		assertThat(index.search("coat", 0)).containsExactly("P103");
+		assertThat(index.search("cotton", 0)).isEmpty();
+		assertThat(index.size()).isEqualTo(4);
+	}
+
+	@Test
+	void honoursTheLimit() {
+		assertThat(index.search("m", 1)).hasSize(1);
+	}
+
+	@Test
+	void aShortPrefixExpandsTheTermsFoundInMostProducts() {
+		List<ProductDTO> products = new ArrayList<>();
+		// A hundred one-off terms that sort before the common one.
+		for (int i = 0; i < 100; i++) {
+			products.add(product(String.format("R%03d", i), String.format("Sa%02d", i), "Misc", null));
+		}
+		for (int i = 0; i < 5; i++) {
+			products.add(product("W" + i, "Wool Sweater " + i, "Winter", null));
+		}
+		ProductSearchIndex wide = ProductSearchIndex.of(products);
+
+		assertThat(wide.search("s", 0)).contains("W0", "W1", "W2", "W3", "W4");
+		assertThat(wide.search("sw", 0)).containsExactlyInAnyOrder("W0", "W1", "W2", "W3", "W4");
+	}
+
+	private static ProductDTO product(String id, String name, String category, String description) {
+		ProductDTO dto = new ProductDTO();
+		dto.setProductId(id);
+		dto.setProductName(name);
+		dto.setCategoryName(category);
+		dto.setDescription(description);
+		dto.setBrand("FashionHub");
+		return dto;
+	}
+}
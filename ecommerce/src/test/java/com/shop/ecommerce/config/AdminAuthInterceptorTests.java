@@ -0,0 +1,71 @@
+package com.shop.ecommerce.config;
+
+import com.shop.ecommerce.catalog.CatalogEntityCache;
+import com.shop.ecommerce.controller.CatalogAdminController;
+import com.shop.ecommerce.controller.UserAdminController;
+import com.shop.ecommerce.service.CatalogImportService;
+import com.shop.ecommerce.service.CatalogSnapshotService;
+import com.shop.ecommerce.service.EmailExistenceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = {CatalogAdminController.class, UserAdminController.class},
+		properties = "admin.api-key=s3cret-admin-key")
+class AdminAuthInterceptorTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private CatalogSnapshotService catalogSnapshotService;
+
+	@MockitoBean
+	private CatalogImportService catalogImportService;
+
+	@MockitoBean
+	private CatalogEntityCache catalogEntityCache;
+
+	@MockitoBean
+	private EmailExistenceService emailExistenceService;
+
+	@MockitoBean
+	private CatalogConditionalRequestInterceptor catalogConditionalRequestInterceptor;
+
+	@Test
+	void adminEndpointsRefuseRequestsWithoutTheKeyBeforeDoingAnyWork() throws Exception {
+		mockMvc.perform(post("/api/admin/catalog/import").contentType("text/csv").content("product_id\nP1\n"))
+				.andExpect(status().isUnauthorized())
+				.andExpect(jsonPath("$.success").value(false));
+		mockMvc.perform(post("/api/admin/catalog/refresh").header(AdminAuthInterceptor.HEADER, "guess"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(delete("/api/admin/catalog/cache"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/admin/users/email-filter/rebuild"))
+				.andExpect(status().isUnauthorized());
+
+		verify(catalogImportService, never()).importCatalog(any(), any());
+		verify(catalogSnapshotService, never()).rebuild();
+		verify(catalogEntityCache, never()).evictAll();
+		verify(emailExistenceService, never()).rebuild();
+	}
+
+	@Test
+	void theConfiguredKeyIsAccepted() throws Exception {
+		mockMvc.perform(delete("/api/admin/catalog/cache").header(AdminAuthInterceptor.HEADER, "s3cret-admin-key"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.success").value(true));
+
+		verify(catalogEntityCache).evictAll();
+	}
+}
@@ -0,0 +1,115 @@
+package com.shop.ecommerce.config;
+
+import com.shop.ecommerce.catalog.CatalogVersion;
+import com.shop.ecommerce.controller.CategoryController;
+import com.shop.ecommerce.controller.ProductController;
+import com.shop.ecommerce.service.CatalogResponseCache;
+import com.shop.ecommerce.service.CatalogSnapshotService;
+import com.shop.ecommerce.service.CategoryService;
+import com.shop.ecommerce.service.ProductExportService;
+import com.shop.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({ProductController.class, CategoryController.class})
+@Import({CatalogVersion.class, CatalogConditionalRequestInterceptor.class, CatalogCacheHeadersFilter.class,
+		CatalogResponseCache.class})
+class CatalogConditionalRequestInterceptorTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CatalogVersion catalogVersion;
+
+	@MockitoBean
+	private ProductService productService;
+
+	@MockitoBean
+	private ProductExportService productExportService;
+
+	@MockitoBean
+	private CategoryService categoryService;
+
+	@MockitoBean
+	private CatalogSnapshotService catalogSnapshotService;
+
+	@Test
+	void unchangedCatalogIsAnsweredWithNotModifiedWithoutCallingTheService() throws Exception {
+		when(productService.getAllBrands()).thenReturn(List.of("Acme"));
+
+		String etag = mockMvc.perform(get("/api/products/brands"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=300"))
+				.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).startsWith("\"").endsWith("\"");
+
+		mockMvc.perform(get("/api/products/brands").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+		verify(productService, times(1)).getAllBrands();
+
+		catalogVersion.advance();
+		mockMvc.perform(get("/api/products/brands").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+		verify(productService, times(2)).getAllBrands();
+	}
+
+	@Test
+	void exportTagsEachEncodingSeparatelyAndAlwaysRevalidates() throws Exception {
+		String plain = mockMvc.perform(get("/api/products/export"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String gzip = mockMvc.perform(get("/api/products/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		assertThat(gzip).isNotEqualTo(plain);
+		mockMvc.perform(get("/api/products/export").header(HttpHeaders.IF_NONE_MATCH, gzip))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void categoriesAreConditionalToo() throws Exception {
+		String etag = mockMvc.perform(get("/api/categories"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void errorResponsesCarryNoValidatorsOrPublicCaching() throws Exception {
+		when(productService.getProductById("missing")).thenReturn(Optional.empty());
+		when(productService.browseProducts(any(), eq(null), eq(null))).thenReturn(Optional.empty());
+
+		mockMvc.perform(get("/api/products/missing"))
+				.andExpect(status().isNotFound())
+				.andExpect(header().doesNotExist(HttpHeaders.ETAG))
+				.andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+				.andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+		mockMvc.perform(get("/api/products/browse"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().doesNotExist(HttpHeaders.ETAG))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
+	}
+}
@@ -0,0 +1,49 @@
+package com.shop.ecommerce.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitingDataSourceTests {
+
+	private ConcurrencyLimitingDataSource dataSource;
+
+	@BeforeEach
+	void setUp() {
+		JdbcDataSource h2 = new JdbcDataSource();
+		h2.setURL("jdbc:h2:mem:limiter;DB_CLOSE_DELAY=-1");
+		dataSource = new ConcurrencyLimitingDataSource(h2, 2, 50);
+	}
+
+	@Test
+	void waitsForAPermitAndTimesOutWhenAllAreHeld() throws Exception {
+		Connection first = dataSource.getConnection();
+		Connection second = dataSource.getConnection();
+		assertThat(dataSource.getAvailablePermits()).isZero();
+
+		assertThatThrownBy(() -> dataSource.getConnection())
+				.isInstanceOf(SQLTransientConnectionException.class);
+
+		first.close();
+		try (Connection third = dataSource.getConnection()) {
+			assertThat(third.isValid(1)).isTrue();
+		}
+		second.close();
+		assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+	}
+
+	@Test
+	void closingTwiceReleasesOnlyOnePermit() throws Exception {
+		Connection connection = dataSource.getConnection();
+		connection.close();
+		connection.close();
+
+		assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+	}
+}
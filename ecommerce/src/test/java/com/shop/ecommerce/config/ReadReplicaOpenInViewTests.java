@@ -0,0 +1,81 @@
+package com.shop.ecommerce.config;
+
+import io.micrometer.core.instrument.Metrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Registration reads Users1 in a read-only transaction, then saves the user, all under
+// open-in-view. The replica has the same schema, so a write routed there would succeed.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:oiv-primary;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.open-in-view=true",
+		"datasource.replicas.enabled=true",
+		"datasource.replicas.urls=" + ReadReplicaOpenInViewTests.REPLICA_URL,
+		"datasource.replicas.sticky-ms=0",
+		"users.email-filter.enabled=false",
+		"catalog.snapshot.enabled=false"
+})
+@AutoConfigureMockMvc
+class ReadReplicaOpenInViewTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:oiv-replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private DataSource primaryDataSource;
+
+	private JdbcTemplate primary;
+	private JdbcTemplate replica;
+
+	@BeforeEach
+	void copySchemaToReplica() {
+		primary = new JdbcTemplate(primaryDataSource);
+		replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+		replica.execute("DROP ALL OBJECTS");
+		primary.queryForList("SCRIPT NODATA", String.class).forEach(replica::execute);
+	}
+
+	@Test
+	void aWriteAfterAReplicaReadInTheSameRequestGoesToThePrimary() throws Exception {
+		double replicaReads = replicaReads();
+		mockMvc.perform(post("/api/auth/register")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("""
+								{"firstName": "Ada", "lastName": "Byron", "email": "ada@example.com", "password": "secret1"}
+								"""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.success").value(true));
+
+		assertThat(replicaReads()).isGreaterThan(replicaReads);
+		assertThat(primary.queryForObject("SELECT COUNT(*) FROM Users1 WHERE Email = 'ada@example.com'", Integer.class))
+				.isEqualTo(1);
+		assertThat(replica.queryForObject("SELECT COUNT(*) FROM Users1", Integer.class)).isZero();
+	}
+
+	private static double replicaReads() {
+		return Metrics.globalRegistry.get("datasource.routing").tag("reason", "read_only").counter().count();
+	}
+}
@@ -0,0 +1,123 @@
+package com.shop.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTests {
+
+	private final List<HikariDataSource> pools = new ArrayList<>();
+	private List<HikariDataSource> replicas;
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+		pools.forEach(HikariDataSource::close);
+	}
+
+	@Test
+	void readOnlyTransactionsRotateOverReplicasAndWritesStayOnPrimary() {
+		Router router = router(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+
+		List<String> reads = List.of(router.read(), router.read(), router.read(), router.read());
+		assertThat(reads).containsExactly("replica-0", "replica-1", "replica-0", "replica-1");
+		assertThat(router.write()).isEqualTo("primary");
+		assertThat(router.jdbc.queryForObject("SELECT name FROM node", String.class)).isEqualTo("primary");
+		assertThat(ReadYourWrites.onPrimary(router::read)).isEqualTo("primary");
+	}
+
+	@Test
+	void leastConnectionsAvoidsABusyReplica() throws Exception {
+		Router router = router(ReadWriteRoutingDataSource.Selection.LEAST_CONNECTIONS);
+
+		try (Connection busy = replicas.get(0).getConnection()) {
+			assertThat(List.of(router.read(), router.read(), router.read())).containsOnly("replica-1");
+		}
+	}
+
+	@Test
+	void aClientReadsItsOwnWritesFromThePrimary() {
+		Router router = router(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		bind(new MockHttpServletRequest(), response);
+		assertThat(router.read()).startsWith("replica");
+		router.write();
+		assertThat(router.read()).isEqualTo("primary");
+		assertThat(response.getHeaders(HttpHeaders.SET_COOKIE)).hasSize(1);
+		Cookie cookie = response.getCookie(ReadYourWrites.COOKIE);
+		assertThat(cookie).isNotNull();
+
+		MockHttpServletRequest sameClient = new MockHttpServletRequest();
+		sameClient.setCookies(cookie);
+		bind(sameClient, new MockHttpServletResponse());
+		assertThat(router.read()).isEqualTo("primary");
+
+		bind(new MockHttpServletRequest(), new MockHttpServletResponse());
+		assertThat(router.read()).startsWith("replica");
+	}
+
+	private Router router(ReadWriteRoutingDataSource.Selection selection) {
+		HikariDataSource primary = pool("primary", false);
+		replicas = List.of(pool("replica-0", true), pool("replica-1", true));
+		return new Router(new ReadWriteRoutingDataSource(primary, replicas, selection, new ReadYourWrites(60_000)));
+	}
+
+	// Each database answers with its own name.
+	private HikariDataSource pool(String name, boolean readOnly) {
+		String url = "jdbc:h2:mem:" + name + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+		JdbcDataSource h2 = new JdbcDataSource();
+		h2.setURL(url);
+		new JdbcTemplate(h2).execute("CREATE TABLE node (name VARCHAR(20)); INSERT INTO node VALUES ('" + name + "')");
+		HikariDataSource pool = new HikariDataSource();
+		pool.setJdbcUrl(url);
+		pool.setMaximumPoolSize(2);
+		pool.setReadOnly(readOnly);
+		pools.add(pool);
+		return pool;
+	}
+
+	private static void bind(MockHttpServletRequest request, MockHttpServletResponse response) {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+	}
+
+	private static final class Router {
+		final JdbcTemplate jdbc;
+		final TransactionTemplate readOnly;
+		final TransactionTemplate readWrite;
+
+		Router(ReadWriteRoutingDataSource routing) {
+			LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+			DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+			jdbc = new JdbcTemplate(dataSource);
+			readOnly = new TransactionTemplate(transactionManager);
+			readOnly.setReadOnly(true);
+			readWrite = new TransactionTemplate(transactionManager);
+		}
+
+		String read() {
+			return readOnly.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+		}
+
+		String write() {
+			return readWrite.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.shop.ecommerce.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.shop.ecommerce.config.CatalogConditionalRequestInterceptor;
+import com.shop.ecommerce.dto.ProductBatch;
+import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.service.AuthTokenService;
+import com.shop.ecommerce.service.CartService;
+import com.shop.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CartController.class)
+@Import({CartService.class, AuthTokenService.class})
+class CartControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AuthTokenService authTokenService;
+
+	@MockitoBean
+	private ProductService productService;
+
+	@MockitoBean
+	private CatalogConditionalRequestInterceptor catalogConditionalRequestInterceptor;
+
+	@Test
+	void cartsAreCreatedUnderRandomServerIssuedIds() throws Exception {
+		String first = createCart();
+		String second = createCart();
+
+		assertThat(UUID.fromString(first).version()).isEqualTo(4);
+		assertThat(second).isNotEqualTo(first);
+		mockMvc.perform(get("/api/cart/" + first))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.itemCount").value(0));
+	}
+
+	@Test
+	void idsTheClientMakesUpAreRejected() throws Exception {
+		stubProduct();
+
+		for (String cartId : List.of("user-1", "guest-abc", "1")) {
+			mockMvc.perform(post("/api/cart/" + cartId + "/items")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content("{\"productId\": \"P1\", \"quantity\": 1}"))
+					.andExpect(status().isBadRequest());
+			mockMvc.perform(get("/api/cart/" + cartId))
+					.andExpect(status().isBadRequest());
+		}
+		String cartId = createCart();
+		mockMvc.perform(post("/api/cart/" + cartId + "/items")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"productId\": \"P1\", \"quantity\": 2}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.itemCount").value(2));
+	}
+
+	@Test
+	void aCartUsedWhileSignedInIsNotFoundForAnyoneElse() throws Exception {
+		stubProduct();
+		String cartId = createCart();
+		mockMvc.perform(post("/api/cart/" + cartId + "/items")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"productId\": \"P1\", \"quantity\": 1}"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/cart/" + cartId).header(HttpHeaders.AUTHORIZATION, bearer(1)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.itemCount").value(1));
+		mockMvc.perform(get("/api/cart/" + cartId).header(HttpHeaders.AUTHORIZATION, bearer(2)))
+				.andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/cart/" + cartId))
+				.andExpect(status().isNotFound());
+		String forged = bearer(1).replaceFirst("Bearer 1\\.", "Bearer 2.");
+		mockMvc.perform(get("/api/cart/" + cartId).header(HttpHeaders.AUTHORIZATION, forged))
+				.andExpect(status().isNotFound());
+	}
+
+	private String bearer(int userId) {
+		return "Bearer " + authTokenService.issue(userId);
+	}
+
+	private void stubProduct() {
+		ProductDTO product = new ProductDTO();
+		product.setProductId("P1");
+		product.setPrice(new BigDecimal("10.00"));
+		when(productService.getProductsByIds(anyList())).thenReturn(new ProductBatch(List.of(product), List.of()));
+	}
+
+	private String createCart() throws Exception {
+		String body = mockMvc.perform(post("/api/cart"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		return JsonPath.read(body, "$.cartId");
+	}
+}
@@ -0,0 +1,61 @@
+package com.shop.ecommerce.controller;
+
+import com.shop.ecommerce.config.AdminAuthInterceptor;
+import com.shop.ecommerce.config.CatalogConditionalRequestInterceptor;
+import com.shop.ecommerce.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = InventoryController.class, properties = "admin.api-key=internal-key")
+class InventoryControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private InventoryService inventoryService;
+
+	@MockitoBean
+	private CatalogConditionalRequestInterceptor catalogConditionalRequestInterceptor;
+
+	@Test
+	void reservationsAreInternalWhileAvailabilityIsPublic() throws Exception {
+		when(inventoryService.available("P1")).thenReturn(4L);
+
+		mockMvc.perform(get("/api/inventory/P1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.available").value(4));
+		mockMvc.perform(post("/api/inventory/reservations")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"productId\": \"P1\", \"quantity\": 4}"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/inventory/reservations/1/commit"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(delete("/api/inventory/reservations/1").header(AdminAuthInterceptor.HEADER, "wrong"))
+				.andExpect(status().isUnauthorized());
+
+		verify(inventoryService, never()).reserve(anyString(), anyInt());
+		verify(inventoryService, never()).commit(anyLong());
+		verify(inventoryService, never()).release(anyLong());
+
+		mockMvc.perform(delete("/api/inventory/reservations/1").header(AdminAuthInterceptor.HEADER, "internal-key"))
+				.andExpect(status().isNotFound());
+		verify(inventoryService).release(1L);
+	}
+}
@@ -0,0 +1,79 @@
+package com.shop.ecommerce.controller;
+
+import com.shop.ecommerce.config.CatalogConditionalRequestInterceptor;
+import com.shop.ecommerce.service.AuthTokenService;
+import com.shop.ecommerce.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OrderController.class)
+@Import(AuthTokenService.class)
+class OrderControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AuthTokenService authTokenService;
+
+	@MockitoBean
+	private OrderService orderService;
+
+	@MockitoBean
+	private CatalogConditionalRequestInterceptor catalogConditionalRequestInterceptor;
+
+	@Test
+	void ordersNeedALoginToken() throws Exception {
+		mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"cartId\": \"c\", \"userId\": 1}"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/api/orders").param("userId", "1"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/api/orders").header(HttpHeaders.AUTHORIZATION, "Bearer 1.9999999999.forged"))
+				.andExpect(status().isUnauthorized());
+		verify(orderService, never()).placeOrderFromCart(anyString(), anyInt());
+	}
+
+	@Test
+	void theUserComesFromTheTokenNotTheRequest() throws Exception {
+		when(orderService.placeOrderFromCart("c", 7)).thenReturn(new HashMap<>(Map.of("orderId", 1L)));
+		when(orderService.getOrdersForUser(7, 20)).thenReturn(List.of());
+
+		mockMvc.perform(post("/api/orders").header(HttpHeaders.AUTHORIZATION, bearer(7))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"cartId\": \"c\", \"userId\": 8}"))
+				.andExpect(status().isCreated());
+		mockMvc.perform(get("/api/orders").param("userId", "8").header(HttpHeaders.AUTHORIZATION, bearer(7)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.userId").value(7));
+
+		verify(orderService).placeOrderFromCart("c", 7);
+		verify(orderService).getOrdersForUser(eq(7), anyInt());
+		verify(orderService, never()).getOrdersForUser(eq(8), anyInt());
+	}
+
+	private String bearer(int userId) {
+		return "Bearer " + authTokenService.issue(userId);
+	}
+}
@@ -0,0 +1,136 @@
+package com.shop.ecommerce.inventory;
+
+import com.shop.ecommerce.exception.InsufficientStockException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InventoryLedgerTests {
+
+	private static final Duration TTL = Duration.ofMinutes(1);
+
+	@TempDir
+	Path journalDirectory;
+
+	@Test
+	void concurrentReservationsOnOneProductNeverOversell() throws Exception {
+		InventoryLedger ledger = new InventoryLedger(id -> 1_000, new InventoryJournal(journalDirectory, false));
+		int threads = 32;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Integer>> granted = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				granted.add(executor.submit(() -> {
+					start.await();
+					int count = 0;
+					while (true) {
+						try {
+							InventoryLedger.Reservation reservation = ledger.reserve("P101", 1, TTL);
+							if (count % 2 == 0) {
+								ledger.commit(reservation.getId());
+							}
+							count++;
+						} catch (InsufficientStockException e) {
+							return count;
+						}
+					}
+				}));
+			}
+			start.countDown();
+			int total = 0;
+			for (Future<Integer> future : granted) {
+				total += future.get();
+			}
+			assertThat(total).isEqualTo(1_000);
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(ledger.available("P101")).isZero();
+		assertThat(ledger.reservedCount()).isEqualTo(1_000);
+		assertThat(ledger.committedCount() + ledger.activeReservations()).isEqualTo(1_000);
+	}
+
+	@Test
+	void expiredHoldsGiveTheirStockBackAndCannotBeCommitted() throws Exception {
+		AtomicLong now = new AtomicLong(1_000);
+		InventoryLedger ledger = new InventoryLedger(id -> id.equals("P101") ? 10 : null,
+				new InventoryJournal(journalDirectory, false), now::get);
+
+		InventoryLedger.Reservation late = ledger.reserve("P101", 4, Duration.ofSeconds(10));
+		InventoryLedger.Reservation swept = ledger.reserve("P101", 5, Duration.ofSeconds(20));
+		assertThat(ledger.available("P101")).isEqualTo(1);
+		assertThatThrownBy(() -> ledger.reserve("P101", 2, TTL)).isInstanceOf(InsufficientStockException.class);
+
+		now.addAndGet(15_000);
+		assertThat(ledger.commit(late.getId())).isFalse();
+		assertThat(ledger.available("P101")).isEqualTo(5);
+
+		now.addAndGet(10_000);
+		assertThat(ledger.expire()).isEqualTo(1);
+		assertThat(ledger.release(swept.getId())).isFalse();
+		assertThat(ledger.available("P101")).isEqualTo(10);
+		assertThat(ledger.expiredCount()).isEqualTo(2);
+		assertThat(ledger.drain().getDeltas()).isEmpty();
+		assertThatThrownBy(() -> ledger.reserve("P999", 1, TTL)).isInstanceOf(NoSuchElementException.class);
+	}
+
+	@Test
+	void onlyCommitsAfterTheAppliedSequenceAreRecovered() throws Exception {
+		InventoryJournal journal = new InventoryJournal(journalDirectory, false);
+		InventoryLedger ledger = new InventoryLedger(id -> 100, journal);
+		sell(ledger, "P101", 3);
+		sell(ledger, "P102", 1);
+		InventoryLedger.Reservation released = ledger.reserve("P101", 7, TTL);
+		ledger.release(released.getId());
+
+		InventoryLedger.Flush flushed = ledger.drain();
+		assertThat(flushed.getDeltas()).isEqualTo(Map.of("P101", -3L, "P102", -1L));
+		assertThat(flushed.getThroughSeq()).isEqualTo(2);
+
+		sell(ledger, "P101", 2);
+		assertThat(ledger.commit(ledger.reserve("P101", 5, TTL).getId(), 42)).isTrue();
+		journal.close();
+		// A crash mid-append leaves a torn last line behind.
+		try (Stream<Path> segments = Files.list(journalDirectory)) {
+			Path last = segments.sorted().reduce((first, second) -> second).orElseThrow();
+			Files.write(last, "5\tP10".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+		}
+
+		InventoryJournal reopened = new InventoryJournal(journalDirectory, false);
+		InventoryLedger restarted = new InventoryLedger(id -> 100, reopened);
+		InventoryLedger.Flush recovered = restarted.recover(flushed.getThroughSeq());
+		assertThat(recovered.getDeltas()).isEqualTo(Map.of("P101", -7L));
+		assertThat(recovered.getLineIds()).containsExactly(42L);
+		assertThat(recovered.getThroughSeq()).isEqualTo(4);
+
+		reopened.deleteThrough(recovered.getSegment());
+		sell(restarted, "P102", 1);
+		assertThat(restarted.drain().getThroughSeq()).isEqualTo(5);
+		try (Stream<Path> segments = Files.list(journalDirectory)) {
+			assertThat(segments.count()).isEqualTo(1);
+		}
+	}
+
+	private static void sell(InventoryLedger ledger, String productId, int quantity) {
+		assertThat(ledger.commit(ledger.reserve(productId, quantity, TTL).getId())).isTrue();
+	}
+}
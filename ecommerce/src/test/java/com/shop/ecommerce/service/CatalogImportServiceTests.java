@@ -0,0 +1,138 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.catalog.CatalogEntityCache;
+import com.shop.ecommerce.catalog.CatalogImportReport;
+import com.shop.ecommerce.catalog.CatalogVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"inventory.flush-interval-ms=3600000",
+		"inventory.sweep-interval-ms=3600000",
+		"catalog.import.batch-size=2"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({CatalogImportService.class, CatalogVersion.class, CatalogEntityCache.class, InventoryService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogImportServiceTests {
+
+	@Autowired
+	private CatalogImportService catalogImportService;
+
+	@Autowired
+	private CatalogVersion catalogVersion;
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@DynamicPropertySource
+	static void journal(DynamicPropertyRegistry registry) {
+		try {
+			registry.add("inventory.journal.dir", Files.createTempDirectory("inventory-journal")::toString);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_sequences (sequence_name VARCHAR(64) PRIMARY KEY, next_value BIGINT NOT NULL)");
+	}
+
+	@Test
+	void insertsValidCsvRowsAndReportsTheRest() {
+		long version = catalogVersion.current();
+
+		CatalogImportReport report = catalogImportService.importCatalog(new StringReader(
+				"product_id,product_name,category,price,quantity_in_stock,sizes,offers\n"
+						+ "C1,\"Shirt, blue\",Shirts,499.00,10,S|M,10% off\n"
+						+ "C2,Jeans,Denim,cheap,5,,\n"
+						+ "C3,Cap,Shirts,99.5\n"
+						+ "C4,\"Dress \"\"A\"\"\",dresses,1299,,M,\n"
+						+ "C5,Scarf,Shirts,12.345,1,,\n"), CatalogImportService.Format.CSV);
+
+		assertThat(report.getStatus()).isEqualTo(CatalogImportReport.Status.COMPLETED);
+		assertThat(report.getRowsRead()).isEqualTo(5);
+		assertThat(report.getInserted()).isEqualTo(2);
+		assertThat(report.getFailed()).isEqualTo(3);
+		assertThat(report.getErrors()).extracting(CatalogImportReport.RowError::getRow).containsExactly(3L, 4L, 6L);
+		assertThat(report.getErrors().get(0).getMessage()).contains("price");
+		assertThat(catalogVersion.current()).isEqualTo(version + 1);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT product_name FROM products WHERE product_id = 'C4'", String.class))
+				.isEqualTo("Dress \"A\"");
+		assertThat(jdbcTemplate.queryForObject("SELECT quantity_in_stock FROM products WHERE product_id = 'C4'", Integer.class))
+				.isZero();
+		assertThat(jdbcTemplate.queryForList("SELECT size FROM product_sizes WHERE product_id = 'C1' ORDER BY size_id", String.class))
+				.containsExactly("S", "M");
+		assertThat(jdbcTemplate.queryForList("SELECT offer_description FROM offers WHERE product_id = 'C1'", String.class))
+				.containsExactly("10% off");
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT category_id) FROM products WHERE product_id IN ('C1', 'C4')", Integer.class))
+				.isEqualTo(2);
+	}
+
+	@Test
+	void updatesExistingProductsAndMovesAvailableStock() {
+		catalogImportService.importCatalog(new StringReader(
+				"productId,productName,price,quantityInStock,sizes\nU1,Boot,50,10,41|42\nU2,Sock,2,7,\n"),
+				CatalogImportService.Format.CSV);
+		inventoryService.reserve("U1", 3);
+		long version = catalogVersion.current();
+
+		CatalogImportReport report = catalogImportService.importCatalog(new StringReader(
+				"{\"productId\":\"U1\",\"productName\":\"Boot\",\"price\":45.50,\"quantityInStock\":25}\n"
+						+ "{not json\n"
+						+ "\n"
+						+ "{\"productId\":\"U2\",\"productName\":\"Socks\",\"price\":2}\n"),
+				CatalogImportService.Format.NDJSON);
+
+		assertThat(report.getStatus()).isEqualTo(CatalogImportReport.Status.COMPLETED);
+		assertThat(report.getUpdated()).isEqualTo(2);
+		assertThat(report.getErrors()).extracting(CatalogImportReport.RowError::getRow).containsExactly(2L);
+		assertThat(catalogVersion.current()).isEqualTo(version + 1);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT price FROM products WHERE product_id = 'U1'", BigDecimal.class))
+				.isEqualByComparingTo("45.50");
+		assertThat(jdbcTemplate.queryForList("SELECT size FROM product_sizes WHERE product_id = 'U1'", String.class))
+				.containsExactlyInAnyOrder("41", "42");
+		assertThat(jdbcTemplate.queryForObject("SELECT quantity_in_stock FROM products WHERE product_id = 'U2'", Integer.class))
+				.isEqualTo(7);
+		assertThat(inventoryService.available("U1")).isEqualTo(22);
+	}
+
+	@Test
+	void stopsOnAMalformedHeader() {
+		long version = catalogVersion.current();
+
+		CatalogImportReport report = catalogImportService.importCatalog(
+				new StringReader("product_id,colour,price\nX1,red,1\n"), CatalogImportService.Format.CSV);
+
+		assertThat(report.getStatus()).isEqualTo(CatalogImportReport.Status.FAILED);
+		assertThat(report.getMessage()).contains("colour");
+		assertThat(catalogVersion.current()).isEqualTo(version);
+		assertThat(catalogImportService.status()).isSameAs(report);
+	}
+}
@@ -0,0 +1,123 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.catalog.CatalogVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig({CatalogResponseCache.class, CatalogVersion.class, JacksonAutoConfiguration.class})
+@TestPropertySource(properties = {
+		"catalog.response-cache.max-bytes=1000",
+		"catalog.response-cache.gzip-min-bytes=64"
+})
+class CatalogResponseCacheTests {
+
+	@Autowired
+	private CatalogResponseCache cache;
+
+	@Autowired
+	private CatalogVersion catalogVersion;
+
+	@MockitoBean
+	private CatalogSnapshotService catalogSnapshotService;
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		cache.clear();
+		catalogVersion.advance();
+	}
+
+	@Test
+	void servesRepeatRequestsFromCachedBytesInEitherEncoding() throws Exception {
+		List<String> brands = Collections.nCopies(40, "Acme");
+
+		ResponseEntity<byte[]> first = cache.respond("brands", null, () -> handler(brands));
+		ResponseEntity<byte[]> gzipped = cache.respond("brands", "gzip, deflate", () -> handler(brands));
+
+		assertThat(calls).hasValue(1);
+		assertThat(first.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(gzipped.getBody().length).isLessThan(first.getBody().length);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody()))) {
+			assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+					.isEqualTo(new String(first.getBody(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	void catalogChangesInvalidateEveryEntry() {
+		cache.respond("brands", null, () -> handler(List.of("Acme")));
+		catalogVersion.advance();
+
+		ResponseEntity<byte[]> after = cache.respond("brands", null, () -> handler(List.of("Acme", "Zest")));
+
+		assertThat(calls).hasValue(2);
+		assertThat(new String(after.getBody(), StandardCharsets.UTF_8)).isEqualTo("[\"Acme\",\"Zest\"]");
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedEntriesPastTheByteBudget() {
+		List<String> body = Collections.nCopies(100, "x");  // about 430 bytes with its gzip copy
+		cache.respond("a", null, () -> handler(body));
+		cache.respond("b", null, () -> handler(body));
+		cache.respond("a", null, () -> handler(body));
+		cache.respond("c", null, () -> handler(body));
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.getTotalBytes()).isLessThanOrEqualTo(1000);
+		cache.respond("a", null, () -> handler(body));
+		assertThat(calls).hasValue(3);
+		cache.respond("b", null, () -> handler(body));
+		assertThat(calls).hasValue(4);
+	}
+
+	@Test
+	void doesNotCacheErrorResponses() {
+		cache.respond("categories", null, () -> {
+			calls.incrementAndGet();
+			return ResponseEntity.notFound().build();
+		});
+		cache.respond("categories", null, () -> handler(List.of()));
+
+		assertThat(calls).hasValue(2);
+	}
+
+	@Test
+	void gzipIsOnlyServedWhenItsQualityIsAboveZero() {
+		List<String> brands = Collections.nCopies(40, "Acme");
+		cache.respond("brands", null, () -> handler(brands));
+
+		assertThat(encoding(cache.respond("brands", "gzip;q=0, deflate", () -> handler(brands)))).isNull();
+		assertThat(encoding(cache.respond("brands", "*;q=0.5, gzip; Q=0.0", () -> handler(brands)))).isNull();
+		assertThat(encoding(cache.respond("brands", "identity, gzip;q=0.2", () -> handler(brands)))).isEqualTo("gzip");
+		assertThat(encoding(cache.respond("brands", "br, *", () -> handler(brands)))).isEqualTo("gzip");
+		assertThat(CatalogResponseCache.acceptsGzip("*;q=0, br")).isFalse();
+	}
+
+	private static String encoding(ResponseEntity<byte[]> response) {
+		return response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+	}
+
+	private ResponseEntity<?> handler(Object body) {
+		calls.incrementAndGet();
+		return ResponseEntity.ok(body);
+	}
+}
@@ -0,0 +1,139 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.catalog.CatalogSnapshot;
+import com.shop.ecommerce.catalog.CatalogVersion;
+import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.entity.Category;
+import com.shop.ecommerce.entity.Offer;
+import com.shop.ecommerce.entity.Product;
+import com.shop.ecommerce.entity.ProductSize;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"catalog.snapshot.check-interval-ms=3600000"
+})
+@Import({ProductService.class, ProductMapper.class, CatalogSnapshotService.class, CatalogVersion.class})
+class CatalogSnapshotServiceTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CatalogSnapshotService catalogSnapshotService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private Statistics statistics;
+	private Category men;
+	private Category women;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		men = new Category("Men", "Men clothing and accessories");
+		women = new Category("Women", "Women clothing and accessories");
+		entityManager.persist(men);
+		entityManager.persist(women);
+		for (int i = 1; i <= 12; i++) {
+			seedProduct(i);
+		}
+		entityManager.flush();
+		entityManager.clear();
+		// Startup already published a snapshot of the empty catalog; start as if that build had failed.
+		ReflectionTestUtils.setField(catalogSnapshotService, "current", null);
+		ReflectionTestUtils.setField(catalogSnapshotService, "searchIndex", null);
+	}
+
+	@Test
+	void readsFallBackToTheDatabaseUntilASnapshotIsLoadedThenServeTheSnapshot() {
+		assertThat(catalogSnapshotService.current()).isNull();
+		assertThat(catalogSnapshotService.searchIndex()).isNull();
+
+		List<List<String>> fromDatabase = read();
+		assertThat(fromDatabase).allSatisfy(ids -> assertThat(ids).isNotEmpty());
+
+		CatalogSnapshot snapshot = catalogSnapshotService.rebuild();
+		assertThat(catalogSnapshotService.current()).isSameAs(snapshot);
+		assertThat(snapshot.size()).isEqualTo(12);
+
+		entityManager.clear();
+		statistics.clear();
+		assertThat(read()).isEqualTo(fromDatabase);
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+
+		// The snapshot serves what was loaded until the next rebuild publishes the change.
+		entityManager.find(Product.class, "P3").setPrice(new BigDecimal("99.00"));
+		entityManager.flush();
+		entityManager.clear();
+
+		ProductDTO loaded = productService.getProductById("P3").orElseThrow();
+		assertThat(loaded.getPrice()).isEqualByComparingTo("849.00");
+		assertThat(loaded.getSizes()).containsExactlyInAnyOrder("M", "L");
+		assertThat(loaded.getOffers()).hasSize(2);
+		assertThat(productService.getProductById("P404")).isEmpty();
+
+		CatalogSnapshot rebuilt = catalogSnapshotService.rebuild();
+		assertThat(rebuilt.getVersion()).isGreaterThan(snapshot.getVersion());
+		assertThat(productService.getProductById("P3")).get()
+				.satisfies(dto -> assertThat(dto.getPrice()).isEqualByComparingTo("99.00"));
+		assertThat(productService.getProductsByPriceRange(BigDecimal.ZERO, new BigDecimal("100")))
+				.extracting(ProductDTO::getProductId).containsExactly("P3");
+	}
+
+	// Product ids returned by each read, sorted: the database and the snapshot may break ties differently.
+	private List<List<String>> read() {
+		List<Supplier<List<ProductDTO>>> reads = List.of(
+				() -> productService.getAllProducts(),
+				() -> productService.getProductsByCategory(women.getCategoryId()),
+				() -> productService.getProductsByBrand("Urban"),
+				() -> productService.getProductsByPriceRange(new BigDecimal("800"), new BigDecimal("900")),
+				() -> productService.getAvailableProducts(),
+				() -> productService.getDiscountedProducts(),
+				() -> productService.getLatestProducts(),
+				() -> productService.searchProducts("Linen"),
+				() -> productService.getProductById("P5").map(List::of).orElse(List.of()));
+		List<List<String>> ids = new ArrayList<>();
+		for (Supplier<List<ProductDTO>> read : reads) {
+			ids.add(read.get().stream().map(ProductDTO::getProductId).sorted().toList());
+		}
+		return ids;
+	}
+
+	private void seedProduct(int i) {
+		Product product = new Product();
+		product.setProductId("P" + i);
+		product.setProductName(i % 4 == 0 ? "Women Linen Dress " + i : "Men Cotton Shirt " + i);
+		product.setCategory(i % 4 == 0 ? women : men);
+		product.setDescription("Everyday clothing");
+		product.setPrice(new BigDecimal(i % 2 == 0 ? "799.00" : "849.00"));
+		product.setOriginalPrice(new BigDecimal("1299.00"));
+		product.setDiscountPercent(i % 3 == 0 ? 0 : 20 + i);
+		product.setQuantityInStock(i % 5);
+		product.setBrand(i % 3 == 0 ? "Urban" : "FashionHub");
+		product.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(i));
+		product.setSizes(List.of(new ProductSize(product, "M"), new ProductSize(product, "L")));
+		product.setOffers(List.of(new Offer(product, "10% off on first purchase"),
+				new Offer(product, "Free delivery for Prime Members")));
+		entityManager.persist(product);
+	}
+}
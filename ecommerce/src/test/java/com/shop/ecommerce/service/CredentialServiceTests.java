@@ -0,0 +1,102 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.exception.ServiceBusyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = {"auth.hashing.threads=1", "auth.hashing.queue-capacity=1"})
+@Import(CredentialService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CredentialServiceTests {
+
+	@Autowired
+	private CredentialService credentialService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("DROP TABLE IF EXISTS Users1");
+		jdbcTemplate.execute("CREATE TABLE Users1 (UserID INT PRIMARY KEY, FirstName VARCHAR(50), LastName VARCHAR(50), "
+				+ "Password VARCHAR(255), Email VARCHAR(100) UNIQUE, PhoneNumber VARCHAR(15))");
+		jdbcTemplate.update("INSERT INTO Users1 VALUES (1, 'Riya', 'Sharma', 'Riya#2024', 'riya.sharma@example.com', NULL)");
+	}
+
+	@Test
+	void rehashesALegacyPlaintextPasswordAfterLogin() throws Exception {
+		assertThat(credentialService.authenticate("Riya.Sharma@example.com ", "Riya#2024")).isPresent();
+
+		String stored = awaitHashed();
+		assertThat(stored).startsWith("$2a$10$");
+		assertThat(credentialService.authenticate("riya.sharma@example.com", "Riya#2024")).isPresent();
+	}
+
+	@Test
+	void rejectsWrongPasswordsAndUnknownEmails() {
+		assertThat(credentialService.authenticate("riya.sharma@example.com", "riya#2024")).isEmpty();
+		assertThat(credentialService.authenticate("nobody@example.com", "Riya#2024")).isEmpty();
+		assertThat(jdbcTemplate.queryForObject("SELECT Password FROM Users1 WHERE UserID = 1", String.class))
+				.isEqualTo("Riya#2024");
+	}
+
+	@Test
+	void shedsHashingOnceTheQueueIsFull() throws Exception {
+		// One worker and one queue slot: of several simultaneous callers, the rest are turned away.
+		int callers = 6;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		List<Future<String>> futures = new ArrayList<>();
+		try {
+			for (int i = 0; i < callers; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return credentialService.hash("secret1");
+				}));
+			}
+			start.countDown();
+			int hashed = 0;
+			int shed = 0;
+			for (Future<String> future : futures) {
+				try {
+					future.get();
+					hashed++;
+				} catch (ExecutionException e) {
+					assertThat(e.getCause()).isInstanceOf(ServiceBusyException.class);
+					shed++;
+				}
+			}
+			assertThat(hashed).isBetween(1, 2);
+			assertThat(shed).isEqualTo(callers - hashed);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private String awaitHashed() throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			String stored = jdbcTemplate.queryForObject("SELECT Password FROM Users1 WHERE UserID = 1", String.class);
+			if (!stored.equals("Riya#2024")) {
+				return stored;
+			}
+			Thread.sleep(50);
+		}
+		throw new AssertionError("password was not rehashed");
+	}
+}
@@ -0,0 +1,56 @@
+package com.shop.ecommerce.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"users.email-filter.min-capacity=1000"
+})
+@Import(EmailExistenceService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailExistenceServiceTests {
+
+	@Autowired
+	private EmailExistenceService emailExistenceService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		emailExistenceService.rebuild();
+	}
+
+	@Test
+	void rolledBackRegistrationIsNotRemembered() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			emailExistenceService.recordRegistered("Ghost@Example.com");
+			status.setRollbackOnly();
+		});
+
+		assertThat(emailExistenceService.exists("ghost@example.com")).isFalse();
+		assertThat(emailExistenceService.cachedPositives()).isZero();
+	}
+
+	@Test
+	void committedRegistrationIsKnownWithoutAQuery() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			emailExistenceService.recordRegistered("New@Example.com");
+			assertThat(emailExistenceService.currentFilter().mightContain("new@example.com")).isFalse();
+		});
+
+		assertThat(emailExistenceService.currentFilter().mightContain("new@example.com")).isTrue();
+		assertThat(emailExistenceService.exists("new@example.com")).isTrue();
+	}
+}
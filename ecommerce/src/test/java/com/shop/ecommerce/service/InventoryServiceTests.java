@@ -0,0 +1,98 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.catalog.CatalogVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = {"inventory.flush-interval-ms=3600000", "inventory.sweep-interval-ms=3600000"})
+@Import({InventoryService.class, CatalogVersion.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryServiceTests {
+
+	private static Path journalDirectory;
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private CatalogVersion catalogVersion;
+
+	// Journal left behind by a crash: entry 1 reached the database, 2 and 3 did not.
+	@DynamicPropertySource
+	static void journal(DynamicPropertyRegistry registry) {
+		try {
+			journalDirectory = Files.createTempDirectory("inventory-journal");
+			Files.writeString(journalDirectory.resolve("inventory-0000000001.journal"),
+					"1\tP101\t-2\n2\tP101\t-1\n3\tP102\t-4\n", StandardCharsets.US_ASCII);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		registry.add("inventory.journal.dir", journalDirectory::toString);
+	}
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("DROP TABLE IF EXISTS id_sequences");
+		jdbcTemplate.execute("DROP TABLE IF EXISTS products");
+		jdbcTemplate.execute("CREATE TABLE products (product_id VARCHAR(10) PRIMARY KEY, quantity_in_stock INT DEFAULT 0)");
+		jdbcTemplate.execute("CREATE TABLE id_sequences (sequence_name VARCHAR(64) PRIMARY KEY, next_value BIGINT NOT NULL)");
+		jdbcTemplate.update("INSERT INTO products VALUES ('P101', 8), ('P102', 5)");
+		jdbcTemplate.update("INSERT INTO id_sequences VALUES ('inventory_journal', 1)");
+	}
+
+	@Test
+	void appliesUnflushedCommitsOnceThenWritesNewSalesInBatches() throws Exception {
+		assertThat(inventoryService.available("P101")).isEqualTo(7);
+		assertThat(stock("P102")).isEqualTo(1);
+		assertThat(appliedSeq()).isEqualTo(3);
+
+		long first = inventoryService.reserve("P101", 2).getId();
+		long second = inventoryService.reserve("P101", 3).getId();
+		long third = inventoryService.reserve("P102", 1).getId();
+		assertThat(inventoryService.commit(first)).isTrue();
+		assertThat(inventoryService.commit(second)).isTrue();
+		assertThat(inventoryService.release(third)).isTrue();
+		assertThat(stock("P101")).isEqualTo(7);
+
+		long version = catalogVersion.current();
+		inventoryService.flush();
+		assertThat(catalogVersion.current()).isGreaterThan(version);
+		assertThat(stock("P101")).isEqualTo(2);
+		assertThat(stock("P102")).isEqualTo(1);
+		assertThat(appliedSeq()).isEqualTo(5);
+		assertThat(inventoryService.available("P101")).isEqualTo(2);
+		try (Stream<Path> segments = Files.list(journalDirectory)) {
+			assertThat(segments.count()).isZero();
+		}
+	}
+
+	private Integer stock(String productId) {
+		return jdbcTemplate.queryForObject("SELECT quantity_in_stock FROM products WHERE product_id = ?",
+				Integer.class, productId);
+	}
+
+	private Long appliedSeq() {
+		return jdbcTemplate.queryForObject(
+				"SELECT next_value FROM id_sequences WHERE sequence_name = 'inventory_journal'", Long.class);
+	}
+}
@@ -0,0 +1,152 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.cart.CartLine;
+import com.shop.ecommerce.catalog.CatalogVersion;
+import com.shop.ecommerce.dto.ProductBatch;
+import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"inventory.reservation-ttl=200ms",
+		"inventory.flush-interval-ms=3600000",
+		"inventory.sweep-interval-ms=3600000",
+		"inventory.order-sweep-interval-ms=3600000"
+})
+@Import({OrderService.class, OrderWriter.class, InventoryService.class, CatalogVersion.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceTests {
+
+	@Autowired
+	private OrderService orderService;
+
+	@MockitoSpyBean
+	private InventoryService inventoryService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockitoBean
+	private ProductService productService;
+
+	@MockitoBean
+	private CartService cartService;
+
+	@DynamicPropertySource
+	static void journal(DynamicPropertyRegistry registry) throws IOException {
+		String directory = Files.createTempDirectory("order-inventory-journal").toString();
+		registry.add("inventory.journal.dir", () -> directory);
+	}
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_sequences "
+				+ "(sequence_name VARCHAR(64) PRIMARY KEY, next_value BIGINT NOT NULL)");
+		when(productService.getProductsByIds(anyList())).thenAnswer(invocation -> {
+			List<String> ids = invocation.getArgument(0);
+			return new ProductBatch(ids.stream().map(OrderServiceTests::product).toList(), List.of());
+		});
+	}
+
+	@Test
+	void anOrderWrittenWithoutItsStockCommitIsSoldOnceByTheSweep() throws Exception {
+		insertProduct("F1", 10);
+		doThrow(new UncheckedIOException(new IOException("No space left on device")))
+				.when(inventoryService).commit(anyLong(), anyLong());
+
+		Map<String, Object> placed = orderService.placeOrder(7, List.of(new CartLine("F1", null, 3)));
+		reset(inventoryService);
+
+		long orderId = (Long) placed.get("orderId");
+		assertThat(orderRepository.findById(orderId)).isPresent();
+		assertThat(stockCommitted(orderId)).containsExactly(false);
+
+		Thread.sleep(300);
+		inventoryService.expireReservations();
+		assertThat(inventoryService.available("F1")).isEqualTo(10);
+		assertThat(inventoryService.commitUnsettledLines(LocalDateTime.now().minusMinutes(1))).isZero();
+
+		LocalDateTime later = LocalDateTime.now().plusSeconds(1);
+		assertThat(inventoryService.commitUnsettledLines(later)).isEqualTo(1);
+		assertThat(inventoryService.commitUnsettledLines(later)).isZero();
+		assertThat(inventoryService.available("F1")).isEqualTo(7);
+
+		inventoryService.flush();
+		assertThat(inventoryService.commitUnsettledLines(later)).isZero();
+		inventoryService.flush();
+		assertThat(stock("F1")).isEqualTo(7);
+		assertThat(inventoryService.available("F1")).isEqualTo(7);
+		assertThat(stockCommitted(orderId)).containsExactly(true);
+	}
+
+	@Test
+	void committedLinesAreNotSoldAgainBeforeOrAfterTheFlush() {
+		insertProduct("C1", 10);
+		insertProduct("C2", 5);
+
+		long orderId = (Long) orderService.placeOrder(8,
+				List.of(new CartLine("C1", null, 2), new CartLine("C2", null, 1))).get("orderId");
+
+		LocalDateTime later = LocalDateTime.now().plusSeconds(1);
+		assertThat(inventoryService.commitUnsettledLines(later)).isZero();
+		inventoryService.flush();
+		assertThat(inventoryService.commitUnsettledLines(later)).isZero();
+
+		assertThat(stock("C1")).isEqualTo(8);
+		assertThat(stock("C2")).isEqualTo(4);
+		assertThat(stockCommitted(orderId)).containsExactly(true, true);
+	}
+
+	private void insertProduct(String productId, int stock) {
+		jdbcTemplate.update("INSERT INTO products (product_id, product_name, price, quantity_in_stock) "
+				+ "VALUES (?, ?, 20.00, ?)", productId, "Product " + productId, stock);
+	}
+
+	private static ProductDTO product(String productId) {
+		ProductDTO product = new ProductDTO();
+		product.setProductId(productId);
+		product.setPrice(new BigDecimal("20.00"));
+		return product;
+	}
+
+	private Integer stock(String productId) {
+		return jdbcTemplate.queryForObject("SELECT quantity_in_stock FROM products WHERE product_id = ?",
+				Integer.class, productId);
+	}
+
+	private List<Boolean> stockCommitted(long orderId) {
+		return jdbcTemplate.queryForList("SELECT stock_committed FROM order_lines WHERE order_id = ? ORDER BY line_id",
+				Boolean.class, orderId);
+	}
+}
@@ -0,0 +1,126 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.entity.Order;
+import com.shop.ecommerce.entity.OrderLine;
+import com.shop.ecommerce.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"orders.group-commit.enabled=true",
+		"orders.group-commit.max-wait-ms=200"
+})
+@Import(OrderWriter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderWriterTests {
+
+	@Autowired
+	private OrderWriter orderWriter;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+	@BeforeEach
+	void createSequences() {
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_sequences "
+				+ "(sequence_name VARCHAR(64) PRIMARY KEY, next_value BIGINT NOT NULL)");
+	}
+
+	@Test
+	void concurrentOrdersShareOneTransaction() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		List<Order> written = new ArrayList<>();
+		for (Future<Order> result : writeConcurrently(List.of(order(7, "P1", 2), order(7, "P2", 1), order(8, "P3", 4),
+				order(8, "P4", 1), order(9, "P5", 3), order(9, "P6", 1), order(10, "P7", 2), order(10, "P8", 1)))) {
+			written.add(result.get());
+		}
+
+		assertThat(written).allSatisfy(order -> {
+			assertThat(order.getOrderId()).isNotNull();
+			assertThat(order.getLines()).allSatisfy(line -> assertThat(line.getLineId()).isNotNull());
+		});
+		assertThat(written).extracting(Order::getOrderId).doesNotHaveDuplicates();
+		assertThat(statistics.getSuccessfulTransactionCount()).isLessThan(written.size());
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(written.size() * 4L);
+		assertThat(orderRepository.findByUserIdOrderByOrderIdDesc(8, Limit.of(10))).hasSize(2);
+	}
+
+	@Test
+	void failingOrderDoesNotFailTheRestOfItsBatch() throws Exception {
+		Order broken = order(21, "P1", 1);
+		broken.getLines().get(0).setUnitPrice(null);
+
+		List<Future<Order>> results = writeConcurrently(List.of(order(20, "P1", 1), broken, order(22, "P2", 2)));
+
+		assertThat(results.get(0).get().getOrderId()).isNotNull();
+		assertThat(results.get(2).get().getOrderId()).isNotNull();
+		assertThatThrownBy(() -> results.get(1).get()).hasCauseInstanceOf(RuntimeException.class);
+		assertThat(orderRepository.findByUserIdOrderByOrderIdDesc(20, Limit.of(10))).hasSize(1);
+		assertThat(orderRepository.findByUserIdOrderByOrderIdDesc(21, Limit.of(10))).isEmpty();
+		assertThat(orderRepository.findByUserIdOrderByOrderIdDesc(22, Limit.of(10))).hasSize(1);
+	}
+
+	@AfterEach
+	void stopExecutor() {
+		executor.shutdownNow();
+	}
+
+	// Released together so they reach the writer within one group-commit window.
+	private List<Future<Order>> writeConcurrently(List<Order> orders) {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Order>> results = new ArrayList<>();
+		for (Order order : orders) {
+			results.add(executor.submit(() -> {
+				start.await();
+				return orderWriter.write(order);
+			}));
+		}
+		start.countDown();
+		return results;
+	}
+
+	// Three lines per order: the given product plus two fixed ones.
+	private static Order order(int userId, String productId, int quantity) {
+		Order order = new Order(userId, LocalDateTime.now());
+		order.addLine(new OrderLine(productId, "M", quantity, new BigDecimal("799.00")));
+		order.addLine(new OrderLine("P100", null, 1, new BigDecimal("99.00")));
+		order.addLine(new OrderLine("P101", "L", 1, new BigDecimal("1299.00")));
+		return order;
+	}
+}
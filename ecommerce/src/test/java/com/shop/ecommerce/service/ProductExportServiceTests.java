@@ -0,0 +1,102 @@
+package com.shop.ecommerce.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.entity.Category;
+import com.shop.ecommerce.entity.Offer;
+import com.shop.ecommerce.entity.Product;
+import com.shop.ecommerce.entity.ProductSize;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"catalog.export.batch-size=4"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ProductExportService.class, ProductMapper.class})
+// Sizes and offers are read on a second connection, which must see committed rows.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductExportServiceTests {
+
+	@Autowired
+	private ProductExportService productExportService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void exportsEveryProductAsOneLineInIdOrder() throws Exception {
+		seedProducts(10);
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long written = productExportService.exportNdjson(out);
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(written).isEqualTo(10);
+		assertThat(lines).hasSize(10);
+		List<ProductDTO> products = new ArrayList<>();
+		for (String line : lines) {
+			products.add(objectMapper.readValue(line, ProductDTO.class));
+		}
+		assertThat(products).extracting(ProductDTO::getProductId)
+				.containsExactly("E00", "E01", "E02", "E03", "E04", "E05", "E06", "E07", "E08", "E09");
+		assertThat(products.get(3).getCategoryName()).isEqualTo("Men");
+		assertThat(products.get(3).getSizes()).containsExactly("M", "L");
+		assertThat(products.get(3).getOffers()).containsExactly("Offer E03");
+		// one cursor query, then sizes + offers for each of the three batches
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(7L);
+		assertThat(statistics.getSecondLevelCachePutCount()).isZero();
+	}
+
+	private void seedProducts(int count) {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> persistProducts(count));
+	}
+
+	private void persistProducts(int count) {
+		Category men = new Category("Men", "Men clothing and accessories");
+		entityManager.persist(men);
+		for (int i = count - 1; i >= 0; i--) {
+			Product product = new Product();
+			product.setProductId(String.format("E%02d", i));
+			product.setProductName("Export Shirt " + i);
+			product.setCategory(men);
+			product.setPrice(new BigDecimal("499.00"));
+			product.setQuantityInStock(i);
+			product.setBrand("FashionHub");
+			product.setSizes(List.of(new ProductSize(product, "M"), new ProductSize(product, "L")));
+			product.setOffers(List.of(new Offer(product, "Offer " + product.getProductId())));
+			entityManager.persist(product);
+		}
+		entityManager.flush();
+	}
+}
@@ -0,0 +1,229 @@
+package com.shop.ecommerce.service;
+
+import com.shop.ecommerce.catalog.CatalogVersion;
+import com.shop.ecommerce.dto.ProductBatch;
+import com.shop.ecommerce.dto.ProductDTO;
+import com.shop.ecommerce.dto.ProductPage;
+import com.shop.ecommerce.entity.Category;
+import com.shop.ecommerce.entity.Offer;
+import com.shop.ecommerce.entity.Product;
+import com.shop.ecommerce.entity.ProductSize;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"catalog.snapshot.enabled=false",
+		"catalog.batch.chunk-size=10"
+})
+@Import({ProductService.class, ProductMapper.class, CatalogSnapshotService.class, CatalogVersion.class})
+class ProductServiceQueryCountTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private Statistics statistics;
+	private Category men;
+	private int seeded;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		men = new Category("Men", "Men clothing and accessories");
+		entityManager.persist(men);
+	}
+
+	@Test
+	void listReadsIssueAConstantNumberOfStatements() {
+		List<Supplier<List<?>>> endpoints = List.of(
+				() -> productService.getAllProducts(),
+				() -> productService.getProductsByCategory(men.getCategoryId()),
+				() -> productService.searchProducts("Shirt"),
+				() -> productService.getProductsByBrand("FashionHub"),
+				() -> productService.getProductsByPriceRange(BigDecimal.ZERO, new BigDecimal("100000")),
+				() -> productService.getDiscountedProducts(),
+				() -> productService.getAvailableProducts(),
+				() -> productService.getLatestProducts());
+
+		seedProducts(3);
+		List<Long> small = countStatements(endpoints);
+
+		seedProducts(40);
+		List<Long> large = countStatements(endpoints);
+
+		assertThat(large).isEqualTo(small);
+		assertThat(small).allSatisfy(count -> assertThat(count).isLessThanOrEqualTo(3L));
+	}
+
+	@Test
+	void queriesWithoutSearchableTermsListProductsUpToTheLimit() {
+		seedProducts(5);
+
+		List<String> blank = productService.searchProducts("  ", 3).stream().map(ProductDTO::getProductId).toList();
+		assertThat(blank).hasSize(3);
+		assertThat(productService.searchProducts("?!", 3)).extracting(ProductDTO::getProductId).isEqualTo(blank);
+		assertThat(productService.searchProducts("", null)).hasSize(5);
+	}
+
+	@Test
+	void productLookupIssuesAConstantNumberOfStatements() {
+		seedProducts(5);
+		entityManager.clear();
+		statistics.clear();
+
+		assertThat(productService.getProductById("P1")).isPresent()
+				.get().satisfies(dto -> assertThat(dto.getOffers()).hasSize(2));
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3L);
+	}
+
+	@Test
+	void batchLookupKeepsRequestOrderAndQueriesPerChunk() {
+		seedProducts(25);
+		List<String> ids = new ArrayList<>();
+		for (int i = 25; i >= 1; i--) {
+			ids.add("P" + i);
+		}
+		ids.add(3, "P404");
+		ids.add("P7");
+		entityManager.clear();
+		statistics.clear();
+
+		ProductBatch batch = productService.getProductsByIds(ids);
+
+		// 26 distinct ids in chunks of 10: rows + sizes + offers per chunk
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(9L);
+		assertThat(batch.getProducts()).extracting(ProductDTO::getProductId)
+				.containsExactlyElementsOf(ids.stream().filter(id -> !id.equals("P404")).distinct().toList());
+		assertThat(batch.getProducts()).allSatisfy(dto -> assertThat(dto.getSizes()).hasSize(2));
+		assertThat(batch.getMissingIds()).containsExactly("P404");
+	}
+
+	@Test
+	void cursorPagesWalkTheSameRowsAsTheFullListing() {
+		seedProducts(23);
+
+		assertPagesMatch(productService.getAllProducts(),
+				(cursor, limit) -> productService.getAllProducts(cursor, limit));
+		assertPagesMatch(productService.getProductsByCategory(men.getCategoryId()),
+				(cursor, limit) -> productService.getProductsByCategory(men.getCategoryId(), cursor, limit));
+		assertPagesMatch(productService.getProductsByPriceRange(new BigDecimal("700"), new BigDecimal("900")),
+				(cursor, limit) -> productService.getProductsByPriceRange(new BigDecimal("700"), new BigDecimal("900"), cursor, limit));
+		assertPagesMatch(productService.getDiscountedProducts(),
+				(cursor, limit) -> productService.getDiscountedProducts(cursor, limit));
+		assertPagesMatch(productService.getLatestProducts(),
+				(cursor, limit) -> productService.getLatestProducts(cursor, limit));
+		assertPagesMatch(productService.getDiscountedProducts(men.getCategoryId()),
+				(cursor, limit) -> productService.getDiscountedProducts(men.getCategoryId(), cursor, limit));
+		assertPagesMatch(productService.getLatestProducts(men.getCategoryId()),
+				(cursor, limit) -> productService.getLatestProducts(men.getCategoryId(), cursor, limit));
+	}
+
+	@Test
+	void latestPagesListUndatedProductsLastInAStableOrder() {
+		seedProducts(12);
+		for (String id : List.of("P2", "P5", "P6", "P11", "P12")) {
+			entityManager.find(Product.class, id).setCreatedAt(null);
+		}
+		Category women = new Category("Women", "Women clothing and accessories");
+		entityManager.persist(women);
+		for (String id : List.of("P1", "P3", "P4", "P8", "P9", "P10", "P12")) {
+			entityManager.find(Product.class, id).setCategory(women);
+		}
+		entityManager.flush();
+		List<Product> latest = entityManager.createQuery("SELECT p FROM Product p", Product.class).getResultList().stream()
+				.sorted(Comparator.comparing(Product::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+						.thenComparing(Product::getProductId))
+				.toList();
+		List<String> expected = latest.stream().map(Product::getProductId).toList();
+		List<String> expectedWomen = latest.stream().filter(p -> p.getCategory() == women).map(Product::getProductId).toList();
+		assertThat(expected.subList(7, 12)).containsExactly("P11", "P12", "P2", "P5", "P6");
+		assertThat(expectedWomen.subList(6, 7)).containsExactly("P12");
+
+		// page sizes ending on the last dated row, inside the undated tail and on the last row
+		for (int pageSize : List.of(7, 3, 4, 5)) {
+			assertThat(walk((cursor, limit) -> productService.getLatestProducts(cursor, limit), pageSize))
+					.containsExactlyElementsOf(expected);
+		}
+		for (int pageSize : List.of(6, 2, 4, 7)) {
+			assertThat(walk((cursor, limit) -> productService.getLatestProducts(women.getCategoryId(), cursor, limit), pageSize))
+					.containsExactlyElementsOf(expectedWomen);
+		}
+	}
+
+	private void assertPagesMatch(List<ProductDTO> expected, BiFunction<String, Integer, ProductPage> pages) {
+		assertThat(walk(pages, 5)).containsExactlyInAnyOrderElementsOf(
+				expected.stream().map(ProductDTO::getProductId).toList());
+	}
+
+	private List<String> walk(BiFunction<String, Integer, ProductPage> pages, int pageSize) {
+		List<String> walked = new ArrayList<>();
+		String cursor = null;
+		do {
+			entityManager.clear();
+			statistics.clear();
+			ProductPage page = pages.apply(cursor, pageSize);
+			// id seek (two where the latest feed reaches its undated tail) + product rows + sizes + offers,
+			// independent of catalog depth
+			assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5L);
+			assertThat(page.getItems()).hasSizeLessThanOrEqualTo(pageSize);
+			page.getItems().forEach(dto -> walked.add(dto.getProductId()));
+			assertThat(walked).as("pages never repeat a product").doesNotHaveDuplicates();
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		return walked;
+	}
+
+	private List<Long> countStatements(List<Supplier<List<?>>> endpoints) {
+		List<Long> counts = new ArrayList<>();
+		for (Supplier<List<?>> endpoint : endpoints) {
+			entityManager.clear();
+			statistics.clear();
+			assertThat(endpoint.get()).isNotEmpty();
+			counts.add(statistics.getPrepareStatementCount());
+		}
+		return counts;
+	}
+
+	private void seedProducts(int count) {
+		for (int i = 0; i < count; i++) {
+			seeded++;
+			Product product = new Product();
+			product.setProductId("P" + seeded);
+			product.setProductName("Men Cotton Shirt " + seeded);
+			product.setCategory(men);
+			product.setDescription("Comfortable cotton shirt for men");
+			product.setPrice(new BigDecimal(seeded % 2 == 0 ? "799.00" : "849.00"));
+			product.setOriginalPrice(new BigDecimal("1299.00"));
+			product.setDiscountPercent(30 + seeded % 3);
+			product.setQuantityInStock(5);
+			product.setBrand("FashionHub");
+			product.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(seeded % 4));
+			product.setSizes(List.of(new ProductSize(product, "M"), new ProductSize(product, "L")));
+			product.setOffers(List.of(new Offer(product, "10% off on first purchase"),
+					new Offer(product, "Free delivery for Prime Members")));
+			entityManager.persist(product);
+		}
+		entityManager.flush();
+	}
+}
@@ -0,0 +1,92 @@
+package com.shop.ecommerce.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = "users.id-block-size=10")
+@Import(UserIdAllocator.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+// The allocator keeps its current block in memory, so each test needs a fresh one.
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class UserIdAllocatorTests {
+
+	@Autowired
+	private UserIdAllocator allocator;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("DROP TABLE IF EXISTS id_sequences");
+		jdbcTemplate.execute("DROP TABLE IF EXISTS Users1");
+		jdbcTemplate.execute("CREATE TABLE Users1 (UserID INT PRIMARY KEY)");
+		jdbcTemplate.execute("CREATE TABLE id_sequences (sequence_name VARCHAR(64) PRIMARY KEY, next_value BIGINT NOT NULL)");
+		jdbcTemplate.update("INSERT INTO Users1 (UserID) VALUES (1), (2), (3), (4)");
+	}
+
+	@Test
+	void startsAfterTheHighestExistingIdAndReservesWholeBlocks() {
+		assertThat(allocator.nextId()).isEqualTo(5);
+		assertThat(allocator.nextId()).isEqualTo(6);
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT next_value FROM id_sequences WHERE sequence_name = 'Users1'", Long.class)).isEqualTo(15L);
+	}
+
+	@Test
+	void createsTheSequenceTableInDatabasesThatPredateIt() {
+		jdbcTemplate.execute("DROP TABLE id_sequences");
+
+		assertThat(allocator.nextId()).isEqualTo(5);
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT next_value FROM id_sequences WHERE sequence_name = 'Users1'", Long.class)).isEqualTo(15L);
+	}
+
+	@Test
+	void concurrentCallersNeverReceiveTheSameId() throws Exception {
+		int threads = 8;
+		int perThread = 500;
+		Set<Integer> ids = ConcurrentHashMap.newKeySet();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < perThread; i++) {
+						ids.add(allocator.nextId());
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(ids).hasSize(threads * perThread);
+		assertThat(ids).allSatisfy(id -> assertThat(id).isBetween(5, 4 + threads * perThread));
+	}
+}
@@ -0,0 +1,42 @@
+package com.shop.ecommerce.user;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailBloomFilterTests {
+
+	@Test
+	void neverMissesAnAddedAddress() {
+		EmailBloomFilter filter = EmailBloomFilter.create(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("user" + i + "@example.com");
+		}
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+		}
+	}
+
+	@Test
+	void keepsFalsePositivesNearTheConfiguredRateAtCapacity() {
+		EmailBloomFilter filter = EmailBloomFilter.create(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("user" + i + "@example.com");
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filter.mightContain("other" + i + "@example.org")) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+		assertThat(filter.expectedFpp()).isBetween(0.005, 0.015);
+	}
+
+	@Test
+	void normalizesCaseAndSurroundingWhitespace() {
+		EmailBloomFilter filter = EmailBloomFilter.create(100, 0.01);
+		filter.put(EmailBloomFilter.normalize("  Riya.Sharma@Example.com "));
+		assertThat(filter.mightContain(EmailBloomFilter.normalize("riya.sharma@example.com"))).isTrue();
+	}
+}
@@ -23,7 +23,8 @@ export const AuthProvider = ({ children }) => {
           userId: response.data.userId,
           firstName: response.data.firstName,
           lastName: response.data.lastName,
-          email: response.data.email
+          email: response.data.email,
+          token: response.data.token
         };
 
         localStorage.setItem('user', JSON.stringify(userData));
@@ -65,6 +66,8 @@ export const AuthProvider = ({ children }) => {
 
   const logout = () => {
     localStorage.removeItem('user');
+    // The cart now belongs to this user; the next visitor starts a new one.
+    localStorage.removeItem('cartId');
     setCurrentUser(null);
   };
 
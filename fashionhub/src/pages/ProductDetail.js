@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
-import { productAPI } from '../services/api';
+import { productAPI, cartAPI } from '../services/api';
 
 const ProductDetail = () => {
   const { id } = useParams();
@@ -52,13 +52,14 @@ const ProductDetail = () => {
     }).format(price).replace('₹', '₹');
   };
 
-  const handleAddToCart = () => {
-    console.log('Added to cart:', {
-      product: product.productId,
-      size: selectedSize,
-      quantity: quantity
-    });
-    alert('Product added to cart!');
+  const handleAddToCart = async () => {
+    try {
+      await cartAPI.addItem(product.productId, selectedSize, quantity);
+      alert('Product added to cart!');
+    } catch (error) {
+      console.error('Error adding to cart:', error);
+      alert(error.response?.data?.message || 'Failed to add product to cart');
+    }
   };
 
   const handleGoBack = () => {
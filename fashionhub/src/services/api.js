@@ -14,6 +14,13 @@ const api = axios.create({
 // Request interceptor
 api.interceptors.request.use(
   (config) => {
+    // Orders and cart ownership go by the login token, not by a user id in the request.
+    try {
+      const { token } = JSON.parse(localStorage.getItem('user')) || {};
+      if (token) config.headers.Authorization = `Bearer ${token}`;
+    } catch (e) {
+      // not signed in
+    }
     console.log('🚀 API Request:', config.method?.toUpperCase(), config.url);
     return config;
   },
@@ -65,4 +72,33 @@ export const categoryAPI = {
   searchCategories: (name) => api.get(`/categories/search?name=${name}`),
 };
 
+// Carts are addressed by the random id the server issued to this browser; an id from
+// before that (user-/guest- ids) is replaced by a new cart.
+const CART_ID = /^[0-9a-f]{8}-[0-9a-f]{4}-4[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$/;
+let pendingCartId = null;
+
+const cartId = () => {
+  const id = localStorage.getItem('cartId');
+  if (id && CART_ID.test(id)) return Promise.resolve(id);
+  if (!pendingCartId) {
+    pendingCartId = api.post('/cart')
+      .then(({ data }) => {
+        localStorage.setItem('cartId', data.cartId);
+        return data.cartId;
+      })
+      .finally(() => {
+        pendingCartId = null;
+      });
+  }
+  return pendingCartId;
+};
+
+export const cartAPI = {
+  getCart: async () => api.get(`/cart/${await cartId()}`),
+  addItem: async (productId, size, quantity) => api.post(`/cart/${await cartId()}/items`, { productId, size, quantity }),
+  setItem: async (productId, size, quantity) => api.put(`/cart/${await cartId()}/items`, { productId, size, quantity }),
+  removeItem: async (productId, size) => api.delete(`/cart/${await cartId()}/items`, { params: { productId, size } }),
+  clear: async () => api.delete(`/cart/${await cartId()}`),
+};
+
 export default api;